@@ -0,0 +1,195 @@
+package bookfronterab.service;
+
+import bookfronterab.config.DateTimeConfig;
+import bookfronterab.dto.AvailabilityDto;
+import bookfronterab.dto.RoomDto;
+import bookfronterab.model.Reservation;
+import bookfronterab.model.Room;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.RoomRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmarks de la grilla de disponibilidad con salas y reservas sintéticas, sin base de datos.
+ * <p>
+ * Las salas y la ocupación del día se cargan en memoria en el {@code @Setup} (los repositorios son mocks
+ * que solo se llaman ahí), así cada benchmark mide únicamente el cálculo: la matriz sala x bloque,
+ * la revisión de solapamiento por bits, la generación de bloques, el mapeo a DTOs y la serialización JSON.
+ * <p>
+ * Se ejecutan con el perfil {@code benchmarks} del pom: {@code ./mvnw -Pbenchmarks test-compile exec:exec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    private static final ZoneId ZONE = ZoneId.of(DateTimeConfig.TZ_ID);
+    private static final LocalDate DATE = LocalDate.of(2025, 11, 20);
+
+    @State(Scope.Benchmark)
+    public static class Grid {
+
+        @Param({"10", "100", "1000"})
+        public int rooms;
+
+        List<Room> roomEntities;
+        AvailabilityService availabilityService;
+        AvailabilityDto.DailyAvailabilityResponse response;
+        AvailabilityDto.CompactDailyAvailabilityResponse compactResponse;
+        Map<Long, long[]> occupancy;
+        int[][] slotMinutes;
+
+        final ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        @Setup
+        public void setUp() {
+            roomEntities = LongStream.rangeClosed(1, rooms)
+                    .mapToObj(id -> Room.builder().id(id).name("Sala " + id).capacity(10 + (int) (id % 30))
+                            .floor((int) (id % 5)).equipment(List.of("TV", "Pizarra", "Proyector"))
+                            .imageUrl("https://res.cloudinary.com/demo/image/upload/sala-" + id + ".jpg")
+                            .build())
+                    .toList();
+            List<AvailabilityDto.TimeSlotDto> slots = AvailabilityService.generateTimeSlots();
+
+            RoomRepository roomRepo = mock(RoomRepository.class);
+            when(roomRepo.findAll()).thenReturn(roomEntities);
+            ReservationRepository reservationRepo = mock(ReservationRepository.class);
+            when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(reservations(roomEntities, slots));
+
+            TimeService timeService = new TimeService(ZONE);
+            RoomOccupancyIndex occupancyIndex = new RoomOccupancyIndex(reservationRepo, timeService,
+                    Duration.ofDays(1), 10, Clock.systemUTC());
+            availabilityService = new AvailabilityService(new RoomCatalog(roomRepo), occupancyIndex,
+                    new ReservationHoldIndex(timeService), timeService, new SimpleMeterRegistry());
+
+            // Primera llamada: carga el catálogo y el día en memoria
+            response = availabilityService.getDailyAvailability(DATE);
+            compactResponse = availabilityService.getCompactDailyAvailability(DATE);
+            occupancy = occupancyIndex.getDay(DATE);
+            slotMinutes = slots.stream()
+                    .map(slot -> new int[]{
+                            LocalTime.parse(slot.getStart()).toSecondOfDay() / 60,
+                            LocalTime.parse(slot.getEnd()).toSecondOfDay() / 60})
+                    .toArray(int[][]::new);
+        }
+
+        /**
+         * La mitad de los bloques de cada sala ocupados, alternados (una reserva por bloque).
+         */
+        private static List<Reservation> reservations(List<Room> rooms, List<AvailabilityDto.TimeSlotDto> slots) {
+            List<Reservation> reservations = new ArrayList<>();
+            for (Room room : rooms) {
+                for (int i = 0; i < slots.size(); i++) {
+                    if ((room.getId() + i) % 2 == 0) {
+                        reservations.add(Reservation.builder()
+                                .room(room)
+                                .startAt(DATE.atTime(LocalTime.parse(slots.get(i).getStart())).atZone(ZONE))
+                                .endAt(DATE.atTime(LocalTime.parse(slots.get(i).getEnd())).atZone(ZONE))
+                                .build());
+                    }
+                }
+            }
+            return reservations;
+        }
+    }
+
+    /**
+     * Grilla clásica: una celda {@code (roomId, slotId, available)} por sala y bloque.
+     */
+    @Benchmark
+    public AvailabilityDto.DailyAvailabilityResponse dailyMatrix(Grid grid) {
+        return grid.availabilityService.getDailyAvailability(DATE);
+    }
+
+    /**
+     * Grilla compacta: una máscara de bits por sala.
+     */
+    @Benchmark
+    public AvailabilityDto.CompactDailyAvailabilityResponse compactDaily(Grid grid) {
+        return grid.availabilityService.getCompactDailyAvailability(DATE);
+    }
+
+    /**
+     * Solo la revisión de solapamiento bloque vs. ocupación en bits, sin armar DTOs.
+     */
+    @Benchmark
+    public int overlapCheck(Grid grid) {
+        int occupied = 0;
+        for (Room room : grid.roomEntities) {
+            long[] bits = grid.occupancy.get(room.getId());
+            for (int[] slot : grid.slotMinutes) {
+                if (RoomOccupancyIndex.isOccupied(bits, slot[0], slot[1])) {
+                    occupied++;
+                }
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Mapeo de las entidades {@link Room} a {@link RoomDto}, como al recargar {@link RoomCatalog}.
+     */
+    @Benchmark
+    public List<RoomDto> roomDtoMapping(Grid grid) {
+        List<RoomDto> dtos = new ArrayList<>(grid.roomEntities.size());
+        for (Room room : grid.roomEntities) {
+            dtos.add(RoomCatalog.toDto(room, room.getImageUrl()));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public byte[] serializeDaily(Grid grid) throws JsonProcessingException {
+        return grid.objectMapper.writeValueAsBytes(grid.response);
+    }
+
+    /**
+     * Serialización de la grilla compacta; el tamaño de ambas se verifica en {@code AvailabilityPayloadSizeTest}.
+     */
+    @Benchmark
+    public byte[] serializeCompactDaily(Grid grid) throws JsonProcessingException {
+        return grid.objectMapper.writeValueAsBytes(grid.compactResponse);
+    }
+
+    /**
+     * No depende de la cantidad de salas: solo se ejecuta una vez, no por cada valor de {@code rooms}.
+     */
+    @Benchmark
+    public List<AvailabilityDto.TimeSlotDto> generateTimeSlots() {
+        return AvailabilityService.generateTimeSlots();
+    }
+}
@@ -4,6 +4,7 @@ import bookfronterab.model.User;
 import bookfronterab.model.UserRole;
 import bookfronterab.repo.UserRepository;
 import bookfronterab.service.TimeService;
+import bookfronterab.service.UserIdentityCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -35,6 +36,7 @@ public class CustomAuthenticationSuccessHandler implements AuthenticationSuccess
     private final OAuth2AuthorizedClientService authorizedClientService;
     private final UserRepository userRepository;
     private final TimeService timeService;
+    private final UserIdentityCache userIdentityCache;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
@@ -59,6 +61,8 @@ public class CustomAuthenticationSuccessHandler implements AuthenticationSuccess
         }
 
         userRepository.save(user);
+        // El nombre pudo cambiar en Google y los tokens se renovaron: la identidad en caché ya no sirve
+        userIdentityCache.evict(user.getEmail());
 
         //  Redirigir al frontend
         response.sendRedirect("http://localhost:5173");
@@ -0,0 +1,30 @@
+package bookfronterab.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de las migraciones versionadas ({@code src/main/resources/db/migration}).
+ * <p>
+ * Las bases creadas antes de usar Flyway (con {@code ddl-auto}) ya tienen el esquema de
+ * {@code V1__baseline_schema.sql}: se registran en esa versión sin ejecutarlo y solo
+ * se les aplican las migraciones siguientes. Por eso V1 no se modifica para agregar tablas:
+ * todo lo nuevo va en una migración posterior (con {@code IF NOT EXISTS} si alguna base
+ * pudo haberlo recibido antes por {@code ddl-auto}).
+ * <p>
+ * Las migraciones son la única fuente del esquema: fuera de los tests, Hibernate solo lo valida
+ * ({@code ddl-auto=validate}, ver docker-compose.yml).
+ */
+@Configuration
+public class FlywayConfig {
+
+    public static final String BASELINE_VERSION = "1";
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion(BASELINE_VERSION);
+    }
+}
@@ -0,0 +1,115 @@
+package bookfronterab.config;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.calendar.Calendar;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Clientes HTTP compartidos para las APIs de Google (Calendar y refresco de tokens OAuth2).
+ * <p>
+ * Un único {@link HttpTransport} con pool de conexiones keep-alive evita abrir una conexión
+ * y un handshake TLS por cada llamada. El token de acceso no se fija en el cliente:
+ * se agrega en cada petición (ver {@link bookfronterab.service.google.GoogleCalendarService}).
+ */
+@Configuration
+public class GoogleApiConfig {
+
+    private static final String APPLICATION_NAME = "BookFrontera Calendar";
+
+    @Value("${bookfrontera.google.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${bookfrontera.google.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${bookfrontera.google.http.connection-ttl-seconds:300}")
+    private long connectionTtlSeconds;
+
+    @Value("${bookfrontera.google.http.idle-timeout-seconds:60}")
+    private long idleTimeoutSeconds;
+
+    @Value("${bookfrontera.google.http.connect-timeout-ms:5000}")
+    private int connectTimeoutMillis;
+
+    @Value("${bookfrontera.google.http.read-timeout-ms:20000}")
+    private int readTimeoutMillis;
+
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager googleConnectionManager() {
+        PoolingHttpClientConnectionManager manager =
+                new PoolingHttpClientConnectionManager(connectionTtlSeconds, TimeUnit.SECONDS);
+        manager.setMaxTotal(maxConnections);
+        manager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // Revalida conexiones que estuvieron inactivas antes de reutilizarlas
+        manager.setValidateAfterInactivity(2_000);
+        return manager;
+    }
+
+    @Bean
+    public HttpTransport googleHttpTransport(PoolingHttpClientConnectionManager googleConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setConnectionRequestTimeout(connectTimeoutMillis)
+                .setSocketTimeout(readTimeoutMillis)
+                .build();
+        return new ApacheHttpTransport(ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setConnectionManager(googleConnectionManager)
+                .setConnectionManagerShared(true) // su ciclo de vida lo maneja el bean
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS)
+                .evictExpiredConnections()
+                .setDefaultRequestConfig(requestConfig)
+                .build());
+    }
+
+    @Bean
+    public JsonFactory googleJsonFactory() {
+        return GsonFactory.getDefaultInstance();
+    }
+
+    /**
+     * Cliente de Calendar sin credenciales: es seguro compartirlo entre hilos y usuarios.
+     */
+    @Bean
+    public Calendar googleCalendarClient(HttpTransport googleHttpTransport, JsonFactory googleJsonFactory) {
+        return new Calendar.Builder(googleHttpTransport, googleJsonFactory, null)
+                .setApplicationName(APPLICATION_NAME)
+                .build();
+    }
+
+    /**
+     * Publica el uso del pool como gauges {@code google.http.pool.*}.
+     * Se registran en cualquier {@link MeterRegistry} disponible en el contexto.
+     */
+    @Bean
+    public MeterBinder googleHttpPoolMetrics(PoolingHttpClientConnectionManager googleConnectionManager) {
+        return registry -> {
+            gauge(registry, googleConnectionManager, "leased", "Conexiones en uso", PoolStats::getLeased);
+            gauge(registry, googleConnectionManager, "available", "Conexiones ociosas reutilizables", PoolStats::getAvailable);
+            gauge(registry, googleConnectionManager, "pending", "Peticiones esperando una conexión", PoolStats::getPending);
+            gauge(registry, googleConnectionManager, "max", "Máximo de conexiones del pool", PoolStats::getMax);
+        };
+    }
+
+    private static void gauge(MeterRegistry registry, PoolingHttpClientConnectionManager manager,
+                              String name, String description, ToIntFunction<PoolStats> value) {
+        Gauge.builder("google.http.pool." + name, manager, m -> value.applyAsInt(m.getTotalStats()))
+                .description(description)
+                .register(registry);
+    }
+}
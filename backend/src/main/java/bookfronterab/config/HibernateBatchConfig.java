@@ -0,0 +1,31 @@
+package bookfronterab.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Agrupa los INSERT/UPDATE de Hibernate en lotes JDBC.
+ * <p>
+ * Funciona junto con la asignación "pooled" de IDs de {@code Reservation}, {@code Room} y {@code User}
+ * (allocationSize = 50): el ID se conoce sin ir a la base de datos, así las filas pendientes
+ * se envían en un solo lote al hacer flush. {@code order_inserts} ordena las sentencias por entidad
+ * para que una sala y su equipamiento no corten el lote.
+ */
+@Configuration
+public class HibernateBatchConfig {
+
+    @Value("${bookfrontera.jpa.batch-size:50}")
+    private int batchSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatching() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+}
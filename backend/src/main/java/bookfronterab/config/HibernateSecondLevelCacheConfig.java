@@ -0,0 +1,70 @@
+package bookfronterab.config;
+
+import bookfronterab.model.Room;
+import bookfronterab.model.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel de Hibernate (JCache, en memoria con Caffeine) para {@link Room},
+ * su equipamiento y {@link User}: se leen en casi todas las peticiones y cambian poco.
+ * <p>
+ * Las regiones son {@code READ_WRITE}: los cambios hechos con la entidad (alta, edición o borrado de una sala)
+ * actualizan o quitan la entrada al confirmar la transacción, y un UPDATE/DELETE JPQL sobre la entidad
+ * (ej. {@code UserRepository#updateGoogleTokens}) vacía su región. Las consultas nativas que modifican otras
+ * tablas declaran la tabla que tocan (hint {@code org.hibernate.query.nativeSpaces}); sin eso Hibernate
+ * vaciaría todas las regiones en cada reserva.
+ * <p>
+ * El {@link CacheManager} se crea con un proveedor propio, no con el compartido de {@code Caching}:
+ * cada contexto de Spring (ej. cada clase de test con su propia base de datos) tiene sus propias cachés,
+ * y Hibernate lo cierra al cerrar el {@code EntityManagerFactory}.
+ */
+@Configuration
+public class HibernateSecondLevelCacheConfig {
+
+    static final List<String> REGIONS = List.of(
+            Room.class.getName(),
+            Room.class.getName() + ".equipment",
+            User.class.getName());
+
+    @Value("${bookfrontera.jpa.second-level-cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${bookfrontera.jpa.second-level-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache() {
+        CachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        REGIONS.forEach(region -> cacheManager.createCache(region, regionConfiguration()));
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.putIfAbsent(ConfigSettings.CACHE_MANAGER, cacheManager);
+            // Actuator publica estas estadísticas como métricas hibernate.* (aciertos/fallos por región, consultas...)
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private CaffeineConfiguration<Object, Object> regionConfiguration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+        // Hibernate guarda el estado desarmado (inmutable) de la entidad: no hace falta copiarlo en cada lectura
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+}
@@ -42,6 +42,11 @@ SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
                     .requestMatchers("/api/v1/rooms/**").hasRole("ADMIN")
 
+                    // Actuator: salud y métricas para el scraper de Prometheus (el puerto de gestión no se publica,
+                    // ver docker-compose.yml); el resto de los endpoints solo para administradores
+                    .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll()
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                     .anyRequest().authenticated()
             )
             .exceptionHandling(exception -> exception
@@ -2,15 +2,25 @@ package bookfronterab.controller;
 
 import bookfronterab.dto.AvailabilityDto;
 import bookfronterab.service.AvailabilityService;
+import bookfronterab.service.AvailabilityStreamService;
 import bookfronterab.service.TimeService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.util.function.Supplier;
 
 /**
  * Controlador público para consultar la disponibilidad de salas.
@@ -21,29 +31,134 @@ import java.time.LocalDate;
 @RequiredArgsConstructor
 public class AvailabilityController {
 
+    public static final String COMPACT_FORMAT = "compact";
+    public static final String COMPACT_MEDIA_TYPE = "application/vnd.bookfrontera.availability-compact+json";
+
     private final AvailabilityService availabilityService;
+    private final AvailabilityStreamService availabilityStreamService;
     private final TimeService timeService; // Para obtener la fecha de "hoy"
 
     /**
      * Obtiene la grilla de disponibilidad diaria para todas las salas.
+     * <p>
+     * Soporta GET condicional: la respuesta incluye un {@code ETag} que cambia cuando se crea
+     * o cancela una reserva de ese día o cuando cambia el catálogo de salas. Si el cliente
+     * envía {@code If-None-Match} con el ETag vigente, se responde 304 sin recalcular la grilla.
      *
      * @param dateString Opcional. La fecha a consultar en formato ISO (YYYY-MM-DD).
      * Si se omite, se usará la fecha actual ("hoy").
-     * @return Un DTO {@link AvailabilityDto.DailyAvailabilityResponse} con la grilla de disponibilidad.
+     * @param request La petición, usada para evaluar {@code If-None-Match}.
+     * @return Un DTO {@link AvailabilityDto.DailyAvailabilityResponse} con la grilla de disponibilidad,
+     * o 304 (Not Modified) si el cliente ya tiene la versión actual.
      */
     @GetMapping
-    public AvailabilityDto.DailyAvailabilityResponse getDailyAvailability(
+    public ResponseEntity<AvailabilityDto.DailyAvailabilityResponse> getDailyAvailability(
             // Agregamos (value = "date") para conectar con ?date=... del frontend
             @RequestParam(value = "date", required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String dateString) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String dateString,
+            WebRequest request) {
+
+        LocalDate date = resolveDate(dateString);
+        return conditionalGet(date, "", request, () -> availabilityService.getDailyAvailability(date));
+    }
+
+    /**
+     * Variante compacta de la grilla diaria: en lugar de un objeto por celda, envía una
+     * máscara de bits por sala (ver {@link AvailabilityDto.CompactDailyAvailabilityResponse}).
+     * Se selecciona con {@code ?format=compact}.
+     *
+     * @param dateString Opcional. La fecha a consultar en formato ISO (YYYY-MM-DD). Por defecto, hoy.
+     * @param request    La petición, usada para evaluar {@code If-None-Match}.
+     * @return La grilla compacta, o 304 (Not Modified) si el cliente ya tiene la versión actual.
+     */
+    @GetMapping(params = "format=" + COMPACT_FORMAT)
+    public ResponseEntity<AvailabilityDto.CompactDailyAvailabilityResponse> getCompactDailyAvailability(
+            @RequestParam(value = "date", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String dateString,
+            WebRequest request) {
+        LocalDate date = resolveDate(dateString);
+        return conditionalGet(date, COMPACT_FORMAT, request, () -> availabilityService.getCompactDailyAvailability(date));
+    }
+
+    /**
+     * Variante compacta negociada por cabecera ({@code Accept: application/vnd.bookfrontera.availability-compact+json}).
+     */
+    @GetMapping(produces = COMPACT_MEDIA_TYPE)
+    public ResponseEntity<AvailabilityDto.CompactDailyAvailabilityResponse> getCompactDailyAvailabilityByAccept(
+            @RequestParam(value = "date", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String dateString,
+            WebRequest request) {
+        return getCompactDailyAvailability(dateString, request);
+    }
+
+    /**
+     * Obtiene la disponibilidad de un rango de días en una sola llamada
+     * (por ejemplo, la semana que el usuario está navegando).
+     *
+     * @param from Primer día del rango en formato ISO (YYYY-MM-DD), inclusive.
+     * @param to   Último día del rango en formato ISO (YYYY-MM-DD), inclusive. Máximo 3 meses después de {@code from}.
+     * @return Un DTO {@link AvailabilityDto.RangeAvailabilityResponse} con las salas, los bloques y una matriz por día.
+     */
+    @GetMapping(params = {"from", "to"})
+    public AvailabilityDto.RangeAvailabilityResponse getRangeAvailability(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return availabilityService.getRangeAvailability(from, to);
+    }
+
+    /**
+     * Abre un stream SSE con los cambios de disponibilidad de un día.
+     * Cada vez que se confirma la creación o cancelación de una reserva se envía un evento
+     * {@code slot-change} por cada bloque afectado ({@link AvailabilityDto.SlotChangeDto}).
+     * Reemplaza el polling: el cliente carga la grilla una vez y luego aplica los cambios.
+     *
+     * Responde 400 si la fecha está fuera del horizonte de reservas y 503 si no quedan conexiones disponibles.
+     *
+     * @param dateString Opcional. La fecha a observar en formato ISO (YYYY-MM-DD). Por defecto, hoy.
+     * @param response   La respuesta HTTP, para desactivar el buffering de proxies intermedios.
+     * @return El {@link SseEmitter} asociado a la conexión.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(
+            @RequestParam(value = "date", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String dateString,
+            HttpServletResponse response) {
+
+        LocalDate date = resolveDate(dateString);
+
+        // Evita que nginx acumule los eventos en su buffer antes de enviarlos
+        response.setHeader("X-Accel-Buffering", "no");
+        return availabilityStreamService.subscribe(date);
+    }
 
-        LocalDate date;
+    /**
+     * Convierte el parámetro opcional {@code date} a {@link LocalDate}; si se omite, usa "hoy".
+     */
+    private LocalDate resolveDate(String dateString) {
         if (dateString != null && !dateString.isEmpty()) {
-            date = LocalDate.parse(dateString);
-        } else {
-            date = LocalDate.now(timeService.zone());
+            return LocalDate.parse(dateString);
+        }
+        return LocalDate.now(timeService.zone());
+    }
+
+    /**
+     * Responde una grilla diaria con soporte de GET condicional.
+     * El ETag se calcula ANTES que la grilla (ver AvailabilityService.getAvailabilityETag) y
+     * lleva un sufijo por representación, para que JSON y compacto no compartan caché.
+     */
+    private <T> ResponseEntity<T> conditionalGet(LocalDate date, String variant, WebRequest request, Supplier<T> body) {
+        String eTag = availabilityService.getAvailabilityETag(date);
+        if (eTag != null && !variant.isEmpty()) {
+            eTag = eTag.substring(0, eTag.length() - 1) + "-" + variant + "\"";
+        }
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
         }
 
-        return availabilityService.getDailyAvailability(date);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body.get());
     }
-}
\ No newline at end of file
+}
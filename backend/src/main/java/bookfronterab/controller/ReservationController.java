@@ -1,48 +1,153 @@
 package bookfronterab.controller;
 
 import bookfronterab.dto.ReservationDto;
+import bookfronterab.service.IdempotencyService;
+import bookfronterab.service.ReservationHoldService;
 import bookfronterab.service.ReservationService;
+import bookfronterab.service.WaitlistService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+
 import java.util.List;
 @RestController
 @RequestMapping("/api/v1")
 @RequiredArgsConstructor
 public class ReservationController {
     public static final String EMAIL = "email";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
 
     private final ReservationService reservationService;
+    private final IdempotencyService idempotencyService;
+    private final ReservationHoldService holdService;
+    private final WaitlistService waitlistService;
 
     /**
      * Endpoint para crear un reserva.
+     * Con el encabezado {@code Idempotency-Key}, un reintento de la misma solicitud devuelve
+     * el 201 original (con {@code Idempotent-Replayed: true}) sin volver a crear la reserva.
      */
     @PostMapping("/reservations")
-    @ResponseStatus(HttpStatus.CREATED)
-    public void create(
+    public ResponseEntity<Void> create(
             @RequestBody ReservationDto.CreateRequest req,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal OAuth2User principal) {
         if (principal == null) {
             throw new SecurityException("No estás autenticado.");
         }
         String userEmail = principal.getAttribute(EMAIL);
-        reservationService.create(userEmail, req);
+        boolean replayed = idempotencyService.execute(userEmail, idempotencyKey, "reservations.create", req,
+                () -> reservationService.create(userEmail, req));
+        return created(replayed);
     }
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/reservations/on-behalf")
-    @ResponseStatus(HttpStatus.CREATED)
-    public void createOnBehalf(
+    public ResponseEntity<Void> createOnBehalf(
             @RequestBody ReservationDto.CreateOnBehalfRequest req,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal OAuth2User principal) {
         if (principal == null) {
             throw new SecurityException("No estás autenticado.");
         }
         String userEmail = principal.getAttribute(EMAIL);
         ReservationDto.CreateRequest createRequest = new ReservationDto.CreateRequest(req.roomId(),req.startAt(),req.endAt(),false);
-        reservationService.createOnBehalf(userEmail,req.othersEmail(), createRequest);
+        boolean replayed = idempotencyService.execute(userEmail, idempotencyKey, "reservations.on-behalf", req,
+                () -> reservationService.createOnBehalf(userEmail, req.othersEmail(), createRequest));
+        return created(replayed);
+    }
+
+    /**
+     * Endpoint para que el ADMIN cree muchas reservas de una vez (ej. un curso todos los martes del semestre).
+     * Devuelve el resultado de cada ocurrencia: 201 si se creó al menos una, 409 si todas fueron rechazadas.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reservations/bulk")
+    public ResponseEntity<ReservationDto.BulkCreateResponse> createBulk(
+            @RequestBody ReservationDto.BulkCreateRequest req,
+            @AuthenticationPrincipal OAuth2User principal) {
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+        String userEmail = principal.getAttribute(EMAIL);
+        ReservationDto.BulkCreateResponse response = reservationService.createBulk(userEmail, req);
+        HttpStatus status = response.created() > 0 ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /**
+     * Endpoint para bloquear tentativamente un intervalo mientras el usuario confirma la reserva.
+     * El bloqueo expira solo si no se confirma con {@code POST /reservations}.
+     */
+    @PostMapping("/reservations/holds")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationDto.HoldResponse placeHold(
+            @RequestBody ReservationDto.HoldRequest req,
+            @AuthenticationPrincipal OAuth2User principal) {
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+        String userEmail = principal.getAttribute(EMAIL);
+        return holdService.place(userEmail, req);
+    }
+
+    @DeleteMapping("/reservations/holds/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseHold(@PathVariable Long id,
+                            @AuthenticationPrincipal OAuth2User principal) {
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+        String userEmail = principal.getAttribute(EMAIL);
+        holdService.release(id, userEmail);
+    }
+
+    /**
+     * Endpoint para anotarse en la lista de espera de un intervalo ya reservado.
+     * Si se cancela la reserva, el intervalo se asigna automáticamente al primero de la lista que pueda reservarlo.
+     */
+    @PostMapping("/reservations/waitlist")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationDto.WaitlistResponse joinWaitlist(
+            @RequestBody ReservationDto.WaitlistRequest req,
+            @AuthenticationPrincipal OAuth2User principal) {
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+        String userEmail = principal.getAttribute(EMAIL);
+        return waitlistService.join(userEmail, req);
+    }
+
+    @GetMapping("/reservations/waitlist/me")
+    public List<ReservationDto.WaitlistResponse> getMyWaitlist(@AuthenticationPrincipal OAuth2User principal) {
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+        String userEmail = principal.getAttribute(EMAIL);
+        return waitlistService.getMine(userEmail);
+    }
+
+    @DeleteMapping("/reservations/waitlist/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void leaveWaitlist(@PathVariable Long id,
+                              @AuthenticationPrincipal OAuth2User principal) {
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+        String userEmail = principal.getAttribute(EMAIL);
+        waitlistService.leave(id, userEmail);
+    }
+
+    private static ResponseEntity<Void> created(boolean replayed) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (replayed) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return response.build();
     }
 
     /**
@@ -63,6 +168,26 @@ public class ReservationController {
         return reservationService.getMyReservations(userEmail);
     }
 
+    /**
+     * Endpoint para obtener el historial del usuario autenticado página por página,
+     * de la reserva más reciente a la más antigua.
+     *
+     * @param cursor El {@code pastNextCursor}/{@code nextCursor} de la respuesta anterior.
+     * @param size   Tamaño de página (opcional, máximo 100).
+     */
+    @GetMapping("/reservations/my-reservations/past")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationDto.CursorPage<ReservationDto.Detail> getMyPastReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal OAuth2User principal) {
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+        String userEmail = principal.getAttribute(EMAIL);
+        return reservationService.getMyPastReservations(userEmail, cursor, size);
+    }
+
     /**
      * Endpoint para obtener los detalles de una reserva específica por su ID.
      *
@@ -87,13 +212,35 @@ public class ReservationController {
         reservationService.cancel(id, userEmail);
     }
     /**
-     * Endpoint para que el ADMIN vea las reservas de una sala específica.
+     * Endpoint para que el ADMIN vea las reservas vigentes de una sala específica, paginadas.
      * Útil para gestionar conflictos o ver disponibilidad.
      */
     @GetMapping("/room/{roomId}")
     @ResponseStatus(HttpStatus.OK)
-    public List<ReservationDto.Detail> getByRoom(
+    public ReservationDto.CursorPage<ReservationDto.Detail> getByRoom(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        if (principal == null) {
+            throw new SecurityException("No estás autenticado.");
+        }
+
+        String userEmail = principal.getAttribute(EMAIL);
+
+        return reservationService.getReservationsByRoom(roomId, userEmail, cursor, size);
+    }
+
+    /**
+     * Endpoint para que el ADMIN recorra el historial de una sala, de la reserva más reciente a la más antigua.
+     */
+    @GetMapping("/room/{roomId}/history")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationDto.CursorPage<ReservationDto.Detail> getRoomHistory(
             @PathVariable Long roomId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @AuthenticationPrincipal OAuth2User principal) {
 
         if (principal == null) {
@@ -102,7 +249,6 @@ public class ReservationController {
 
         String userEmail = principal.getAttribute(EMAIL);
 
-        // Llamamos al nuevo método del serv
-        return reservationService.getReservationsByRoom(roomId, userEmail);
+        return reservationService.getRoomHistory(roomId, userEmail, cursor, size);
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import bookfronterab.dto.UserDto;
 import bookfronterab.model.User;
 import bookfronterab.model.UserRole;
 import bookfronterab.repo.UserRepository;
+import bookfronterab.service.UserIdentityCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +35,7 @@ import java.util.Set;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final UserIdentityCache userIdentityCache;
 
     @GetMapping("/me")
     public ResponseEntity<UserDto> getMe(@AuthenticationPrincipal OAuth2User principal) {
@@ -42,8 +44,8 @@ public class UserController {
         }
 
         String email = principal.getAttribute("email");
-        return userRepository.findByEmail(email)
-                .map(user -> ResponseEntity.ok(mapToDto(user)))
+        return userIdentityCache.findByEmail(email)
+                .map(identity -> ResponseEntity.ok(mapToDto(identity)))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
     /**
@@ -65,6 +67,7 @@ public class UserController {
         UserRole newRole = (user.getRol() == UserRole.ADMIN) ? UserRole.STUDENT : UserRole.ADMIN;
         user.setRol(newRole);
         User savedUser = userRepository.save(user);
+        userIdentityCache.evict(email);
 
         // 2. Actualizar la sesión de Spring Security 'en caliente'
         // Esto evita tener que desloguearse para ver los efectos del nuevo rol
@@ -90,6 +93,15 @@ public class UserController {
         return ResponseEntity.ok(mapToDto(savedUser));
     }
 
+    private UserDto mapToDto(UserIdentityCache.UserIdentity identity) {
+        return UserDto.builder()
+                .id(identity.id())
+                .email(identity.email())
+                .nombre(identity.nombre())
+                .rol(identity.rol())
+                .build();
+    }
+
     private UserDto mapToDto(User user) {
         return UserDto.builder()
                 .id(user.getId())
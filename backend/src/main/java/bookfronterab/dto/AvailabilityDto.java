@@ -3,6 +3,7 @@ package bookfronterab.dto;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -28,6 +29,40 @@ public class AvailabilityDto {
         private List<AvailabilityMatrixItemDto> availability;
     }
 
+    /**
+     * Representación compacta de la grilla diaria.
+     * <p>
+     * {@code availability.get(i)} corresponde a {@code rooms.get(i)} y es una máscara de bits
+     * donde el bit {@code j} (de menor a mayor peso) vale 1 si {@code slots.get(j)} está disponible.
+     * Evita repetir las claves {@code roomId}/{@code slotId}/{@code available} por cada celda.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CompactDailyAvailabilityResponse {
+        private List<RoomDto> rooms;
+        private List<TimeSlotDto> slots;
+        private long[] availability;
+    }
+
+    /**
+     * DTO para la respuesta de disponibilidad de un rango de días.
+     * Las salas y los bloques se envían una sola vez; cada día trae solo su matriz.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class RangeAvailabilityResponse {
+        private List<RoomDto> rooms;
+        private List<TimeSlotDto> slots;
+        private List<DayAvailabilityDto> days;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DayAvailabilityDto {
+        private LocalDate date;
+        private List<AvailabilityMatrixItemDto> availability;
+    }
+
     @Getter
     @AllArgsConstructor
     public static class TimeSlotDto {
@@ -44,4 +79,16 @@ public class AvailabilityDto {
         private String slotId;
         private boolean available;
     }
-}
\ No newline at end of file
+
+    /**
+     * Cambio de disponibilidad de un bloque, enviado por el stream SSE.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SlotChangeDto {
+        private LocalDate date;
+        private String roomId;
+        private String slotId;
+        private boolean available;
+    }
+}
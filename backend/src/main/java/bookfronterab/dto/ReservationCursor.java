@@ -0,0 +1,50 @@
+package bookfronterab.dto;
+
+import bookfronterab.model.Reservation;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor de paginación por clave ("keyset") sobre {@code (startAt, id)}.
+ * <p>
+ * Se envía al cliente como un texto opaco; el cliente solo lo devuelve para pedir la página siguiente.
+ * A diferencia de un offset, el costo de cada página no crece con el historial.
+ *
+ * @param startAt Inicio de la última reserva entregada.
+ * @param id      ID de la última reserva entregada (desempata reservas con el mismo inicio).
+ */
+public record ReservationCursor(ZonedDateTime startAt, long id) {
+
+    public static ReservationCursor of(Reservation reservation) {
+        return new ReservationCursor(reservation.getStartAt(), reservation.getId());
+    }
+
+    public String encode() {
+        String raw = startAt.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param cursor El cursor opaco.
+     * @return El cursor decodificado.
+     * @throws IllegalArgumentException Si el cursor no es válido.
+     */
+    public static ReservationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            Instant startAt = Instant.parse(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new ReservationCursor(ZonedDateTime.ofInstant(startAt, ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package bookfronterab.dto;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
 import java.util.List;
 
@@ -30,6 +32,114 @@ public class ReservationDto {
        String othersEmail
     ){}
 
+    /**
+     * DTO para bloquear tentativamente un intervalo antes de confirmar la reserva.
+     */
+    public record HoldRequest(
+            Long roomId,
+            ZonedDateTime startAt,
+            ZonedDateTime endAt
+    ) {}
+
+    /**
+     * Bloqueo tentativo vigente. Se confirma creando la reserva (mismo intervalo o uno contenido en él)
+     * antes de {@code expiresAt}.
+     */
+    public record HoldResponse(
+            Long id,
+            Long roomId,
+            ZonedDateTime startAt,
+            ZonedDateTime endAt,
+            OffsetDateTime expiresAt
+    ) {}
+
+    /**
+     * DTO para anotarse en la lista de espera de un intervalo ya reservado.
+     *
+     * @param addToGoogleCalendar Si la reserva, al asignarse, se sincroniza con Google Calendar.
+     */
+    public record WaitlistRequest(
+            Long roomId,
+            ZonedDateTime startAt,
+            ZonedDateTime endAt,
+            boolean addToGoogleCalendar
+    ) {}
+
+    /**
+     * Una entrada de la lista de espera del usuario.
+     *
+     * @param position Posición en la cola del mismo intervalo (1 = el siguiente en recibirlo).
+     */
+    public record WaitlistResponse(
+            Long id,
+            Long roomId,
+            ZonedDateTime startAt,
+            ZonedDateTime endAt,
+            long position,
+            OffsetDateTime createdAt
+    ) {}
+
+    /**
+     * DTO para la creación masiva de reservas (solo ADMIN).
+     * Cada intervalo (los explícitos más los generados por la recurrencia) se reserva en cada sala.
+     *
+     * @param roomIds     Las salas a reservar.
+     * @param intervals   Intervalos explícitos (opcional).
+     * @param recurrence  Recurrencia semanal (opcional).
+     * @param othersEmail Email del dueño de las reservas, o null para el propio admin.
+     */
+    public record BulkCreateRequest(
+            List<Long> roomIds,
+            List<Interval> intervals,
+            Recurrence recurrence,
+            String othersEmail
+    ) {}
+
+    public record Interval(
+            ZonedDateTime startAt,
+            ZonedDateTime endAt
+    ) {}
+
+    /**
+     * Recurrencia semanal: el bloque {@code startAt}-{@code endAt} se repite cada {@code everyWeeks} semanas
+     * (1 por defecto) mientras su fecha no pase de {@code until} (incluido).
+     */
+    public record Recurrence(
+            ZonedDateTime startAt,
+            ZonedDateTime endAt,
+            Integer everyWeeks,
+            LocalDate until
+    ) {}
+
+    /**
+     * Resultado de una creación masiva, con una entrada por cada ocurrencia (sala, intervalo)
+     * en el orden de la solicitud.
+     */
+    public record BulkCreateResponse(
+            int created,
+            int rejected,
+            List<OccurrenceResult> occurrences
+    ) {}
+
+    /**
+     * @param reservationId El ID de la reserva creada, o null si no se creó.
+     * @param message       El motivo del rechazo, o null si se creó.
+     */
+    public record OccurrenceResult(
+            Long roomId,
+            ZonedDateTime startAt,
+            ZonedDateTime endAt,
+            OccurrenceStatus status,
+            Long reservationId,
+            String message
+    ) {}
+
+    public enum OccurrenceStatus {
+        CREATED,
+        CONFLICT,
+        INVALID
+    }
+
     /**
      * DTO para enviar los detalles completos de una reserva al frontend.
      * Incluye información anidada de la sala y el usuario.
@@ -51,11 +161,25 @@ public class ReservationDto {
     /**
      * DTO para la respuesta de la página "Mis Reservas".
      * Agrupa las reservas del usuario en categorías.
+     * {@code past} trae solo la primera página del historial (de la más reciente a la más antigua);
+     * el resto se pide a {@code /reservations/my-reservations/past} con {@code pastNextCursor}.
      */
     public record MyReservationsResponse(
             Detail current, // Puede ser null
             List<Detail> future,
-            List<Detail> past
+            List<Detail> past,
+            String pastNextCursor // null si no hay más historial
+    ) {}
+
+    /**
+     * Página de resultados paginados por cursor.
+     *
+     * @param items      Los elementos de la página.
+     * @param nextCursor Cursor para pedir la página siguiente, o null si es la última.
+     */
+    public record CursorPage<T>(
+            List<T> items,
+            String nextCursor
     ) {}
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package bookfronterab.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException; // NUEVO IMPORT
@@ -38,6 +39,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(err(400, "BUSINESS_RULE_VIOLATION", ex.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    // 3. Stream SSE sin cupo. Sin cuerpo: el cliente pidió text/event-stream y no aceptaría el JSON de error.
+    @ExceptionHandler(StreamCapacityException.class)
+    public ResponseEntity<Void> handleStreamCapacity(StreamCapacityException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+    }
+
     // ------------------------------------------------------------
     
     @ExceptionHandler(Exception.class)
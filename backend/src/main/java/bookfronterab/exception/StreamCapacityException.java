@@ -0,0 +1,11 @@
+package bookfronterab.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE) // HTTP 503 Service Unavailable
+public class StreamCapacityException extends RuntimeException {
+    public StreamCapacityException(String message) {
+        super(message);
+    }
+}
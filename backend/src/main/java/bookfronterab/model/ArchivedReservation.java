@@ -0,0 +1,67 @@
+package bookfronterab.model;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Reserva movida al historial archivado ({@code reservations_archive}, particionada por mes).
+ * <p>
+ * Conserva el ID original, así los cursores de paginación siguen siendo válidos al pasar
+ * de la tabla principal al archivo. Solo se lee; la escribe
+ * {@link bookfronterab.service.ReservationArchiveService}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "\"reservations_archive\"", indexes = {
+        @Index(name = "idx_reservations_archive_room_start", columnList = "room_id, start_at, id"),
+        @Index(name = "idx_reservations_archive_user_start", columnList = "user_id, start_at, id")
+})
+public class ArchivedReservation {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @Column(nullable = false)
+    private ZonedDateTime startAt;
+
+    @Column(nullable = false)
+    private ZonedDateTime endAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    private String googleEventId;
+
+    @Column(nullable = false)
+    private OffsetDateTime archivedAt;
+
+    /**
+     * Copia no persistida como {@link Reservation}, para armar los DTO igual que las reservas vigentes.
+     */
+    public Reservation toReservation() {
+        return Reservation.builder()
+                .id(id)
+                .room(room)
+                .user(user)
+                .startAt(startAt)
+                .endAt(endAt)
+                .googleEventId(googleEventId)
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package bookfronterab.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Operación de Google Calendar pendiente (patrón "transactional outbox").
+ * <p>
+ * Se inserta en la misma transacción que crea o cancela la reserva, y luego
+ * {@link bookfronterab.service.google.CalendarOutboxDispatcher} la ejecuta en segundo plano.
+ * Así la latencia de Google no alarga la transacción de la reserva.
+ * <p>
+ * No tiene FK a la reserva: un DELETE debe sobrevivir al borrado de la reserva.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "\"calendar_outbox\"", indexes = {
+        @Index(name = "idx_calendar_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_calendar_outbox_reservation", columnList = "reservation_id")
+})
+public class CalendarOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calendar_outbox_seq")
+    @SequenceGenerator(name = "calendar_outbox_seq", sequenceName = "calendar_outbox_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CalendarOutboxOperation operation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CalendarOutboxStatus status;
+
+    /**
+     * Reserva asociada. Para CREATE se usa para leer los datos del evento y guardar el ID de Google.
+     */
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    /**
+     * Dueño del calendario (sus credenciales se usan para llamar a la API).
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * ID del evento de Google a eliminar (solo para DELETE).
+     */
+    private String googleEventId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+}
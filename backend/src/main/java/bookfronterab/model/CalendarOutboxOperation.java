@@ -0,0 +1,9 @@
+package bookfronterab.model;
+
+/**
+ * Operación pendiente de sincronizar con Google Calendar.
+ */
+public enum CalendarOutboxOperation {
+    CREATE,
+    DELETE
+}
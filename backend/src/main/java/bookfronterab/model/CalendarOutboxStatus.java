@@ -0,0 +1,10 @@
+package bookfronterab.model;
+
+/**
+ * Estado de un evento del outbox de Google Calendar.
+ * Los eventos procesados con éxito se eliminan, por eso no existe un estado "DONE".
+ */
+public enum CalendarOutboxStatus {
+    PENDING,
+    FAILED
+}
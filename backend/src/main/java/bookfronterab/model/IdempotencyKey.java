@@ -0,0 +1,59 @@
+package bookfronterab.model;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Solicitud de creación ya ejecutada con un encabezado {@code Idempotency-Key}.
+ * Los reintentos con la misma clave (y el mismo cuerpo) devuelven el resultado original sin volver a ejecutarse.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "\"idempotency_keys\"", indexes = {
+        @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+})
+public class IdempotencyKey {
+
+    @EmbeddedId
+    private Key id;
+
+    /**
+     * SHA-256 (hex) de la operación y del cuerpo de la solicitud original.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    /**
+     * Las claves son por usuario: dos usuarios pueden usar el mismo valor sin interferir.
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "user_email", nullable = false)
+        private String userEmail;
+
+        @Column(name = "idempotency_key", nullable = false)
+        private String idempotencyKey;
+    }
+}
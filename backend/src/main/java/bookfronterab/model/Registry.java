@@ -1,9 +1,12 @@
 package bookfronterab.model;
 
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -11,6 +14,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.NotFound;
+import org.hibernate.annotations.NotFoundAction;
 
 @Getter
 @Setter
@@ -22,7 +27,12 @@ import lombok.Setter;
 public class Registry {
     @Id
     private int idRegistry;
+    /**
+     * Sin FK (ver migración V13): si la reserva ya se archivó, el ID se conserva y la relación queda en null.
+     */
     @ManyToOne
+    @JoinColumn(name = "reservation_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @NotFound(action = NotFoundAction.IGNORE)
     private Reservation reservation;
     @Enumerated(EnumType.STRING)
     private State state;
@@ -15,12 +15,18 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "\"reservations\"")
+@Table(name = "\"reservations\"", indexes = {
+        // Mismos índices que db/migration/V2__reservation_query_indexes.sql (para esquemas creados con ddl-auto)
+        @Index(name = "idx_reservations_room_start", columnList = "room_id, start_at, id"),
+        @Index(name = "idx_reservations_user_start", columnList = "user_id, start_at, id"),
+        @Index(name = "idx_reservations_end_start", columnList = "end_at, start_at")
+})
 public class Reservation {
 
     @Id
+    // Un nextval cada 50 IDs (pooled, ver V6__pooled_id_sequences.sql): permite INSERT en lotes JDBC
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
-    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_id_seq", allocationSize = 1, initialValue = 100)
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_id_seq", allocationSize = 50, initialValue = 100)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,56 @@
+package bookfronterab.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+
+/**
+ * Bloqueo tentativo de un intervalo de una sala por un usuario, que expira si no se confirma.
+ * <p>
+ * Mientras está vigente, el intervalo aparece como no disponible y solo su dueño puede reservarlo
+ * (ver {@link bookfronterab.service.ReservationHoldService}). La copia en memoria
+ * ({@link bookfronterab.service.ReservationHoldIndex}) responde las consultas habituales;
+ * la tabla sobrevive a reinicios y es la que se consulta bajo el bloqueo de la sala.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "\"reservation_holds\"", indexes = {
+        @Index(name = "idx_reservation_holds_room_start", columnList = "room_id, start_at"),
+        @Index(name = "idx_reservation_holds_user", columnList = "user_id"),
+        @Index(name = "idx_reservation_holds_expires", columnList = "expires_at")
+})
+public class ReservationHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_hold_seq")
+    @SequenceGenerator(name = "reservation_hold_seq", sequenceName = "reservation_hold_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "start_at", nullable = false)
+    private ZonedDateTime startAt;
+
+    @Column(name = "end_at", nullable = false)
+    private ZonedDateTime endAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,48 @@
+package bookfronterab.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Cantidad de reservas de un usuario en una semana ISO.
+ * Permite validar el límite semanal con una actualización condicional en lugar de un conteo.
+ * Se modifica solo con las consultas de {@link bookfronterab.repo.ReservationWeekCounterRepository}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "\"reservation_week_counters\"")
+public class ReservationWeekCounter {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private int reservations;
+
+    /**
+     * Clave compuesta: usuario y semana ISO ({@code año * 100 + semana}).
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "iso_week", nullable = false)
+        private int isoWeek;
+    }
+}
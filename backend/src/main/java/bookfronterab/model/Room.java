@@ -6,6 +6,9 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -16,8 +19,13 @@ import java.util.List;
  * Utiliza anotaciones de Lombok (@Getter, @Setter, @NoArgsConstructor,
  * @AllArgsConstructor, @Builder) para la generación automática de
  * constructores, getters, setters y el patrón Builder.
+ *
+ * La sala y su equipamiento se guardan en la caché de segundo nivel de Hibernate
+ * (ver {@link bookfronterab.config.HibernateSecondLevelCacheConfig}).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "\"rooms\"") // Mapea a la tabla "rooms". Las comillas dobles aseguran compatibilidad con PostgreSQL.
 @Getter // Lombok: Genera métodos getter para todos los campos.
 @Setter // Lombok: Genera métodos setter para todos los campos.
@@ -33,11 +41,13 @@ public class Room {
      * @GeneratedValue(strategy = GenerationType.SEQUENCE) Configura la estrategia de
      * generación de ID para usar una secuencia de base de datos.
      * @SequenceGenerator(name = "room_seq", ...) Define los detalles de la secuencia
-     * de base de datos "room_id_seq" que se utilizará.
+     * de base de datos "room_id_seq" que se utilizará. Con allocationSize = 50 (optimizador
+     * "pooled", ver db/migration/V6__pooled_id_sequences.sql) cada nextval reserva 50 IDs,
+     * así los INSERT no esperan a la secuencia y se pueden agrupar en lotes JDBC.
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_seq")
-    @SequenceGenerator(name = "room_seq", sequenceName = "room_id_seq", allocationSize = 1, initialValue = 1)
+    @SequenceGenerator(name = "room_seq", sequenceName = "room_id_seq", allocationSize = 50, initialValue = 1)
     private Long id;
 
     /**
@@ -65,8 +75,13 @@ public class Room {
      * asegurar que la colección esté disponible inmediatamente después de cargar
      * la entidad, previniendo {@link org.hibernate.LazyInitializationException}
      * si se accede a la colección fuera de una sesión transaccional activa.
+     *
+     * @BatchSize: al cargar muchas salas (ej. las de un listado de reservas), el equipamiento
+     * se trae en una consulta por cada 50 salas en lugar de una consulta por sala.
      */
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<String> equipment;
 
     /**
@@ -4,10 +4,15 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.OffsetDateTime; // <-- Asegúrate que esté importado
 
+// Caché de segundo nivel de Hibernate, ver HibernateSecondLevelCacheConfig
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "\"users\"")
 @Getter
 @Setter
@@ -17,8 +22,9 @@ import java.time.OffsetDateTime; // <-- Asegúrate que esté importado
 public class User {
 
     @Id
+    // Un nextval cada 50 IDs (pooled, ver V6__pooled_id_sequences.sql): permite INSERT en lotes JDBC
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
-    @SequenceGenerator(name = "user_seq", sequenceName = "user_id_seq", allocationSize = 1, initialValue = 100)
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_id_seq", allocationSize = 50, initialValue = 100)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -0,0 +1,57 @@
+package bookfronterab.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+
+/**
+ * Un usuario en la lista de espera de un intervalo de una sala ya reservado.
+ * <p>
+ * Cuando se cancela una reserva que se solapa, el primero de la lista (por orden de llegada)
+ * que cumpla las reglas de reserva recibe el intervalo automáticamente
+ * (ver {@link bookfronterab.service.WaitlistPromotionWorker}).
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "\"reservation_waitlist\"",
+        uniqueConstraints = @UniqueConstraint(name = "uk_reservation_waitlist_user_slot",
+                columnNames = {"user_id", "room_id", "start_at", "end_at"}),
+        indexes = {
+                @Index(name = "idx_reservation_waitlist_room_start", columnList = "room_id, start_at, id"),
+                @Index(name = "idx_reservation_waitlist_start", columnList = "start_at")
+        })
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_waitlist_seq")
+    @SequenceGenerator(name = "reservation_waitlist_seq", sequenceName = "reservation_waitlist_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "start_at", nullable = false)
+    private ZonedDateTime startAt;
+
+    @Column(name = "end_at", nullable = false)
+    private ZonedDateTime endAt;
+
+    @Column(name = "add_to_google_calendar", nullable = false)
+    private boolean addToGoogleCalendar;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,50 @@
+package bookfronterab.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+
+/**
+ * Intervalo liberado por una cancelación, pendiente de ofrecerse a la lista de espera.
+ * <p>
+ * Se inserta en la misma transacción que la cancelación (si esta hace rollback, no queda encolado)
+ * y lo consume {@link bookfronterab.service.WaitlistPromotionWorker} en segundo plano.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "\"waitlist_promotions\"")
+public class WaitlistPromotion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "waitlist_promotion_seq")
+    @SequenceGenerator(name = "waitlist_promotion_seq", sequenceName = "waitlist_promotion_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "start_at", nullable = false)
+    private ZonedDateTime startAt;
+
+    @Column(name = "end_at", nullable = false)
+    private ZonedDateTime endAt;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * Veces que su procesamiento falló por un error inesperado (ej. de la BD).
+     */
+    @Column(nullable = false)
+    private int attempts;
+}
@@ -0,0 +1,47 @@
+package bookfronterab.repo;
+
+import bookfronterab.model.ArchivedReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de solo lectura del historial archivado.
+ * Las consultas usan el mismo cursor {@code (startAt, id)} que las de {@link ReservationRepository}.
+ */
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+
+    /**
+     * Página del historial archivado de un usuario, de la más reciente a la más antigua,
+     * a partir del cursor {@code (beforeStartAt, beforeId)} (excluido).
+     */
+    @EntityGraph(attributePaths = {"room", "user"})
+    @Query("SELECT r FROM ArchivedReservation r WHERE r.user.email = :email " +
+            "AND (r.startAt < :beforeStartAt OR (r.startAt = :beforeStartAt AND r.id < :beforeId)) " +
+            "ORDER BY r.startAt DESC, r.id DESC")
+    List<ArchivedReservation> findPageByUserEmail(
+            @Param("email") String email,
+            @Param("beforeStartAt") ZonedDateTime beforeStartAt,
+            @Param("beforeId") long beforeId,
+            Limit limit
+    );
+
+    /**
+     * Página del historial archivado de una sala, de la más reciente a la más antigua.
+     */
+    @EntityGraph(attributePaths = {"room", "user"})
+    @Query("SELECT r FROM ArchivedReservation r WHERE r.room.id = :roomId " +
+            "AND (r.startAt < :beforeStartAt OR (r.startAt = :beforeStartAt AND r.id < :beforeId)) " +
+            "ORDER BY r.startAt DESC, r.id DESC")
+    List<ArchivedReservation> findPageByRoomId(
+            @Param("roomId") Long roomId,
+            @Param("beforeStartAt") ZonedDateTime beforeStartAt,
+            @Param("beforeId") long beforeId,
+            Limit limit
+    );
+}
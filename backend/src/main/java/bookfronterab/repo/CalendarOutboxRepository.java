@@ -0,0 +1,38 @@
+package bookfronterab.repo;
+
+import bookfronterab.model.CalendarOutboxEvent;
+import bookfronterab.model.CalendarOutboxOperation;
+import bookfronterab.model.CalendarOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface CalendarOutboxRepository extends JpaRepository<CalendarOutboxEvent, Long> {
+
+    /**
+     * Busca los eventos pendientes cuyo próximo intento ya venció, en orden de llegada.
+     *
+     * @param now      Instante actual.
+     * @param pageable Tamaño del lote a procesar.
+     * @return Los eventos listos para enviarse a Google Calendar.
+     */
+    @Query("SELECT e FROM CalendarOutboxEvent e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<CalendarOutboxEvent> findDue(
+            @Param("status") CalendarOutboxStatus status,
+            @Param("now") OffsetDateTime now,
+            Pageable pageable
+    );
+
+    /**
+     * Descarta las operaciones pendientes de un tipo para una reserva
+     * (ej. un CREATE que aún no se envió cuando la reserva se cancela).
+     */
+    @Modifying
+    @Query("DELETE FROM CalendarOutboxEvent e WHERE e.reservationId = :reservationId AND e.operation = :operation AND e.status = bookfronterab.model.CalendarOutboxStatus.PENDING")
+    int deletePending(@Param("reservationId") Long reservationId, @Param("operation") CalendarOutboxOperation operation);
+}
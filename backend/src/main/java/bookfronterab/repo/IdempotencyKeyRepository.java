@@ -0,0 +1,42 @@
+package bookfronterab.repo;
+
+import bookfronterab.model.IdempotencyKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.Key> {
+
+    /**
+     * Registra la clave si no existe o si la existente ya expiró.
+     * Si otra transacción está registrando la misma clave, espera a que termine.
+     *
+     * @return 1 si la clave quedó registrada por esta transacción, 0 si ya existe una vigente.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "idempotency_keys"))
+    @Query(value = """
+            INSERT INTO idempotency_keys (user_email, idempotency_key, request_hash, created_at, expires_at)
+            VALUES (:userEmail, :key, :requestHash, :now, :expiresAt)
+            ON CONFLICT (user_email, idempotency_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at
+                WHERE idempotency_keys.expires_at <= EXCLUDED.created_at
+            """, nativeQuery = true)
+    int claim(@Param("userEmail") String userEmail,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("now") OffsetDateTime now,
+              @Param("expiresAt") OffsetDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
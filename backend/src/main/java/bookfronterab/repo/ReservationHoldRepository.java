@@ -0,0 +1,44 @@
+package bookfronterab.repo;
+
+import bookfronterab.model.ReservationHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public interface ReservationHoldRepository extends JpaRepository<ReservationHold, Long> {
+
+    /**
+     * Indica si otro usuario tiene un bloqueo vigente que se solapa con el intervalo.
+     */
+    @Query("SELECT count(h) > 0 FROM ReservationHold h WHERE h.roomId = :roomId AND h.userId <> :userId " +
+            "AND h.expiresAt > :now AND h.startAt < :endAt AND h.endAt > :startAt")
+    boolean existsActiveByOthers(
+            @Param("roomId") Long roomId,
+            @Param("userId") Long userId,
+            @Param("startAt") ZonedDateTime startAt,
+            @Param("endAt") ZonedDateTime endAt,
+            @Param("now") OffsetDateTime now
+    );
+
+    List<ReservationHold> findByUserId(Long userId);
+
+    List<ReservationHold> findByExpiresAtAfter(OffsetDateTime now);
+
+    /**
+     * Elimina un bloqueo solo si sigue vigente.
+     *
+     * @return 1 si se eliminó, 0 si ya no existía o expiró.
+     */
+    @Modifying
+    @Query("DELETE FROM ReservationHold h WHERE h.id = :id AND h.expiresAt > :now")
+    int deleteIfActive(@Param("id") Long id, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM ReservationHold h WHERE h.expiresAt <= :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -1,12 +1,18 @@
 package bookfronterab.repo;
 
 import bookfronterab.model.Reservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para acceder a los datos de las entidades {@link Reservation}.
@@ -14,6 +20,29 @@ import java.util.List;
  */
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
+    /**
+     * Busca una reserva por su ID y bloquea su fila (PESSIMISTIC_WRITE) hasta el fin de la transacción.
+     * La cancelación la usa para no cruzarse con el despacho a Google Calendar ({@link #findAllByIdForUpdate}).
+     *
+     * @param id El ID de la reserva.
+     * @return Un Optional con la reserva, si existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id = :id")
+    Optional<Reservation> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Busca varias reservas por ID y bloquea sus filas (PESSIMISTIC_WRITE) hasta el fin de la transacción.
+     * El despacho a Google Calendar la usa al guardar el ID del evento creado: una cancelación concurrente
+     * espera a que termine (y ve el ID) o termina antes (y la reserva ya no aparece).
+     *
+     * @param ids Los IDs de las reservas.
+     * @return Las reservas que aún existen, ordenadas por ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id IN :ids ORDER BY r.id")
+    List<Reservation> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
     /**
      * Busca reservas que se solapen con un intervalo de tiempo específico para una sala determinada.
      * <p>
@@ -50,16 +79,66 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     );
 
     /**
-     * Busca todas las reservas de un usuario específico, ordenadas por fecha de inicio.
-     * Usamos 'user.email' para la búsqueda.
+     * Busca las reservas de un usuario que aún no terminan (la actual y las futuras), ordenadas por inicio.
+     * Su cantidad está acotada por la antelación máxima de reserva.
+     * Trae la sala y el usuario en la misma consulta (evita N+1 al armar {@code ReservationDto.Detail}).
+     */
+    @EntityGraph(attributePaths = {"room", "user"})
+    @Query("SELECT r FROM Reservation r WHERE r.user.email = :email AND r.endAt > :now ORDER BY r.startAt ASC, r.id ASC")
+    List<Reservation> findUpcomingByUserEmail(@Param("email") String email, @Param("now") ZonedDateTime now);
+
+    /**
+     * Página del historial de un usuario (reservas terminadas), de la más reciente a la más antigua,
+     * a partir del cursor {@code (beforeStartAt, beforeId)} (excluido).
      */
-    List<Reservation> findByUserEmailOrderByStartAtAsc(String userEmail);
+    @EntityGraph(attributePaths = {"room", "user"})
+    @Query("SELECT r FROM Reservation r WHERE r.user.email = :email AND r.endAt <= :now " +
+            "AND (r.startAt < :beforeStartAt OR (r.startAt = :beforeStartAt AND r.id < :beforeId)) " +
+            "ORDER BY r.startAt DESC, r.id DESC")
+    List<Reservation> findPastPageByUserEmail(
+            @Param("email") String email,
+            @Param("now") ZonedDateTime now,
+            @Param("beforeStartAt") ZonedDateTime beforeStartAt,
+            @Param("beforeId") long beforeId,
+            Limit limit
+    );
 
-    long countByUserEmailAndStartAtBetween(String email, ZonedDateTime start, ZonedDateTime end);
     /**
-     * Busca todas las reservas de una sala específica, ordenadas por fecha.
+     * Página de las reservas de una sala que aún no terminan, ordenadas por inicio,
+     * a partir del cursor {@code (afterStartAt, afterId)} (excluido).
      * Útil para que el Admin vea el calendario de una sala.
      */
-    List<Reservation> findByRoomIdOrderByStartAtAsc(Long roomId);
+    @EntityGraph(attributePaths = {"room", "user"})
+    @Query("SELECT r FROM Reservation r WHERE r.room.id = :roomId AND r.endAt > :now " +
+            "AND (r.startAt > :afterStartAt OR (r.startAt = :afterStartAt AND r.id > :afterId)) " +
+            "ORDER BY r.startAt ASC, r.id ASC")
+    List<Reservation> findUpcomingPageByRoomId(
+            @Param("roomId") Long roomId,
+            @Param("now") ZonedDateTime now,
+            @Param("afterStartAt") ZonedDateTime afterStartAt,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
+
+    /**
+     * Página del historial de una sala, de la más reciente a la más antigua.
+     */
+    @EntityGraph(attributePaths = {"room", "user"})
+    @Query("SELECT r FROM Reservation r WHERE r.room.id = :roomId AND r.endAt <= :now " +
+            "AND (r.startAt < :beforeStartAt OR (r.startAt = :beforeStartAt AND r.id < :beforeId)) " +
+            "ORDER BY r.startAt DESC, r.id DESC")
+    List<Reservation> findPastPageByRoomId(
+            @Param("roomId") Long roomId,
+            @Param("now") ZonedDateTime now,
+            @Param("beforeStartAt") ZonedDateTime beforeStartAt,
+            @Param("beforeId") long beforeId,
+            Limit limit
+    );
+
+    /**
+     * Busca una reserva por ID junto con su sala y su usuario.
+     */
+    @EntityGraph(attributePaths = {"room", "user"})
+    Optional<Reservation> findWithDetailsById(Long id);
 
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package bookfronterab.repo;
+
+import bookfronterab.model.ReservationWeekCounter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Operaciones atómicas sobre los contadores semanales de reservas.
+ * Todas son sentencias únicas de PostgreSQL, así dos transacciones concurrentes del mismo usuario
+ * se serializan sobre la fila del contador.
+ */
+public interface ReservationWeekCounterRepository extends JpaRepository<ReservationWeekCounter, ReservationWeekCounter.Key> {
+
+    /**
+     * Crea el contador de la semana con las reservas que ya existen, si aún no existe.
+     * Si otra transacción lo está creando, espera a que termine y no hace nada.
+     * Antes se sincronizan las reservas pendientes del contexto de persistencia para contarlas.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservation_week_counters"))
+    @Query(value = """
+            INSERT INTO reservation_week_counters (user_id, iso_week, reservations)
+            SELECT :userId, :isoWeek, count(*) FROM reservations r
+            WHERE r.user_id = :userId AND r.start_at >= :weekStart AND r.start_at < :weekEnd
+            ON CONFLICT (user_id, iso_week) DO NOTHING
+            """, nativeQuery = true)
+    int initialize(@Param("userId") Long userId,
+                   @Param("isoWeek") int isoWeek,
+                   @Param("weekStart") ZonedDateTime weekStart,
+                   @Param("weekEnd") ZonedDateTime weekEnd);
+
+    /**
+     * Suma una reserva solo si el contador está bajo el límite.
+     *
+     * @return 1 si se sumó, 0 si el límite ya se alcanzó.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservation_week_counters"))
+    @Query(value = "UPDATE reservation_week_counters SET reservations = reservations + 1 " +
+            "WHERE user_id = :userId AND iso_week = :isoWeek AND reservations < :limit", nativeQuery = true)
+    int incrementIfBelow(@Param("userId") Long userId, @Param("isoWeek") int isoWeek, @Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservation_week_counters"))
+    @Query(value = "UPDATE reservation_week_counters SET reservations = reservations + :amount " +
+            "WHERE user_id = :userId AND iso_week = :isoWeek", nativeQuery = true)
+    int increment(@Param("userId") Long userId, @Param("isoWeek") int isoWeek, @Param("amount") int amount);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservation_week_counters"))
+    @Query(value = "UPDATE reservation_week_counters SET reservations = reservations - 1 " +
+            "WHERE user_id = :userId AND iso_week = :isoWeek AND reservations > 0", nativeQuery = true)
+    int decrement(@Param("userId") Long userId, @Param("isoWeek") int isoWeek);
+
+    /**
+     * Elimina los contadores de semanas anteriores a la indicada (ya no se pueden reservar).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservation_week_counters"))
+    @Query(value = "DELETE FROM reservation_week_counters WHERE iso_week < :isoWeek", nativeQuery = true)
+    int deleteOlderThan(@Param("isoWeek") int isoWeek);
+}
@@ -2,9 +2,28 @@ package bookfronterab.repo;
 
 import bookfronterab.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    /**
+     * Actualiza solo los tokens de Google del usuario, sin sobrescribir el resto de la fila
+     * con una copia posiblemente desactualizada de la entidad.
+     * Al ser un UPDATE JPQL, Hibernate vacía la región de {@code User} de la caché de segundo nivel.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.googleAccessToken = :accessToken, u.googleRefreshToken = :refreshToken, " +
+            "u.googleTokenExpiryDate = :expiryDate WHERE u.id = :id")
+    int updateGoogleTokens(@Param("id") Long id,
+                           @Param("accessToken") String accessToken,
+                           @Param("refreshToken") String refreshToken,
+                           @Param("expiryDate") OffsetDateTime expiryDate);
 }
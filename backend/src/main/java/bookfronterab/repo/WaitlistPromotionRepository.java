@@ -0,0 +1,15 @@
+package bookfronterab.repo;
+
+import bookfronterab.model.WaitlistPromotion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface WaitlistPromotionRepository extends JpaRepository<WaitlistPromotion, Long> {
+
+    /**
+     * Lote de intervalos liberados, en orden de llegada.
+     */
+    List<WaitlistPromotion> findAllByOrderByIdAsc(Pageable pageable);
+}
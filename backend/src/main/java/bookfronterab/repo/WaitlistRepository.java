@@ -0,0 +1,48 @@
+package bookfronterab.repo;
+
+import bookfronterab.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    /**
+     * Entradas de una sala que se solapan con un intervalo liberado y aún no comienzan,
+     * en orden de llegada. Usa el índice {@code (room_id, start_at, id)}.
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.roomId = :roomId AND w.startAt < :endAt AND w.endAt > :startAt " +
+            "AND w.startAt > :now ORDER BY w.id")
+    List<WaitlistEntry> findCandidates(
+            @Param("roomId") Long roomId,
+            @Param("startAt") ZonedDateTime startAt,
+            @Param("endAt") ZonedDateTime endAt,
+            @Param("now") ZonedDateTime now
+    );
+
+    boolean existsByUserIdAndRoomIdAndStartAtAndEndAt(Long userId, Long roomId, ZonedDateTime startAt, ZonedDateTime endAt);
+
+    List<WaitlistEntry> findByUserIdAndStartAtAfterOrderByStartAt(Long userId, ZonedDateTime now);
+
+    long countByUserIdAndStartAtAfter(Long userId, ZonedDateTime now);
+
+    /**
+     * Cantidad de entradas que esperan el mismo intervalo y llegaron antes.
+     */
+    @Query("SELECT count(w) FROM WaitlistEntry w WHERE w.roomId = :roomId AND w.startAt = :startAt " +
+            "AND w.endAt = :endAt AND w.id < :id")
+    long countAhead(
+            @Param("roomId") Long roomId,
+            @Param("startAt") ZonedDateTime startAt,
+            @Param("endAt") ZonedDateTime endAt,
+            @Param("id") Long id
+    );
+
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.startAt <= :now")
+    int deleteStarted(@Param("now") ZonedDateTime now);
+}
@@ -2,82 +2,248 @@ package bookfronterab.service;
 
 import bookfronterab.dto.AvailabilityDto;
 import bookfronterab.dto.RoomDto;
-import bookfronterab.model.Reservation;
-import bookfronterab.model.Room;
-import bookfronterab.repo.ReservationRepository;
-import bookfronterab.repo.RoomRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AvailabilityService {
 
-    private final RoomRepository roomRepo;
-    private final ReservationRepository reservationRepo;
+    private static final int MAX_RANGE_MONTHS = 3;
+
+    /**
+     * Catálogo de salas en memoria, ya convertido a DTOs.
+     */
+    private final RoomCatalog roomCatalog;
+    private final RoomOccupancyIndex occupancyIndex;
+    /**
+     * Bloqueos tentativos vigentes: sus intervalos se muestran como no disponibles.
+     */
+    private final ReservationHoldIndex holdIndex;
     private final TimeService timeService;
 
+    /**
+     * Duración de la grilla de un día ({@code bookfrontera.availability.daily}), por formato.
+     */
+    private final Timer dailyMatrixTimer;
+    private final Timer dailyCompactTimer;
+
+    /**
+     * Los bloques horarios son fijos, así que se generan una sola vez junto con sus
+     * límites en minutos del día (evita re-parsear "HH:mm" por cada celda de la matriz).
+     */
+    private final List<AvailabilityDto.TimeSlotDto> slots = generateTimeSlots();
+    private final int[][] slotMinutes = toMinuteRanges(slots);
+
+    public AvailabilityService(RoomCatalog roomCatalog,
+                               RoomOccupancyIndex occupancyIndex,
+                               ReservationHoldIndex holdIndex,
+                               TimeService timeService,
+                               MeterRegistry meterRegistry) {
+        this.roomCatalog = roomCatalog;
+        this.occupancyIndex = occupancyIndex;
+        this.holdIndex = holdIndex;
+        this.timeService = timeService;
+        this.dailyMatrixTimer = dailyTimer(meterRegistry, "matrix");
+        this.dailyCompactTimer = dailyTimer(meterRegistry, "compact");
+    }
+
+    private static Timer dailyTimer(MeterRegistry meterRegistry, String format) {
+        return Timer.builder("bookfrontera.availability.daily")
+                .description("Duración del cálculo de la grilla de disponibilidad de un día")
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Calcula el ETag de la grilla de un día sin consultar las reservas si el día ya está en memoria.
+     * <p>
+     * Se deriva del contenido (salas y ocupación del día con los bloqueos tentativos), no de contadores
+     * en memoria: todas las instancias, y la misma tras un reinicio o una recarga del índice, dan el mismo
+     * ETag para la misma grilla. Recorrer los bits del día cuesta mucho menos que armar la grilla.
+     * <p>
+     * Debe obtenerse ANTES de construir la respuesta: si algo cambia entre ambos pasos,
+     * la respuesta será más nueva que el ETag y el cliente simplemente la volverá a pedir.
+     *
+     * @param date El día a consultar.
+     * @return El ETag (entre comillas, listo para la cabecera HTTP).
+     */
+    public String getAvailabilityETag(LocalDate date) {
+        long hash = 31L * roomCatalog.getContentHash() + RoomOccupancyIndex.contentHash(occupancy(date));
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
     public AvailabilityDto.DailyAvailabilityResponse getDailyAvailability(LocalDate date) {
-        // Obtener todas las salas
-        List<RoomDto> rooms = roomRepo.findAll().stream()
-                .map(this::mapRoomToDto)
+        return dailyMatrixTimer.record(() -> buildDailyAvailability(date));
+    }
+
+    private AvailabilityDto.DailyAvailabilityResponse buildDailyAvailability(LocalDate date) {
+        // Obtener todas las salas (desde el catálogo en memoria)
+        List<RoomDto> rooms = roomCatalog.getAvailabilityRooms();
+
+        // Ocupación del día desde el índice en memoria (solo va a la BD si el día no está cargado)
+        Map<Long, long[]> occupancyByRoomId = occupancy(date);
+
+        log.info("Calculando disponibilidad para {} salas ({} con reservas) en {}", rooms.size(), occupancyByRoomId.size(), date);
+
+        return new AvailabilityDto.DailyAvailabilityResponse(rooms, slots, buildMatrix(rooms, occupancyByRoomId));
+    }
+
+    /**
+     * Igual que {@link #getDailyAvailability(LocalDate)}, pero codifica la matriz como una
+     * máscara de bits por sala en el mismo orden de {@code rooms} y {@code slots}.
+     *
+     * @param date El día a consultar.
+     * @return Un DTO {@link AvailabilityDto.CompactDailyAvailabilityResponse}.
+     */
+    public AvailabilityDto.CompactDailyAvailabilityResponse getCompactDailyAvailability(LocalDate date) {
+        return dailyCompactTimer.record(() -> buildCompactDailyAvailability(date));
+    }
+
+    private AvailabilityDto.CompactDailyAvailabilityResponse buildCompactDailyAvailability(LocalDate date) {
+        List<RoomDto> rooms = roomCatalog.getAvailabilityRooms();
+
+        Map<Long, long[]> occupancyByRoomId = occupancy(date);
+
+        long[] masks = new long[rooms.size()];
+        for (int r = 0; r < rooms.size(); r++) {
+            long[] roomOccupancy = occupancyByRoomId.get(rooms.get(r).getId());
+            for (int i = 0; i < slots.size(); i++) {
+                if (!RoomOccupancyIndex.isOccupied(roomOccupancy, slotMinutes[i][0], slotMinutes[i][1])) {
+                    masks[r] |= 1L << i;
+                }
+            }
+        }
+
+        return new AvailabilityDto.CompactDailyAvailabilityResponse(rooms, slots, masks);
+    }
+
+    /**
+     * Obtiene la disponibilidad de varios días consecutivos en una sola respuesta.
+     * Las reservas faltantes del rango se cargan con una única consulta y las matrices
+     * de cada día se construyen en paralelo.
+     *
+     * @param from Primer día del rango (inclusive).
+     * @param to   Último día del rango (inclusive).
+     * @return Un DTO {@link AvailabilityDto.RangeAvailabilityResponse} con una matriz por día.
+     * @throws IllegalArgumentException Si el rango es inválido o sale del horizonte de reservas (hoy a hoy + 3 meses).
+     */
+    public AvailabilityDto.RangeAvailabilityResponse getRangeAvailability(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Las fechas 'from' y 'to' son obligatorias.");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La fecha 'from' debe ser anterior o igual a 'to'.");
+        }
+        requireWithinHorizon(from);
+        requireWithinHorizon(to);
+
+        List<RoomDto> rooms = roomCatalog.getAvailabilityRooms();
+
+        Map<LocalDate, Map<Long, long[]>> occupancyByDate = occupancyIndex.getDays(from, to);
+
+        log.info("Calculando disponibilidad para {} salas entre {} y {} ({} días)", rooms.size(), from, to, occupancyByDate.size());
+
+        List<AvailabilityDto.DayAvailabilityDto> days = occupancyByDate.entrySet().parallelStream()
+                .map(entry -> new AvailabilityDto.DayAvailabilityDto(entry.getKey(),
+                        buildMatrix(rooms, holdIndex.overlay(entry.getKey(), entry.getValue()))))
                 .toList();
 
-        // Generar la lista de bloques horarios (AHORA PERSONALIZADA)
-        List<AvailabilityDto.TimeSlotDto> slots = generateTimeSlots();
+        return new AvailabilityDto.RangeAvailabilityResponse(rooms, slots, days);
+    }
 
-        // Obtener rango del día
-        ZonedDateTime startOfDay = date.atStartOfDay(timeService.zone());
-        ZonedDateTime endOfDay = date.plusDays(1).atStartOfDay(timeService.zone());
+    /**
+     * Rechaza un día fuera del horizonte de reservas: desde hoy hasta hoy + 3 meses, en la zona de la app
+     * (el mismo de {@link ReservationService#validateReservationRequest}). Así una consulta anónima no puede
+     * forzar la carga de días que nadie puede reservar ni desplazar del índice los días más consultados.
+     *
+     * @throws IllegalArgumentException Si el día es anterior a hoy o posterior al horizonte.
+     */
+    void requireWithinHorizon(LocalDate date) {
+        LocalDate today = timeService.nowOffset().atZoneSameInstant(timeService.zone()).toLocalDate();
+        if (date.isBefore(today) || date.isAfter(today.plusMonths(MAX_RANGE_MONTHS))) {
+            throw new IllegalArgumentException("Solo se puede consultar entre " + today + " y "
+                    + today.plusMonths(MAX_RANGE_MONTHS) + ".");
+        }
+    }
 
-        // Obtener reservas
-        List<Reservation> allReservationsForDay = reservationRepo.findAllReservationsBetween(startOfDay, endOfDay);
+    /**
+     * Calcula el estado actual de los bloques de una sala que se solapan con un intervalo,
+     * usando el índice de ocupación (ya actualizado con la reserva creada o cancelada) y los bloqueos tentativos.
+     *
+     * @param roomId  La sala afectada.
+     * @param startAt Inicio del intervalo.
+     * @param endAt   Fin del intervalo.
+     * @return Un cambio por cada bloque afectado, con su disponibilidad actual.
+     */
+    public List<AvailabilityDto.SlotChangeDto> getSlotChanges(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        ZoneId zone = timeService.zone();
+        LocalDateTime start = startAt.withZoneSameInstant(zone).toLocalDateTime();
+        LocalDateTime end = endAt.withZoneSameInstant(zone).toLocalDateTime();
+        String roomKey = String.valueOf(roomId);
 
-        // Agrupar reservas
-        Map<Long, List<Reservation>> reservationsByRoomId = allReservationsForDay.stream()
-                .collect(Collectors.groupingBy(r -> r.getRoom().getId()));
+        List<AvailabilityDto.SlotChangeDto> changes = new ArrayList<>();
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+            long[] roomOccupancy = occupancy(date).get(roomId);
+            for (int i = 0; i < slots.size(); i++) {
+                LocalDateTime slotStart = date.atStartOfDay().plusMinutes(slotMinutes[i][0]);
+                LocalDateTime slotEnd = date.atStartOfDay().plusMinutes(slotMinutes[i][1]);
+                if (start.isBefore(slotEnd) && end.isAfter(slotStart)) {
+                    boolean isOccupied = RoomOccupancyIndex.isOccupied(roomOccupancy, slotMinutes[i][0], slotMinutes[i][1]);
+                    changes.add(new AvailabilityDto.SlotChangeDto(date, roomKey, slots.get(i).getId(), !isOccupied));
+                }
+            }
+        }
+        return changes;
+    }
 
-        log.info("Calculando disponibilidad para {} salas y {} reservas en {}", rooms.size(), allReservationsForDay.size(), date);
+    /**
+     * Ocupación de un día: reservas (índice en memoria) más bloqueos tentativos.
+     */
+    private Map<Long, long[]> occupancy(LocalDate date) {
+        return holdIndex.overlay(date, occupancyIndex.getDay(date));
+    }
 
-        // Construir matriz
-        List<AvailabilityDto.AvailabilityMatrixItemDto> availabilityMatrix = new ArrayList<>();
+    /**
+     * Construye la matriz sala x bloque a partir de la ocupación en bits de un día.
+     */
+    private List<AvailabilityDto.AvailabilityMatrixItemDto> buildMatrix(List<RoomDto> rooms, Map<Long, long[]> occupancyByRoomId) {
+        List<AvailabilityDto.AvailabilityMatrixItemDto> availabilityMatrix = new ArrayList<>(rooms.size() * slots.size());
 
         for (RoomDto room : rooms) {
-            List<Reservation> roomReservations = reservationsByRoomId.getOrDefault(room.getId(), List.of());
+            long[] roomOccupancy = occupancyByRoomId.get(room.getId());
+            String roomId = String.valueOf(room.getId());
 
-            for (AvailabilityDto.TimeSlotDto slot : slots) {
-                ZonedDateTime slotStartAt = ZonedDateTime.of(date, LocalTime.parse(slot.getStart()), timeService.zone());
-                ZonedDateTime slotEndAt = ZonedDateTime.of(date, LocalTime.parse(slot.getEnd()), timeService.zone());
-
-                boolean isOccupied = roomReservations.stream().anyMatch(
-                        res -> res.getStartAt().isBefore(slotEndAt) && res.getEndAt().isAfter(slotStartAt)
-                );
+            for (int i = 0; i < slots.size(); i++) {
+                boolean isOccupied = RoomOccupancyIndex.isOccupied(roomOccupancy, slotMinutes[i][0], slotMinutes[i][1]);
 
                 availabilityMatrix.add(new AvailabilityDto.AvailabilityMatrixItemDto(
-                        String.valueOf(room.getId()),
-                        slot.getId(),
+                        roomId,
+                        slots.get(i).getId(),
                         !isOccupied
                 ));
             }
         }
 
-        return new AvailabilityDto.DailyAvailabilityResponse(rooms, slots, availabilityMatrix);
+        return availabilityMatrix;
     }
 
     /**
      * Genera los bloques horarios específicos de la UFRO según intranet.
+     * Visible en el paquete para los benchmarks (ver perfil {@code benchmarks} del pom).
      */
-    private List<AvailabilityDto.TimeSlotDto> generateTimeSlots() {
+    static List<AvailabilityDto.TimeSlotDto> generateTimeSlots() {
         List<AvailabilityDto.TimeSlotDto> slots = new ArrayList<>();
 
         // Formato: Hora Inicio, Hora Fin, Etiqueta (Periodo)
@@ -93,13 +259,27 @@ public class AvailabilityService {
         addSlot(slots, "19:10", "20:10", "9°");
         addSlot(slots, "20:20", "21:20", "10°");
 
-        return slots;
+        return List.copyOf(slots);
+    }
+
+    /**
+     * Convierte cada bloque a su rango {@code [inicio, fin)} en minutos desde las 00:00.
+     */
+    private static int[][] toMinuteRanges(List<AvailabilityDto.TimeSlotDto> slots) {
+        int[][] ranges = new int[slots.size()][];
+        for (int i = 0; i < slots.size(); i++) {
+            ranges[i] = new int[]{
+                    LocalTime.parse(slots.get(i).getStart()).toSecondOfDay() / 60,
+                    LocalTime.parse(slots.get(i).getEnd()).toSecondOfDay() / 60
+            };
+        }
+        return ranges;
     }
 
     /**
      * auxiliar para agregar slots a la lista de forma limpia.
      */
-    private void addSlot(List<AvailabilityDto.TimeSlotDto> list, String start, String end, String periodName) {
+    private static void addSlot(List<AvailabilityDto.TimeSlotDto> list, String start, String end, String periodName) {
         // Manteniene el ID como "HH:mm-HH:mm" para que el frontend lo ordene correctamente
         String id = String.format("%s-%s", start, end);
         // El label combina el nombre del periodo y la hora para que el usuario lo vea claro
@@ -107,14 +287,4 @@ public class AvailabilityService {
 
         list.add(new AvailabilityDto.TimeSlotDto(id, label, start, end));
     }
-
-    private RoomDto mapRoomToDto(Room room) {
-        return RoomDto.builder()
-                .id(room.getId())
-                .name(room.getName())
-                .capacity(room.getCapacity())
-                .equipment(room.getEquipment())
-                .floor(room.getFloor())
-                .build();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.AvailabilityDto;
+import bookfronterab.exception.StreamCapacityException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio que mantiene las suscripciones SSE a la disponibilidad de un día
+ * y les envía los cambios de bloques (sala, bloque, disponible) cuando se confirma
+ * la creación o cancelación de una reserva.
+ * <p>
+ * Las conexiones usan {@link SseEmitter} (servlet asíncrono), por lo que una conexión
+ * inactiva no ocupa ningún hilo. Cada conexión tiene su propia cola acotada de eventos y la
+ * vacía un hilo virtual que solo existe mientras hay algo que enviar: un cliente que deja de
+ * leer bloquea solo su propio envío, no los eventos ni los heartbeats de los demás.
+ * Se desconecta al cliente que se atrasa (cola llena) o cuyo envío lleva más de
+ * {@code write-timeout-ms} bloqueado.
+ * <p>
+ * El endpoint es público, así que las conexiones abiertas están acotadas: en total
+ * ({@code max-subscribers}) y por día ({@code max-subscribers-per-day}). Pasado el límite,
+ * la suscripción se rechaza con {@link StreamCapacityException} (503).
+ */
+@Service
+@Slf4j
+public class AvailabilityStreamService {
+
+    static final String SLOT_CHANGE_EVENT = "slot-change";
+
+    private final AvailabilityService availabilityService;
+    private final TimeService timeService;
+    private final long emitterTimeoutMillis;
+    private final int queueCapacity;
+    private final long writeTimeoutNanos;
+    private final int maxSubscribers;
+    private final int maxSubscribersPerDay;
+
+    private final Map<LocalDate, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("availability-sse-", 0).factory());
+
+    public AvailabilityStreamService(AvailabilityService availabilityService,
+                                     TimeService timeService,
+                                     @Value("${bookfrontera.availability.stream.timeout-minutes:30}") long timeoutMinutes,
+                                     @Value("${bookfrontera.availability.stream.queue-capacity:64}") int queueCapacity,
+                                     @Value("${bookfrontera.availability.stream.write-timeout-ms:10000}") long writeTimeoutMs,
+                                     @Value("${bookfrontera.availability.stream.max-subscribers:2000}") int maxSubscribers,
+                                     @Value("${bookfrontera.availability.stream.max-subscribers-per-day:500}") int maxSubscribersPerDay) {
+        this.availabilityService = availabilityService;
+        this.timeService = timeService;
+        this.emitterTimeoutMillis = timeoutMinutes * 60_000;
+        this.queueCapacity = queueCapacity;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        this.maxSubscribers = maxSubscribers;
+        this.maxSubscribersPerDay = maxSubscribersPerDay;
+    }
+
+    /**
+     * Registra una nueva suscripción a los cambios de un día.
+     *
+     * @param date El día a observar; debe estar dentro del horizonte de reservas.
+     * @return El {@link SseEmitter} que el controlador debe devolver.
+     * @throws IllegalArgumentException si el día está fuera del horizonte.
+     * @throws StreamCapacityException  si ya se alcanzó el máximo de conexiones.
+     */
+    public SseEmitter subscribe(LocalDate date) {
+        availabilityService.requireWithinHorizon(date);
+        return register(date, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    SseEmitter register(LocalDate date, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(date, emitter);
+        // compute() bloquea el día: el cupo por día no se puede sobrepasar con suscripciones simultáneas
+        Set<Subscriber> daySubscribers = subscribers.compute(date, (d, current) -> {
+            Set<Subscriber> set = current != null ? current : ConcurrentHashMap.newKeySet();
+            if (set.size() >= maxSubscribersPerDay) {
+                throw new StreamCapacityException("Se alcanzó el máximo de conexiones para " + date + ".");
+            }
+            if (subscriberCount.incrementAndGet() > maxSubscribers) {
+                subscriberCount.decrementAndGet();
+                throw new StreamCapacityException("Se alcanzó el máximo de conexiones.");
+            }
+            set.add(subscriber);
+            return set;
+        });
+
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        log.debug("Nueva suscripción SSE para {} ({} activas ese día)", date, daySubscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Publica los cambios de disponibilidad provocados por una reserva ya confirmada.
+     * Se debe invocar después del commit y después de actualizar {@link RoomOccupancyIndex}.
+     * <p>
+     * Solo calcula los cambios en memoria y los deja en la cola de cada conexión, sin esperar ningún envío.
+     * Es {@code synchronized} para que los eventos de dos commits lleguen en el mismo orden en que se
+     * calcularon: así el último evento de un bloque siempre trae su estado más reciente.
+     *
+     * @param roomId  La sala afectada.
+     * @param startAt Inicio de la reserva creada o cancelada.
+     * @param endAt   Fin de la reserva creada o cancelada.
+     */
+    public synchronized void publish(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        LocalDate firstDay = startAt.withZoneSameInstant(timeService.zone()).toLocalDate();
+        LocalDate lastDay = endAt.withZoneSameInstant(timeService.zone()).toLocalDate();
+        boolean anySubscriber = firstDay.datesUntil(lastDay.plusDays(1)).anyMatch(subscribers::containsKey);
+        if (!anySubscriber) {
+            return;
+        }
+
+        for (AvailabilityDto.SlotChangeDto change : availabilityService.getSlotChanges(roomId, startAt, endAt)) {
+            Set<Subscriber> daySubscribers = subscribers.get(change.getDate());
+            if (daySubscribers == null) {
+                continue;
+            }
+            for (Subscriber subscriber : List.copyOf(daySubscribers)) {
+                subscriber.enqueue(SseEmitter.event().name(SLOT_CHANGE_EVENT).data(change));
+            }
+        }
+    }
+
+    /**
+     * Envía un comentario periódico a todas las conexiones para que los proxies no las
+     * cierren por inactividad y para detectar clientes desconectados. También desconecta
+     * a los clientes cuyo envío en curso superó el tiempo máximo de escritura.
+     */
+    @Scheduled(fixedRateString = "${bookfrontera.availability.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> daySubscribers : subscribers.values()) {
+            for (Subscriber subscriber : List.copyOf(daySubscribers)) {
+                if (subscriber.isStuck(now)) {
+                    subscriber.drop("envío bloqueado por más de " + TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos) + " ms");
+                } else {
+                    subscriber.enqueue(SseEmitter.event().comment("ping"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Cantidad de conexiones activas (todas las fechas).
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+        subscribers.values().forEach(daySubscribers -> daySubscribers.forEach(s -> s.emitter.complete()));
+        subscribers.clear();
+        subscriberCount.set(0);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.date, (d, daySubscribers) -> {
+            if (daySubscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return daySubscribers.isEmpty() ? null : daySubscribers;
+        });
+    }
+
+    /**
+     * Una conexión con su cola de eventos pendientes. A lo más un hilo la vacía a la vez ({@code draining}).
+     */
+    private final class Subscriber {
+
+        private final LocalDate date;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+
+        /**
+         * {@link System#nanoTime()} al empezar el envío en curso, o 0 si no hay ninguno.
+         */
+        private volatile long sendingSince;
+        private volatile Thread writer;
+
+        private Subscriber(LocalDate date, SseEmitter emitter) {
+            this.date = date;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (dropped.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                drop("cola llena (" + queueCapacity + " eventos pendientes)");
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        boolean isStuck(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > writeTimeoutNanos;
+        }
+
+        private void drain() {
+            // Un evento encolado justo después del último poll() y antes de soltar draining
+            // no encontraría escritor: por eso se vuelve a revisar la cola al terminar.
+            do {
+                writer = Thread.currentThread();
+                try {
+                    SseEmitter.SseEventBuilder event;
+                    while ((event = queue.poll()) != null) {
+                        sendingSince = System.nanoTime();
+                        emitter.send(event);
+                        sendingSince = 0;
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Conexión SSE cerrada para {}: {}", date, e.getMessage());
+                    unsubscribe(this);
+                    return;
+                } finally {
+                    sendingSince = 0;
+                    writer = null;
+                    draining.set(false);
+                }
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Desconecta a un cliente que no da abasto. No llama a {@link SseEmitter#complete()} desde aquí:
+         * mientras haya un envío bloqueado, el emisor está tomado y el hilo que llama (el que publica o el
+         * del heartbeat) quedaría esperando. Se interrumpe al escritor y se cierra desde un hilo virtual.
+         */
+        void drop(String reason) {
+            if (!dropped.compareAndSet(false, true)) {
+                return;
+            }
+            unsubscribe(this);
+            queue.clear();
+            log.info("Cliente SSE de {} desconectado: {}", date, reason);
+            Thread current = writer;
+            if (current != null) {
+                current.interrupt();
+            }
+            if (!writers.isShutdown()) {
+                writers.execute(emitter::complete);
+            }
+        }
+    }
+}
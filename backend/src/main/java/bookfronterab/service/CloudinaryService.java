@@ -2,6 +2,8 @@ package bookfronterab.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,10 +14,20 @@ import java.io.IOException;
 public class CloudinaryService {
 
     private final Cloudinary cloudinary;
+    private final MeterRegistry meterRegistry;
 
     public String uploadFile(MultipartFile file) throws IOException {
-        // Retorna la URL segura (https)
-        return (String) cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap()).get("secure_url");
+        // Duración de la subida (bookfrontera.cloudinary.upload), por resultado
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            // Retorna la URL segura (https)
+            String url = (String) cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap()).get("secure_url");
+            outcome = "success";
+            return url;
+        } finally {
+            sample.stop(meterRegistry.timer("bookfrontera.cloudinary.upload", "outcome", outcome));
+        }
     }
 
     // borra imagen si borras la sala
@@ -0,0 +1,142 @@
+package bookfronterab.service;
+
+import bookfronterab.model.IdempotencyKey;
+import bookfronterab.repo.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ejecuta solicitudes de creación como máximo una vez por encabezado {@code Idempotency-Key}.
+ * <p>
+ * La clave se registra en la misma transacción que la operación: si la operación falla, la clave
+ * no queda registrada y el reintento se ejecuta de nuevo; si se confirma, los reintentos (incluso
+ * concurrentes, que esperan sobre la clave primaria) se responden sin validar, bloquear ni sincronizar otra vez.
+ * <p>
+ * Las claves ya confirmadas se guardan además en una caché LRU acotada en memoria, así un reintento
+ * habitual no llega a la base de datos.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final TimeService timeService;
+    private final Duration ttl;
+    private final Map<String, CachedKey> cache;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepo,
+                              TransactionTemplate transactionTemplate,
+                              TimeService timeService,
+                              @Value("${bookfrontera.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${bookfrontera.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyKeyRepo = idempotencyKeyRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.timeService = timeService;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedKey> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la operación salvo que ya se haya ejecutado con la misma clave.
+     *
+     * @param userEmail      Usuario autenticado (las claves son por usuario).
+     * @param idempotencyKey Valor del encabezado, o null para ejecutar sin idempotencia.
+     * @param operation      Nombre de la operación (evita reutilizar una clave entre endpoints).
+     * @param request        Cuerpo de la solicitud; un reintento debe enviar el mismo.
+     * @param action         La operación; se ejecuta dentro de la transacción que registra la clave.
+     * @return true si es un reintento y la operación no se volvió a ejecutar.
+     * @throws IllegalArgumentException Si la clave es inválida o ya se usó con otra solicitud.
+     */
+    public boolean execute(String userEmail, String idempotencyKey, String operation, Object request, Runnable action) {
+        if (idempotencyKey == null) {
+            action.run();
+            return false;
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("El encabezado Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres.");
+        }
+
+        String cacheKey = userEmail + '\n' + idempotencyKey;
+        String requestHash = hash(operation + '\n' + request);
+        OffsetDateTime now = timeService.nowOffset();
+
+        CachedKey cached = cache.get(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return replay(cached.requestHash(), requestHash, idempotencyKey);
+        }
+
+        OffsetDateTime expiresAt = now.plus(ttl);
+        CachedKey stored = transactionTemplate.execute(status -> {
+            if (idempotencyKeyRepo.claim(userEmail, idempotencyKey, requestHash, now, expiresAt) == 1) {
+                action.run();
+                return null;
+            }
+            IdempotencyKey existing = idempotencyKeyRepo.findById(new IdempotencyKey.Key(userEmail, idempotencyKey))
+                    .orElseThrow(() -> new IllegalStateException("Clave de idempotencia no encontrada: " + idempotencyKey));
+            return new CachedKey(existing.getRequestHash(), existing.getExpiresAt());
+        });
+
+        if (stored == null) {
+            cache.put(cacheKey, new CachedKey(requestHash, expiresAt));
+            return false;
+        }
+        cache.put(cacheKey, stored);
+        return replay(stored.requestHash(), requestHash, idempotencyKey);
+    }
+
+    /**
+     * Elimina las claves expiradas.
+     */
+    @Scheduled(fixedDelayString = "${bookfrontera.idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        OffsetDateTime now = timeService.nowOffset();
+        int deleted = idempotencyKeyRepo.deleteExpired(now);
+        synchronized (cache) {
+            cache.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        }
+        if (deleted > 0) {
+            log.debug("Eliminadas {} claves de idempotencia expiradas", deleted);
+        }
+    }
+
+    private static boolean replay(String storedHash, String requestHash, String idempotencyKey) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IllegalArgumentException("La Idempotency-Key '" + idempotencyKey + "' ya se usó con otra solicitud.");
+        }
+        log.info("Reintento con Idempotency-Key {}: se devuelve el resultado original", idempotencyKey);
+        return true;
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record CachedKey(String requestHash, OffsetDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,149 @@
+package bookfronterab.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mueve las reservas antiguas de {@code reservations} a {@code reservations_archive}.
+ * <p>
+ * Se archivan las reservas que <b>empezaron</b> antes de la retención configurada. Así todas las
+ * reservas archivadas empiezan antes que cualquiera de la tabla principal, y el historial paginado
+ * de {@link ReservationService} puede continuar en el archivo con el mismo cursor {@code (startAt, id)}.
+ * <p>
+ * La tabla principal queda acotada a la retención más las reservas futuras, por lo que las consultas
+ * de disponibilidad y de conflictos no crecen con los años. El archivo está particionado por mes
+ * (en UTC); la partición de cada mes se crea justo antes de mover sus reservas.
+ */
+@Service
+@Slf4j
+public class ReservationArchiveService {
+
+    static final String PARTITION_PREFIX = "reservations_archive_p";
+
+    /**
+     * Mueve un lote en una sola sentencia (DELETE ... RETURNING + INSERT), por lo que cada lote es atómico.
+     * Se mueven todas, también las referenciadas desde {@code registry}: su {@code reservation_id} no tiene FK
+     * (migración V13) y sigue apuntando a la reserva archivada. Así nada anterior al límite queda en la tabla principal.
+     */
+    private static final String MOVE_BATCH_SQL = """
+            WITH moved AS (
+                DELETE FROM reservations
+                WHERE id IN (
+                    SELECT r.id FROM reservations r
+                    WHERE r.start_at < ?
+                    LIMIT ?
+                )
+                RETURNING id, room_id, user_id, start_at, end_at, google_event_id
+            )
+            INSERT INTO reservations_archive (id, room_id, user_id, start_at, end_at, google_event_id, archived_at)
+            SELECT id, room_id, user_id, start_at, end_at, google_event_id, ? FROM moved
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TimeService timeService;
+    private final WeeklyLimitService weeklyLimitService;
+    private final int retentionDays;
+    private final int batchSize;
+
+    /**
+     * Meses cuya partición ya se creó (evita repetir el DDL en cada ejecución).
+     */
+    private final Set<YearMonth> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    public ReservationArchiveService(JdbcTemplate jdbcTemplate,
+                                     TimeService timeService,
+                                     WeeklyLimitService weeklyLimitService,
+                                     @Value("${bookfrontera.reservations.archive.retention-days:365}") int retentionDays,
+                                     @Value("${bookfrontera.reservations.archive.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeService = timeService;
+        this.weeklyLimitService = weeklyLimitService;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archiva todas las reservas que empezaron antes de la retención, en lotes,
+     * y elimina los contadores semanales de semanas ya pasadas.
+     *
+     * @return La cantidad de reservas archivadas.
+     */
+    @Scheduled(cron = "${bookfrontera.reservations.archive.cron:0 30 3 * * *}")
+    public int archiveOldReservations() {
+        ZonedDateTime cutoff = cutoff();
+        ensurePartitions(cutoff);
+
+        OffsetDateTime archivedAt = timeService.nowOffset();
+        int total = 0;
+        int moved;
+        do {
+            moved = jdbcTemplate.update(MOVE_BATCH_SQL, cutoff.toOffsetDateTime(), batchSize, archivedAt);
+            total += moved;
+        } while (moved == batchSize);
+
+        if (total > 0) {
+            log.info("Archivadas {} reservas que empezaron antes de {}", total, cutoff);
+        }
+
+        // Los contadores del límite semanal solo sirven para semanas en las que aún se puede reservar
+        weeklyLimitService.deleteOlderThan(timeService.nowOffset().toZonedDateTime());
+        return total;
+    }
+
+    /**
+     * Límite de la retención: las reservas que empezaron antes se archivan.
+     */
+    public ZonedDateTime cutoff() {
+        return timeService.nowOffset().toZonedDateTime().minusDays(retentionDays);
+    }
+
+    /**
+     * Crea las particiones mensuales que faltan entre la reserva más antigua a archivar y el límite.
+     * Si el archivo no está particionado (esquema creado con {@code ddl-auto}), no hace nada.
+     */
+    private void ensurePartitions(ZonedDateTime cutoff) {
+        if (!isPartitioned()) {
+            return;
+        }
+        OffsetDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT min(start_at) FROM reservations WHERE start_at < ?", OffsetDateTime.class, cutoff.toOffsetDateTime());
+        if (oldest == null) {
+            return;
+        }
+
+        YearMonth last = YearMonth.from(cutoff.withZoneSameInstant(ZoneOffset.UTC));
+        for (YearMonth month = YearMonth.from(oldest.withOffsetSameInstant(ZoneOffset.UTC)); !month.isAfter(last); month = month.plusMonths(1)) {
+            if (knownPartitions.contains(month)) {
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF reservations_archive FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(partitionName(month), monthStart(month), monthStart(month.plusMonths(1))));
+            knownPartitions.add(month);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'reservations_archive'::regclass)",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + "%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private static OffsetDateTime monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+}
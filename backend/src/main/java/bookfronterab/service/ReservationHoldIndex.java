@@ -0,0 +1,149 @@
+package bookfronterab.service;
+
+import bookfronterab.model.ReservationHold;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copia en memoria de los bloqueos tentativos ({@link ReservationHold}), por sala.
+ * <p>
+ * Permite rechazar sin ir a la base de datos (ni esperar el bloqueo de la sala) a quien intenta
+ * reservar un intervalo que otro usuario ya bloqueó, y sumar los bloqueos a la grilla de disponibilidad.
+ * Igual que {@link RoomOccupancyIndex}, las listas nunca se modifican en sitio (copy-on-write),
+ * así los lectores no necesitan bloqueos.
+ * <p>
+ * Los bloqueos expirados se siguen mostrando como ocupados hasta que se purgan
+ * (ver {@link ReservationHoldService#purgeExpired()}), para que la grilla (y su ETag) cambie solo al agregar o quitar uno.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationHoldIndex {
+
+    private final TimeService timeService;
+
+    private final ConcurrentHashMap<Long, List<Hold>> holdsByRoom = new ConcurrentHashMap<>();
+
+    public void put(Hold hold) {
+        holdsByRoom.compute(hold.roomId(), (roomId, current) -> {
+            List<Hold> updated = new ArrayList<>(current != null ? current : List.of());
+            updated.removeIf(h -> h.id().equals(hold.id()));
+            updated.add(hold);
+            return List.copyOf(updated);
+        });
+    }
+
+    public void remove(Hold hold) {
+        holdsByRoom.computeIfPresent(hold.roomId(), (roomId, current) -> {
+            List<Hold> updated = current.stream().filter(h -> !h.id().equals(hold.id())).toList();
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    /**
+     * Busca un bloqueo vigente de otro usuario que se solape con el intervalo.
+     */
+    public Optional<Hold> findActiveByOthers(Long roomId, Long userId, ZonedDateTime startAt, ZonedDateTime endAt,
+                                             OffsetDateTime now) {
+        return holdsByRoom.getOrDefault(roomId, List.of()).stream()
+                .filter(h -> !h.userId().equals(userId) && h.isActive(now) && h.overlaps(startAt, endAt))
+                .findFirst();
+    }
+
+    /**
+     * Busca un bloqueo vigente del usuario que cubra todo el intervalo.
+     */
+    public Optional<Hold> findActiveCovering(Long roomId, Long userId, ZonedDateTime startAt, ZonedDateTime endAt,
+                                             OffsetDateTime now) {
+        return holdsByRoom.getOrDefault(roomId, List.of()).stream()
+                .filter(h -> h.userId().equals(userId) && h.isActive(now) && h.covers(startAt, endAt))
+                .findFirst();
+    }
+
+    /**
+     * Quita de memoria los bloqueos expirados.
+     *
+     * @return Los bloqueos quitados.
+     */
+    public List<Hold> removeExpired(OffsetDateTime now) {
+        List<Hold> expired = new ArrayList<>();
+        for (Long roomId : holdsByRoom.keySet()) {
+            holdsByRoom.computeIfPresent(roomId, (id, current) -> {
+                List<Hold> active = new ArrayList<>();
+                for (Hold hold : current) {
+                    (hold.isActive(now) ? active : expired).add(hold);
+                }
+                return active.isEmpty() ? null : List.copyOf(active);
+            });
+        }
+        return expired;
+    }
+
+    /**
+     * Suma los bloqueos de un día a la ocupación por reservas.
+     *
+     * @param date      El día.
+     * @param occupancy Ocupación por reservas ({@code roomId -> bits de minutos}); no se modifica.
+     * @return Un mapa nuevo con los bloqueos sumados, o el mismo si ningún bloqueo toca ese día.
+     */
+    public Map<Long, long[]> overlay(LocalDate date, Map<Long, long[]> occupancy) {
+        if (holdsByRoom.isEmpty()) {
+            return occupancy;
+        }
+        ZoneId zone = timeService.zone();
+        Map<Long, long[]> merged = null;
+        for (List<Hold> holds : holdsByRoom.values()) {
+            for (Hold hold : holds) {
+                LocalDateTime start = hold.startAt().withZoneSameInstant(zone).toLocalDateTime();
+                LocalDateTime end = hold.endAt().withZoneSameInstant(zone).toLocalDateTime();
+                int[] range = RoomOccupancyIndex.minuteRange(date, start, end);
+                if (start.toLocalDate().isAfter(date) || range[0] >= range[1]) {
+                    continue;
+                }
+                if (merged == null) {
+                    merged = new HashMap<>(occupancy);
+                }
+                long[] current = merged.get(hold.roomId());
+                long[] bits = current != null ? current.clone() : new long[RoomOccupancyIndex.WORDS_PER_DAY];
+                RoomOccupancyIndex.setRange(bits, range[0], range[1]);
+                merged.put(hold.roomId(), bits);
+            }
+        }
+        return merged != null ? merged : occupancy;
+    }
+
+    /**
+     * Copia inmutable de un {@link ReservationHold}.
+     */
+    public record Hold(Long id, Long roomId, Long userId, ZonedDateTime startAt, ZonedDateTime endAt,
+                       OffsetDateTime expiresAt) {
+
+        public static Hold of(ReservationHold hold) {
+            return new Hold(hold.getId(), hold.getRoomId(), hold.getUserId(), hold.getStartAt(), hold.getEndAt(),
+                    hold.getExpiresAt());
+        }
+
+        boolean isActive(OffsetDateTime now) {
+            return expiresAt.isAfter(now);
+        }
+
+        boolean overlaps(ZonedDateTime from, ZonedDateTime to) {
+            return startAt.isBefore(to) && endAt.isAfter(from);
+        }
+
+        boolean covers(ZonedDateTime from, ZonedDateTime to) {
+            return !startAt.isAfter(from) && !endAt.isBefore(to);
+        }
+    }
+}
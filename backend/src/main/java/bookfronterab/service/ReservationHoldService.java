@@ -0,0 +1,256 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.ReservationHold;
+import bookfronterab.model.User;
+import bookfronterab.repo.ReservationHoldRepository;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bloqueos tentativos (holds) de un intervalo de sala, para bajar la contención cuando muchos
+ * usuarios intentan reservar el mismo bloque a la vez.
+ * <p>
+ * El primero que bloquea el intervalo lo ve reservado para sí durante {@code ttl}; los demás
+ * ven el bloque no disponible y, si igual intentan reservarlo, se rechazan desde memoria sin
+ * esperar el bloqueo de la sala. El dueño lo confirma con {@link ReservationService#create}, que con un
+ * bloqueo vigente no vuelve a bloquear la sala ni a buscar conflictos (ver {@link #consumeCovering}).
+ * <p>
+ * Los bloqueos se guardan en {@link ReservationHoldIndex} y en la tabla {@code reservation_holds}:
+ * la tabla se consulta bajo el bloqueo de la sala, así la regla se cumple aunque otra instancia
+ * o un reinicio no tengan el bloqueo en memoria.
+ */
+@Service
+@Slf4j
+public class ReservationHoldService {
+
+    static final String SLOT_HELD = "Otro usuario está reservando ese horario en este momento. Intenta en unos segundos o elige otro.";
+
+    private final ReservationHoldRepository holdRepo;
+    private final ReservationRepository reservationRepo;
+    private final RoomRepository roomRepo;
+    private final UserIdentityCache userIdentityCache;
+    private final ReservationHoldIndex holdIndex;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final TimeService timeService;
+    private final ReservationMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    public ReservationHoldService(ReservationHoldRepository holdRepo,
+                                  ReservationRepository reservationRepo,
+                                  RoomRepository roomRepo,
+                                  UserIdentityCache userIdentityCache,
+                                  ReservationHoldIndex holdIndex,
+                                  AvailabilityStreamService availabilityStreamService,
+                                  TimeService timeService,
+                                  ReservationMetrics metrics,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${bookfrontera.reservations.holds.ttl-seconds:120}") long ttlSeconds) {
+        this.holdRepo = holdRepo;
+        this.reservationRepo = reservationRepo;
+        this.roomRepo = roomRepo;
+        this.userIdentityCache = userIdentityCache;
+        this.holdIndex = holdIndex;
+        this.availabilityStreamService = availabilityStreamService;
+        this.timeService = timeService;
+        this.metrics = metrics;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Bloquea un intervalo de una sala para el usuario. Cada usuario tiene como máximo un bloqueo:
+     * uno nuevo reemplaza al anterior.
+     *
+     * @param userEmail El email del usuario autenticado.
+     * @param req       La sala y el intervalo (mismas reglas que una reserva).
+     * @return El bloqueo creado, con su vencimiento.
+     * @throws IllegalArgumentException Si las fechas no cumplen las reglas o la sala no existe.
+     * @throws IllegalStateException    Si el intervalo ya está reservado o bloqueado por otro usuario.
+     */
+    public ReservationDto.HoldResponse place(String userEmail, ReservationDto.HoldRequest req) {
+        ReservationService.validateReservationRequest(
+                new ReservationDto.CreateRequest(req.roomId(), req.startAt(), req.endAt(), false));
+        Long userId = findUserId(userEmail);
+        failIfHeldByOthers(userId, req.roomId(), req.startAt(), req.endAt());
+
+        List<ReservationHold> replaced = new ArrayList<>();
+        ReservationHold hold = transactionTemplate.execute(status -> {
+            // Bloqueo corto de la sala: serializa los holds con las reservas de la misma sala
+            roomRepo.findByIdWithLock(req.roomId())
+                    .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada: " + req.roomId()));
+            if (!reservationRepo.findConflictingReservations(req.roomId(), req.startAt(), req.endAt()).isEmpty()) {
+                throw new IllegalStateException(ReservationService.ROOM_ALREADY_BOOKED);
+            }
+            OffsetDateTime now = timeService.nowOffset();
+            if (holdRepo.existsActiveByOthers(req.roomId(), userId, req.startAt(), req.endAt(), now)) {
+                throw new IllegalStateException(SLOT_HELD);
+            }
+            replaced.addAll(holdRepo.findByUserId(userId));
+            holdRepo.deleteAllInBatch(replaced);
+            return holdRepo.save(ReservationHold.builder()
+                    .roomId(req.roomId())
+                    .userId(userId)
+                    .startAt(req.startAt())
+                    .endAt(req.endAt())
+                    .expiresAt(now.plus(ttl))
+                    .createdAt(now)
+                    .build());
+        });
+
+        replaced.forEach(old -> removeAndPublish(ReservationHoldIndex.Hold.of(old)));
+        ReservationHoldIndex.Hold placed = ReservationHoldIndex.Hold.of(hold);
+        holdIndex.put(placed);
+        availabilityStreamService.publish(placed.roomId(), placed.startAt(), placed.endAt());
+        log.info("Bloqueo {} de la sala {} ({} a {}) para {} hasta {}",
+                hold.getId(), hold.getRoomId(), hold.getStartAt(), hold.getEndAt(), userEmail, hold.getExpiresAt());
+
+        return new ReservationDto.HoldResponse(hold.getId(), hold.getRoomId(), hold.getStartAt(), hold.getEndAt(),
+                hold.getExpiresAt());
+    }
+
+    /**
+     * Libera un bloqueo del usuario antes de que expire.
+     *
+     * @throws IllegalArgumentException Si el bloqueo no existe.
+     * @throws SecurityException        Si el bloqueo es de otro usuario.
+     */
+    public void release(Long holdId, String userEmail) {
+        Long userId = findUserId(userEmail);
+        ReservationHold hold = holdRepo.findById(holdId)
+                .orElseThrow(() -> new IllegalArgumentException("Bloqueo no encontrado con ID: " + holdId));
+        if (!hold.getUserId().equals(userId)) {
+            throw new SecurityException("No puedes liberar el bloqueo de otro usuario.");
+        }
+        holdRepo.delete(hold);
+        removeAndPublish(ReservationHoldIndex.Hold.of(hold));
+        log.info("Bloqueo {} liberado por {}", holdId, userEmail);
+    }
+
+    /**
+     * Rechaza desde memoria, antes de bloquear la sala, una reserva sobre un intervalo bloqueado por otro usuario.
+     *
+     * @throws IllegalStateException Si otro usuario tiene un bloqueo vigente que se solapa.
+     */
+    public void failIfHeldByOthers(User user, Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        failIfHeldByOthers(user.getId(), roomId, startAt, endAt);
+    }
+
+    private void failIfHeldByOthers(Long userId, Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        if (holdIndex.findActiveByOthers(roomId, userId, startAt, endAt, timeService.nowOffset()).isPresent()) {
+            metrics.rejected(ReservationMetrics.Rejection.HELD);
+            throw new IllegalStateException(SLOT_HELD);
+        }
+    }
+
+    /**
+     * Con la sala ya bloqueada por la transacción de la reserva: consume el bloqueo propio que cubre el intervalo
+     * o, si no hay uno, verifica en la BD que ningún otro usuario lo tenga bloqueado.
+     * <p>
+     * Un bloqueo propio vigente ya garantiza que nadie más bloqueó el intervalo (se verificó al crearlo,
+     * con la sala bloqueada), así el dueño no paga esa consulta.
+     *
+     * @throws IllegalStateException Si otro usuario tiene un bloqueo vigente que se solapa.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void claim(User user, Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        if (consumeCovering(user, roomId, startAt, endAt)) {
+            return;
+        }
+        if (holdRepo.existsActiveByOthers(roomId, user.getId(), startAt, endAt, timeService.nowOffset())) {
+            metrics.rejected(ReservationMetrics.Rejection.HELD);
+            throw new IllegalStateException(SLOT_HELD);
+        }
+    }
+
+    /**
+     * Consume, en la transacción de la reserva, el bloqueo vigente del usuario que cubre el intervalo.
+     * <p>
+     * Al crear ese bloqueo se verificó, con la sala bloqueada, que no había reservas ni bloqueos de otros
+     * en el intervalo, y mientras siga vigente nadie más puede tomarlo: quien lo consume puede confirmar
+     * sin volver a bloquear la sala ni buscar conflictos. Si la transacción hace rollback, el bloqueo vuelve.
+     *
+     * @return true si había un bloqueo vigente y se consumió.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean consumeCovering(User user, Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        OffsetDateTime now = timeService.nowOffset();
+        Optional<ReservationHoldIndex.Hold> own = holdIndex.findActiveCovering(roomId, user.getId(), startAt, endAt, now);
+        if (own.isEmpty() || holdRepo.deleteIfActive(own.get().id(), now) != 1) {
+            return false;
+        }
+        afterCommit(() -> removeAndPublish(own.get()));
+        return true;
+    }
+
+    /**
+     * Quita los bloqueos expirados de memoria (publicando que sus bloques vuelven a estar libres)
+     * y de la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${bookfrontera.reservations.holds.purge-ms:1000}")
+    public void purgeExpired() {
+        OffsetDateTime now = timeService.nowOffset();
+        List<ReservationHoldIndex.Hold> expired = holdIndex.removeExpired(now);
+        if (expired.isEmpty()) {
+            return;
+        }
+        expired.forEach(hold -> availabilityStreamService.publish(hold.roomId(), hold.startAt(), hold.endAt()));
+        Integer deleted = transactionTemplate.execute(status -> holdRepo.deleteExpired(now));
+        log.debug("{} bloqueos expirados quitados de memoria, {} filas eliminadas", expired.size(), deleted);
+    }
+
+    /**
+     * Al iniciar, carga en memoria los bloqueos vigentes (ej. tras un reinicio) y elimina los expirados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        OffsetDateTime now = timeService.nowOffset();
+        transactionTemplate.executeWithoutResult(status -> holdRepo.deleteExpired(now));
+        List<ReservationHold> active = holdRepo.findByExpiresAtAfter(now);
+        active.forEach(hold -> holdIndex.put(ReservationHoldIndex.Hold.of(hold)));
+        log.info("{} bloqueos tentativos vigentes cargados en memoria", active.size());
+    }
+
+    private Long findUserId(String userEmail) {
+        return userIdentityCache.findByEmail(userEmail)
+                .map(UserIdentityCache.UserIdentity::id)
+                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado: " + userEmail));
+    }
+
+    private void removeAndPublish(ReservationHoldIndex.Hold hold) {
+        holdIndex.remove(hold);
+        availabilityStreamService.publish(hold.roomId(), hold.startAt(), hold.endAt());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
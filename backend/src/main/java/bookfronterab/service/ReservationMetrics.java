@@ -0,0 +1,129 @@
+package bookfronterab.service;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Métricas del flujo de creación de reservas, para saber de dónde viene la latencia
+ * (bloqueo de la sala, consulta de conflictos, límite semanal, guardado) y cuántas se rechazan.
+ * <ul>
+ *     <li>{@code bookfrontera.reservations.create.stage}: duración de cada etapa de {@link ReservationService#create}.</li>
+ *     <li>{@code bookfrontera.reservations.lock.wait}: tiempo hasta obtener el bloqueo de la sala o del contador
+ *     semanal (incluye la espera por otras transacciones), con histograma para ver la cola de la distribución.</li>
+ *     <li>{@code bookfrontera.reservations.rejected}: reservas rechazadas por conflicto, límite semanal o bloqueo tentativo.</li>
+ * </ul>
+ * Los medidores se registran una sola vez al iniciar: registrar una medición no busca en el registro.
+ */
+@Component
+public class ReservationMetrics {
+
+    static final String STAGE_TIMER = "bookfrontera.reservations.create.stage";
+    static final String LOCK_WAIT_TIMER = "bookfrontera.reservations.lock.wait";
+    static final String REJECTED_COUNTER = "bookfrontera.reservations.rejected";
+
+    /**
+     * Etapas de {@link ReservationService#create}, en orden. El INSERT se ejecuta en {@code SAVE}
+     * ({@code saveAndFlush}), incluida la espera por la restricción de exclusión si otra transacción
+     * reserva el mismo intervalo. {@code COMMIT} mide solo el ida y vuelta del commit.
+     */
+    public enum Stage { VALIDATE, ROOM_LOCK, CONFLICT_CHECK, WEEKLY_LIMIT, SAVE, COMMIT }
+
+    public enum Lock { ROOM, WEEKLY_COUNTER }
+
+    public enum Rejection { CONFLICT, WEEKLY_LIMIT, HELD }
+
+    private final Clock clock;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Lock, Timer> lockWaitTimers = new EnumMap<>(Lock.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+
+    public ReservationMetrics(MeterRegistry registry) {
+        this.clock = registry.config().clock();
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Duración de cada etapa de la creación de una reserva")
+                    .tag("stage", tagValue(stage))
+                    .register(registry));
+        }
+        for (Lock lock : Lock.values()) {
+            lockWaitTimers.put(lock, Timer.builder(LOCK_WAIT_TIMER)
+                    .description("Tiempo hasta obtener el bloqueo, incluida la espera por otras transacciones")
+                    .tag("lock", tagValue(lock))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry));
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder(REJECTED_COUNTER)
+                    .description("Reservas rechazadas, por motivo")
+                    .tag("reason", tagValue(rejection))
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Empieza a medir una creación de reserva; cada {@link Laps#lap} registra el tiempo desde el anterior.
+     */
+    public Laps startCreate() {
+        return new Laps();
+    }
+
+    /**
+     * Ejecuta la sentencia que toma el bloqueo y registra cuánto tardó.
+     */
+    public <T> T timeLockWait(Lock lock, Supplier<T> acquire) {
+        return lockWaitTimers.get(lock).record(acquire);
+    }
+
+    public void rejected(Rejection reason) {
+        rejections.get(reason).increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Cronómetro por etapas de una creación. No es seguro entre hilos: cada creación usa el suyo.
+     */
+    public final class Laps {
+
+        private long lapStart = clock.monotonicTime();
+
+        public void lap(Stage stage) {
+            long now = clock.monotonicTime();
+            stageTimers.get(stage).record(now - lapStart, TimeUnit.NANOSECONDS);
+            lapStart = now;
+        }
+
+        /**
+         * Registra la etapa cuando la transacción actual se confirma (o de inmediato si no hay transacción).
+         * Si la transacción se revierte, la etapa no se registra.
+         */
+        public void lapOnCommit(Stage stage) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                lap(stage);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lap(stage);
+                }
+            });
+        }
+    }
+}
@@ -1,29 +1,43 @@
 package bookfronterab.service;
 
+import bookfronterab.dto.ReservationCursor;
 import bookfronterab.dto.ReservationDto;
 import bookfronterab.dto.RoomDto;
 import bookfronterab.dto.UserDto;
+import bookfronterab.model.ArchivedReservation;
 import bookfronterab.model.Reservation;
 import bookfronterab.model.Room;
 import bookfronterab.model.User;
 import bookfronterab.model.UserRole;
+import bookfronterab.repo.ArchivedReservationRepository;
 import bookfronterab.repo.ReservationRepository;
 import bookfronterab.repo.RoomRepository;
 import bookfronterab.repo.UserRepository;
-import bookfronterab.service.google.GoogleCalendarService;
-import bookfronterab.service.google.GoogleCredentialsService;
-import com.google.api.client.auth.oauth2.Credential;
+import bookfronterab.service.google.CalendarOutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.time.DayOfWeek;
-import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
 
 
 /**
@@ -36,36 +50,102 @@ import java.time.temporal.TemporalAdjusters;
 @Slf4j
 public class ReservationService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Máximo de ocurrencias (salas x intervalos) de una creación masiva.
+     */
+    static final int MAX_BULK_OCCURRENCES = 500;
+
+    /**
+     * Cursor inicial para las páginas ascendentes: antes de cualquier reserva.
+     */
+    private static final ReservationCursor FIRST_ASCENDING =
+            new ReservationCursor(ZonedDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC), 0);
+
+    static final String ROOM_ALREADY_BOOKED = "La sala ya está reservada en ese horario. Por favor, elige otro.";
+
+    /**
+     * SQLSTATE de PostgreSQL para "exclusion_violation".
+     */
+    private static final String EXCLUSION_VIOLATION_SQLSTATE = "23P01";
+
     /**
      * Repositorio para el acceso a datos de {@link Reservation}.
      */
     private final ReservationRepository reservationRepo;
 
+    /**
+     * Historial archivado; se lee al paginar más allá de la retención.
+     */
+    private final ArchivedReservationRepository archivedReservationRepo;
+
     /**
      * Repositorio para el acceso a datos de {@link User}.
      */
     private final UserRepository userRepo;
 
+    /**
+     * Identidad y rol de los usuarios por email: las revisiones de permisos no van a la base de datos.
+     */
+    private final UserIdentityCache userIdentityCache;
+
     /**
      * Repositorio para el acceso a datos de {@link Room}.
      */
     private final RoomRepository roomRepo;
 
     /**
-     * Servicio para interactuar con la API de Google Calendar.
+     * Outbox de Google Calendar: las operaciones se encolan en la transacción de la reserva
+     * y se envían en segundo plano.
      */
-    private final GoogleCalendarService googleCalendarService;
+    private final CalendarOutboxService calendarOutboxService;
+
+    private final TimeService timeService;
 
     /**
-     * Servicio para gestionar las credenciales de Google OAuth2.
+     * Contadores por usuario y semana que aplican el límite semanal de los estudiantes.
      */
-    private final GoogleCredentialsService googleCredentialsService;
+    private final WeeklyLimitService weeklyLimitService;
 
-    private final TimeService timeService;
+    /**
+     * Índice en memoria de ocupación que alimenta la grilla de disponibilidad.
+     */
+    private final RoomOccupancyIndex occupancyIndex;
+
+    /**
+     * Publica los cambios de disponibilidad a los clientes suscritos por SSE.
+     */
+    private final AvailabilityStreamService availabilityStreamService;
+
+    /**
+     * Bloqueos tentativos: los intervalos bloqueados por otro usuario no se pueden reservar.
+     */
+    private final ReservationHoldService holdService;
+
+    /**
+     * Lista de espera: cada cancelación encola su intervalo para asignarlo en segundo plano.
+     */
+    private final WaitlistService waitlistService;
+
+    /**
+     * Duración de las etapas de la creación, espera de los bloqueos y rechazos.
+     */
+    private final ReservationMetrics metrics;
+
+    /**
+     * La restricción de exclusión {@code reservations_no_overlap} siempre existe (migración V10).
+     * Si está activo, el solapamiento lo impide solo ella: no se bloquea la sala ni se consultan
+     * conflictos, y su error (SQLSTATE 23P01) se traduce a "sala ya reservada".
+     */
+    @Value("${bookfrontera.reservations.exclusion-constraint.enabled:false}")
+    private boolean exclusionConstraintEnabled;
 
     /**
      * Crea una nueva reserva, valida la disponibilidad y, opcionalmente,
      * la añade al Google Calendar del usuario.
+     * Si el usuario tiene un bloqueo tentativo que cubre el intervalo, la reserva lo confirma.
      *
      * @param userEmail El email del usuario autenticado que realiza la reserva.
      * @param req       El DTO {@link ReservationDto.CreateRequest} con los datos de la reserva.
@@ -74,20 +154,34 @@ public class ReservationService {
      */
     @Transactional
     public void create(String userEmail, ReservationDto.CreateRequest req) {
+        ReservationMetrics.Laps laps = metrics.startCreate();
 
         //  Validación y búsqueda de User/Room
         validateReservationRequest(req);
-        User user = userRepo.findByEmail(userEmail)
+        UserIdentityCache.UserIdentity identity = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> new IllegalStateException("Usuario no encontrado: " + userEmail));
-        Room room = roomRepo.findByIdWithLock(req.roomId()) // Usando el bloqueo pesimista
-                .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada: " + req.roomId()));
+        User user = userReference(identity);
+        // Si otro usuario bloqueó el intervalo se rechaza aquí, sin esperar el bloqueo de la sala
+        holdService.failIfHeldByOthers(user, req.roomId(), req.startAt(), req.endAt());
+        laps.lap(ReservationMetrics.Stage.VALIDATE);
+        // Un bloqueo propio vigente ya reservó el intervalo con la sala bloqueada: no se repite ni el bloqueo
+        // ni la búsqueda de conflictos (el respaldo es la restricción de exclusión, ver saveReservation)
+        boolean held = holdService.consumeCovering(user, req.roomId(), req.startAt(), req.endAt());
+        Room room = held ? findRoom(req.roomId()) : findRoomForBooking(req.roomId());
+        laps.lap(ReservationMetrics.Stage.ROOM_LOCK);
 
         // 3. Validar disponibilidad
-        checkAvailability(req.roomId(), req.startAt(), req.endAt());
-       //validar limite semanal (si no es admin verificamos si ya reservo esta semana)
-        if (user.getRol() != UserRole.ADMIN) {
-            validateUserWeeklyLimit(user, req.startAt());
+        if (!held) {
+            checkAvailability(req.roomId(), req.startAt(), req.endAt());
         }
+        laps.lap(ReservationMetrics.Stage.CONFLICT_CHECK);
+        // Límite semanal: los estudiantes toman un cupo de la semana; las reservas de admin solo se registran
+        if (identity.rol() != UserRole.ADMIN) {
+            weeklyLimitService.acquire(user, req.startAt());
+        } else {
+            weeklyLimitService.record(user, req.startAt());
+        }
+        laps.lap(ReservationMetrics.Stage.WEEKLY_LIMIT);
 
         // 4. Crear y guardar la reserva SIN EL ID DE GOOGLE
         Reservation reservation = Reservation.builder()
@@ -97,27 +191,35 @@ public class ReservationService {
                 .endAt(req.endAt())
                 .build();
 
-        Reservation savedReservation = reservationRepo.save(reservation);
+        Reservation savedReservation = saveReservation(reservation);
+        if (!held) {
+            holdService.claim(user, room.getId(), req.startAt(), req.endAt());
+        }
         log.info("Reserva {} creada (localmente) para usuario {}", savedReservation.getId(), userEmail);
+        publishOccupancyChange(room.getId(), req.startAt(), req.endAt(), true);
 
-        // 5. (Opcional) Sincronizar con Google Calendar
+        // 5. (Opcional) Encolar la sincronización con Google Calendar (el ID de Google se guarda al enviarse)
         if (req.addToGoogleCalendar()) {
-            // ahora guardará el ID de Google en la reserva
-            handleGoogleCalendarSync(user, savedReservation);
+            calendarOutboxService.enqueueCreate(savedReservation);
         } else {
             log.info("Usuario no solicitó añadir la reserva {} a Google Calendar. Omitiendo.", savedReservation.getId());
         }
+        laps.lap(ReservationMetrics.Stage.SAVE);
+        laps.lapOnCommit(ReservationMetrics.Stage.COMMIT);
     }
     @Transactional
     public void createOnBehalf(String userEmail, String othersEmail, ReservationDto.CreateRequest req){
         //  Validación y búsqueda de User/Room
         validateReservationRequest(req);
-        Room room = roomRepo.findByIdWithLock(req.roomId()) // Usando el bloqueo pesimista
-                .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada: " + req.roomId()));
-        User other = userRepo.findByEmail(othersEmail)
+        Room room = findRoomForBooking(req.roomId());
+        User other = userIdentityCache.findByEmail(othersEmail)
+                .map(this::userReference)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + othersEmail));
+        holdService.failIfHeldByOthers(other, req.roomId(), req.startAt(), req.endAt());
         // 3. Validar disponibilidad
         checkAvailability(req.roomId(), req.startAt(), req.endAt());
+        // No aplica el límite semanal, pero la reserva cuenta en la semana del usuario
+        weeklyLimitService.record(other, req.startAt());
         // 4. Crear y guardar la reserva SIN EL ID DE GOOGLE
         Reservation reservation = Reservation.builder()
                 .user(other)
@@ -126,11 +228,182 @@ public class ReservationService {
                 .endAt(req.endAt())
                 .build();
 
-        Reservation savedReservation = reservationRepo.save(reservation);
+        Reservation savedReservation = saveReservation(reservation);
+        holdService.claim(other, room.getId(), req.startAt(), req.endAt());
         log.info("Reserva {} creada (localmente) por {} para usuario {}", savedReservation.getId(), userEmail,othersEmail);
+        publishOccupancyChange(room.getId(), req.startAt(), req.endAt(), true);
         log.info("Las reserva {} es en nombre de otra persona y no se añade a google calendar", savedReservation.getId());
     }
 
+    /**
+     * Crea en una sola transacción las reservas de varios intervalos (explícitos o de una recurrencia
+     * semanal) en una o más salas. Cada sala se bloquea una sola vez y se valida con una única consulta
+     * por rango; las ocurrencias inválidas o en conflicto se informan y el resto se inserta en lotes JDBC.
+     * Igual que {@link #createOnBehalf}, no aplica el límite semanal ni sincroniza con Google Calendar.
+     * Tampoco respeta los bloqueos tentativos (duran pocos minutos): su dueño verá el conflicto al confirmar.
+     *
+     * @param userEmail El email del administrador autenticado.
+     * @param req       Las salas, los intervalos y, opcionalmente, el dueño de las reservas.
+     * @return El resultado de cada ocurrencia, en el orden de la solicitud.
+     * @throws IllegalArgumentException Si faltan salas o intervalos, se excede el máximo de ocurrencias,
+     *                                  una sala no existe o el dueño no existe.
+     * @throws SecurityException        Si el usuario no es administrador.
+     */
+    @Transactional
+    public ReservationDto.BulkCreateResponse createBulk(String userEmail, ReservationDto.BulkCreateRequest req) {
+        User admin = requireAdmin(userEmail);
+        User owner = req.othersEmail() == null ? admin : userIdentityCache.findByEmail(req.othersEmail())
+                .map(this::userReference)
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + req.othersEmail()));
+
+        List<Long> roomIds = req.roomIds() == null ? List.of() : req.roomIds().stream().distinct().toList();
+        List<ReservationDto.Interval> intervals = expandIntervals(req);
+        if (roomIds.isEmpty() || intervals.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos una sala y un intervalo.");
+        }
+        if (roomIds.size() * intervals.size() > MAX_BULK_OCCURRENCES) {
+            throw new IllegalArgumentException("No se pueden crear más de " + MAX_BULK_OCCURRENCES + " reservas a la vez.");
+        }
+
+        // 1. Las reglas de fechas no dependen de la sala: se valida cada intervalo una vez
+        Map<ReservationDto.Interval, String> invalid = new HashMap<>();
+        for (ReservationDto.Interval interval : intervals) {
+            try {
+                validateReservationRequest(new ReservationDto.CreateRequest(null, interval.startAt(), interval.endAt(), false));
+            } catch (IllegalArgumentException e) {
+                invalid.put(interval, e.getMessage());
+            }
+        }
+        List<ReservationDto.Interval> valid = intervals.stream()
+                .filter(interval -> !invalid.containsKey(interval))
+                .sorted(Comparator.comparing(ReservationDto.Interval::startAt, ChronoZonedDateTime.timeLineOrder()))
+                .toList();
+
+        // 2. Por sala (en orden de ID, para no bloquearse con otra creación masiva): un bloqueo y una consulta
+        Map<Long, Map<ReservationDto.Interval, Reservation>> accepted = new HashMap<>();
+        List<Reservation> toInsert = new ArrayList<>();
+        for (Long roomId : roomIds.stream().sorted().toList()) {
+            Room room = findRoomForBooking(roomId);
+            Map<ReservationDto.Interval, Reservation> roomAccepted = new HashMap<>();
+            accepted.put(roomId, roomAccepted);
+            if (valid.isEmpty()) {
+                continue;
+            }
+            ZonedDateTime latestEnd = valid.stream().map(ReservationDto.Interval::endAt)
+                    .max(ChronoZonedDateTime.timeLineOrder()).orElseThrow();
+            List<Reservation> taken = new ArrayList<>(reservationRepo.findConflictingReservations(
+                    roomId, valid.get(0).startAt(), latestEnd));
+
+            for (ReservationDto.Interval interval : valid) {
+                if (overlapsAny(taken, interval)) {
+                    continue;
+                }
+                Reservation reservation = Reservation.builder()
+                        .user(owner)
+                        .room(room)
+                        .startAt(interval.startAt())
+                        .endAt(interval.endAt())
+                        .build();
+                taken.add(reservation);
+                roomAccepted.put(interval, reservation);
+                toInsert.add(reservation);
+            }
+        }
+
+        // 3. Contadores semanales (antes del INSERT, ver WeeklyLimitService) y guardado en lotes
+        if (!toInsert.isEmpty()) {
+            weeklyLimitService.recordAll(owner, toInsert.stream().map(Reservation::getStartAt).toList());
+            saveAllReservations(toInsert);
+            toInsert.forEach(r -> publishOccupancyChange(r.getRoom().getId(), r.getStartAt(), r.getEndAt(), true));
+        }
+
+        // 4. Informe por ocurrencia
+        List<ReservationDto.OccurrenceResult> results = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            for (ReservationDto.Interval interval : intervals) {
+                String invalidReason = invalid.get(interval);
+                Reservation created = accepted.get(roomId).get(interval);
+                if (invalidReason != null) {
+                    results.add(new ReservationDto.OccurrenceResult(roomId, interval.startAt(), interval.endAt(),
+                            ReservationDto.OccurrenceStatus.INVALID, null, invalidReason));
+                } else if (created != null) {
+                    results.add(new ReservationDto.OccurrenceResult(roomId, interval.startAt(), interval.endAt(),
+                            ReservationDto.OccurrenceStatus.CREATED, created.getId(), null));
+                } else {
+                    results.add(new ReservationDto.OccurrenceResult(roomId, interval.startAt(), interval.endAt(),
+                            ReservationDto.OccurrenceStatus.CONFLICT, null, ROOM_ALREADY_BOOKED));
+                }
+            }
+        }
+        log.info("Creación masiva de {} para usuario {}: {} reservas creadas, {} rechazadas.",
+                userEmail, req.othersEmail() == null ? userEmail : req.othersEmail(), toInsert.size(), results.size() - toInsert.size());
+        return new ReservationDto.BulkCreateResponse(toInsert.size(), results.size() - toInsert.size(), results);
+    }
+
+    /**
+     * Une los intervalos explícitos con los generados por la recurrencia, sin repetidos.
+     * La recurrencia avanza en la zona de la app, así el bloque conserva su hora local al cambiar de horario.
+     */
+    private List<ReservationDto.Interval> expandIntervals(ReservationDto.BulkCreateRequest req) {
+        Set<ReservationDto.Interval> intervals = new LinkedHashSet<>();
+        if (req.intervals() != null) {
+            intervals.addAll(req.intervals());
+        }
+        ReservationDto.Recurrence recurrence = req.recurrence();
+        if (recurrence != null) {
+            if (recurrence.startAt() == null || recurrence.endAt() == null || recurrence.until() == null) {
+                throw new IllegalArgumentException("La recurrencia requiere inicio, fin y fecha límite.");
+            }
+            int everyWeeks = recurrence.everyWeeks() != null ? recurrence.everyWeeks() : 1;
+            if (everyWeeks < 1) {
+                throw new IllegalArgumentException("La recurrencia debe repetirse cada 1 o más semanas.");
+            }
+            ZonedDateTime first = recurrence.startAt().withZoneSameInstant(timeService.zone());
+            Duration duration = Duration.between(recurrence.startAt(), recurrence.endAt());
+            for (int i = 0; ; i++) {
+                ZonedDateTime startAt = first.plusWeeks((long) i * everyWeeks);
+                if (startAt.toLocalDate().isAfter(recurrence.until())) {
+                    break;
+                }
+                if (intervals.size() >= MAX_BULK_OCCURRENCES) {
+                    throw new IllegalArgumentException("No se pueden crear más de " + MAX_BULK_OCCURRENCES + " reservas a la vez.");
+                }
+                intervals.add(new ReservationDto.Interval(startAt, startAt.plus(duration)));
+            }
+        }
+        return new ArrayList<>(intervals);
+    }
+
+    private static boolean overlapsAny(List<Reservation> reservations, ReservationDto.Interval interval) {
+        for (Reservation reservation : reservations) {
+            if (reservation.getStartAt().isBefore(interval.endAt()) && reservation.getEndAt().isAfter(interval.startAt())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Guarda las reservas de una creación masiva (INSERT en lotes JDBC, ver
+     * {@link bookfronterab.config.HibernateBatchConfig}) y hace flush para detectar aquí
+     * un solapamiento rechazado por la restricción de exclusión (en ese caso no se crea ninguna).
+     *
+     * @throws IllegalStateException Si la base de datos rechaza alguna reserva por solaparse con otra.
+     */
+    private void saveAllReservations(List<Reservation> reservations) {
+        try {
+            reservationRepo.saveAll(reservations);
+            reservationRepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                log.warn("Conflicto de reserva detectado por la BD durante una creación masiva de {} reservas", reservations.size());
+                metrics.rejected(ReservationMetrics.Rejection.CONFLICT);
+                throw new IllegalStateException(ROOM_ALREADY_BOOKED);
+            }
+            throw e;
+        }
+    }
+
     /**
      * ayuda para validar la lógica de negocio y disponibilidad.
      *
@@ -140,6 +413,10 @@ public class ReservationService {
      * @throws IllegalStateException Si se encuentran reservas conflictivas.
      */
     private void checkAvailability(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        if (exclusionConstraintEnabled) {
+            // La restricción de exclusión lo valida al insertar (ver saveReservation)
+            return;
+        }
         List<Reservation> conflictingReservations = reservationRepo.findConflictingReservations(
                 roomId,
                 startAt,
@@ -148,8 +425,62 @@ public class ReservationService {
 
         if (!conflictingReservations.isEmpty()) {
             log.warn("Conflicto de reserva detectado para la sala {} en el horario {} a {}", roomId, startAt, endAt);
-            throw new IllegalStateException("La sala ya está reservada en ese horario. Por favor, elige otro.");
+            metrics.rejected(ReservationMetrics.Rejection.CONFLICT);
+            throw new IllegalStateException(ROOM_ALREADY_BOOKED);
+        }
+    }
+
+    /**
+     * Busca la sala a reservar. En el modo por defecto aplica un bloqueo pesimista sobre la fila
+     * para serializar las reservas de la misma sala; con la restricción de exclusión activa no bloquea.
+     *
+     * @param roomId El ID de la sala.
+     * @return La sala encontrada.
+     * @throws IllegalArgumentException Si la sala no existe.
+     */
+    private Room findRoomForBooking(Long roomId) {
+        if (exclusionConstraintEnabled) {
+            return findRoom(roomId);
         }
+        return metrics.timeLockWait(ReservationMetrics.Lock.ROOM, () -> roomRepo.findByIdWithLock(roomId)) // Usando el bloqueo pesimista
+                .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada: " + roomId));
+    }
+
+    private Room findRoom(Long roomId) {
+        return roomRepo.findById(roomId)
+                .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada: " + roomId));
+    }
+
+    /**
+     * Guarda la reserva y fuerza el INSERT (flush): si la restricción de exclusión (migración V10) la rechaza
+     * por solaparse con otra, el error se traduce aquí al mismo de {@link #checkAvailability}. Es lo que
+     * detecta el solapamiento sin bloqueo de sala, con el modo de restricción activo o al confirmar un bloqueo tentativo.
+     *
+     * @param reservation La reserva a guardar.
+     * @return La reserva guardada.
+     * @throws IllegalStateException Si la base de datos rechaza la reserva por solaparse con otra.
+     */
+    private Reservation saveReservation(Reservation reservation) {
+        try {
+            return reservationRepo.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                log.warn("Conflicto de reserva detectado por la BD para la sala {} en el horario {} a {}",
+                        reservation.getRoom().getId(), reservation.getStartAt(), reservation.getEndAt());
+                metrics.rejected(ReservationMetrics.Rejection.CONFLICT);
+                throw new IllegalStateException(ROOM_ALREADY_BOOKED);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION_SQLSTATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -159,7 +490,7 @@ public class ReservationService {
      * @param req El DTO de creación con las fechas de inicio y fin.
      * @throws IllegalArgumentException Si las fechas son nulas, incoherentes o violan las reglas de negocio.
      */
-    private void validateReservationRequest(ReservationDto.CreateRequest req) {
+    static void validateReservationRequest(ReservationDto.CreateRequest req) {
         if (req.startAt() == null || req.endAt() == null) {
             throw new IllegalArgumentException("Las fechas de inicio y fin no pueden ser nulas.");
         }
@@ -192,118 +523,183 @@ public class ReservationService {
     }
 
     /**
-     * ayuda para sincronizar la reserva con Google Calendar.
-     * AHORA también guarda el ID del evento de Google en la reserva.
+     * Obtiene una página de las reservas vigentes (actual y futuras) de una sala, ordenadas por inicio.
      *
-     * @param user             El usuario dueño de la reserva.
-     * @param savedReservation La reserva que acaba de ser guardada.
+     * @param roomId    El ID de la sala.
+     * @param userEmail El email del usuario autenticado (debe ser admin).
+     * @param cursor    Cursor de la página anterior, o null para la primera.
+     * @param size      Tamaño de página, o null para el valor por defecto.
+     * @return La página de reservas y el cursor de la siguiente.
+     * @throws SecurityException Si el usuario no es administrador.
      */
-    private void handleGoogleCalendarSync(User user, Reservation savedReservation) {
-        try {
-            log.info("Intentando registrar reserva {} en Google Calendar para {}", savedReservation.getId(), user.getEmail());
-            Credential credential = googleCredentialsService.getCredential(user);
-
-            // 1. Creamos el evento y CAPTURAMOS el ID
-            String googleEventId = googleCalendarService.createEventForReservation(savedReservation, credential.getAccessToken());
-
-            // 2. Guardamos el ID en nuestra reserva local
-            savedReservation.setGoogleEventId(googleEventId);
-            reservationRepo.save(savedReservation); // Re-guardamos para persistir el ID
-
-            log.info("Reserva {} registrada en Google Calendar con ID: {}", savedReservation.getId(), googleEventId);
-
-        } catch (IOException e) {
-            // No fallamos la reserva si Google Calendar falla.
-            log.error("No se pudo crear el evento de Google Calendar para la reserva {}: {}", savedReservation.getId(), e.getMessage());
-        }
+    @Transactional(readOnly = true)
+    public ReservationDto.CursorPage<ReservationDto.Detail> getReservationsByRoom(Long roomId, String userEmail,
+                                                                                 String cursor, Integer size) {
+        requireAdmin(userEmail);
+        int pageSize = resolvePageSize(size);
+        ReservationCursor after = cursor != null ? ReservationCursor.decode(cursor) : FIRST_ASCENDING;
+
+        List<Reservation> rows = reservationRepo.findUpcomingPageByRoomId(
+                roomId, now(), after.startAt(), after.id(), Limit.of(pageSize + 1));
+        return toPage(rows, pageSize);
     }
+
     /**
-     * (NUEVO) Valida 1 reserva por semana laboral (Lunes-Viernes). (jose)
+     * Obtiene una página del historial (reservas terminadas) de una sala, de la más reciente a la más antigua.
+     *
+     * @param roomId    El ID de la sala.
+     * @param userEmail El email del usuario autenticado (debe ser admin).
+     * @param cursor    Cursor de la página anterior, o null para la primera.
+     * @param size      Tamaño de página, o null para el valor por defecto.
+     * @return La página de reservas y el cursor de la siguiente.
+     * @throws SecurityException Si el usuario no es administrador.
      */
-    private void validateUserWeeklyLimit(User user, ZonedDateTime reservationDate) {
-        // Inicio de semana: Lunes 00:00
-        ZonedDateTime startOfWeek = reservationDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
-                .withHour(0).withMinute(0).withSecond(0).withNano(0);
-
-        // Fin de semana laboral: VIERNES 23:59
-        ZonedDateTime endOfWeek = reservationDate.with(TemporalAdjusters.nextOrSame(DayOfWeek.FRIDAY))
-                .withHour(23).withMinute(59).withSecond(59).withNano(999999999);
-
-        long count = reservationRepo.countByUserEmailAndStartAtBetween(
-                user.getEmail(), startOfWeek, endOfWeek
-        );
-
-        if (count >= 1) {
-            log.warn("Bloqueo: Usuario {} ya tiene reserva entre el lunes {} y viernes {}.",
-                    user.getEmail(), startOfWeek.toLocalDate(), endOfWeek.toLocalDate());
-            throw new IllegalStateException("Límite alcanzado: Solo puedes realizar 1 reserva por semana laboral (Lun-Vie).");
-        }
+    @Transactional(readOnly = true)
+    public ReservationDto.CursorPage<ReservationDto.Detail> getRoomHistory(Long roomId, String userEmail,
+                                                                          String cursor, Integer size) {
+        requireAdmin(userEmail);
+        int pageSize = resolvePageSize(size);
+        ZonedDateTime now = now();
+        ReservationCursor before = cursor != null ? ReservationCursor.decode(cursor) : new ReservationCursor(now, Long.MAX_VALUE);
+
+        List<Reservation> rows = reservationRepo.findPastPageByRoomId(
+                roomId, now, before.startAt(), before.id(), Limit.of(pageSize + 1));
+        rows = continueInArchive(rows, before, pageSize, (from, limit) ->
+                archivedReservationRepo.findPageByRoomId(roomId, from.startAt(), from.id(), limit));
+        return toPage(rows, pageSize);
     }
 
     /**
-     * Obtiene todas las reservas de un usuario y las clasifica en
-     * actual, futuras y pasadas.
+     * Obtiene las reservas de un usuario clasificadas en actual, futuras y pasadas.
+     * Las pasadas incluyen solo la primera página del historial; el resto se obtiene con
+     * {@link #getMyPastReservations}.
      *
      * @param userEmail El email del usuario autenticado.
      * @return Un DTO con las listas de reservas clasificadas.
      */
-
-    @Transactional(readOnly = true)
-    public List<ReservationDto.Detail> getReservationsByRoom(Long roomId, String userEmail) {
-        User user = userRepo.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
-
-        if (user.getRol() != UserRole.ADMIN) {
-            throw new SecurityException("Acceso denegado.");
-        }
-
-        List<Reservation> reservations = reservationRepo.findByRoomIdOrderByStartAtAsc(roomId);
-
-        return reservations.stream()
-                .map(this::mapToDetailDto)
-                .toList();
-    }
     @Transactional(readOnly = true)
     public ReservationDto.MyReservationsResponse getMyReservations(String userEmail) {
-        log.info("Buscando todas las reservas para el usuario: {}", userEmail);
+        log.info("Buscando las reservas para el usuario: {}", userEmail);
 
         // Obtenemos la hora actual en la zona horaria de la app
-        ZonedDateTime now = timeService.nowOffset().toZonedDateTime();
+        ZonedDateTime now = now();
 
-        // 1. Obtenemos todas las reservas del usuario desde la BD
-        List<Reservation> allReservations = reservationRepo.findByUserEmailOrderByStartAtAsc(userEmail);
+        // 1. Reservas que aún no terminan (acotadas por la antelación máxima)
+        List<Reservation> upcoming = reservationRepo.findUpcomingByUserEmail(userEmail, now);
 
         ReservationDto.Detail currentReservation = null;
         List<ReservationDto.Detail> futureReservations = new ArrayList<>();
-        List<ReservationDto.Detail> pastReservations = new ArrayList<>();
 
-        // 3. Clasificamos cada reserva
-        for (Reservation res : allReservations) {
+        // 2. Clasificamos cada reserva
+        for (Reservation res : upcoming) {
             ReservationDto.Detail detailDto = mapToDetailDto(res);
 
             if (res.getStartAt().isAfter(now)) {
                 // Si la reserva aún no empieza = FUTURA
                 futureReservations.add(detailDto);
-            } else if (res.getEndAt().isBefore(now)) {
-                // Si la reserva ya terminó = PASADA
-                pastReservations.add(detailDto);
             } else {
-                // Si no es futura ni pasada, está ocurriendo AHORA
+                // Si ya empezó y no ha terminado, está ocurriendo AHORA
                 currentReservation = detailDto;
             }
         }
 
-        log.info("Usuario {} tiene {} reservas futuras, {} pasadas y {} actual.",
-                userEmail, futureReservations.size(), pastReservations.size(), (currentReservation != null ? 1 : 0));
+        // 3. Primera página del historial
+        ReservationDto.CursorPage<ReservationDto.Detail> past = pastPage(userEmail, now, null, DEFAULT_PAGE_SIZE);
+
+        log.info("Usuario {} tiene {} reservas futuras, {} pasadas (primera página) y {} actual.",
+                userEmail, futureReservations.size(), past.items().size(), (currentReservation != null ? 1 : 0));
 
         // 4. Devolvemos el DTO de respuesta
         return new ReservationDto.MyReservationsResponse(
                 currentReservation,
                 futureReservations,
-                pastReservations
+                past.items(),
+                past.nextCursor()
         );
     }
 
+    /**
+     * Obtiene una página del historial del usuario, de la reserva más reciente a la más antigua.
+     *
+     * @param userEmail El email del usuario autenticado.
+     * @param cursor    Cursor de la página anterior ({@code pastNextCursor} o {@code nextCursor}).
+     * @param size      Tamaño de página, o null para el valor por defecto.
+     * @return La página de reservas y el cursor de la siguiente.
+     */
+    @Transactional(readOnly = true)
+    public ReservationDto.CursorPage<ReservationDto.Detail> getMyPastReservations(String userEmail, String cursor, Integer size) {
+        return pastPage(userEmail, now(), cursor, resolvePageSize(size));
+    }
+
+    private ReservationDto.CursorPage<ReservationDto.Detail> pastPage(String userEmail, ZonedDateTime now,
+                                                                     String cursor, int pageSize) {
+        ReservationCursor before = cursor != null ? ReservationCursor.decode(cursor) : new ReservationCursor(now, Long.MAX_VALUE);
+        List<Reservation> rows = reservationRepo.findPastPageByUserEmail(
+                userEmail, now, before.startAt(), before.id(), Limit.of(pageSize + 1));
+        rows = continueInArchive(rows, before, pageSize, (from, limit) ->
+                archivedReservationRepo.findPageByUserEmail(userEmail, from.startAt(), from.id(), limit));
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Completa una página del historial con reservas archivadas cuando la tabla principal no tiene más.
+     * Las archivadas siempre empiezan antes que las vigentes (ver {@link ReservationArchiveService}),
+     * así que basta seguir en el archivo desde la última fila entregada.
+     */
+    private List<Reservation> continueInArchive(List<Reservation> rows, ReservationCursor before, int pageSize,
+                                                BiFunction<ReservationCursor, Limit, List<ArchivedReservation>> archive) {
+        if (rows.size() > pageSize) {
+            return rows;
+        }
+        ReservationCursor from = rows.isEmpty() ? before : ReservationCursor.of(rows.get(rows.size() - 1));
+        List<Reservation> merged = new ArrayList<>(rows);
+        archive.apply(from, Limit.of(pageSize + 1 - rows.size()))
+                .forEach(archived -> merged.add(archived.toReservation()));
+        return merged;
+    }
+
+    /**
+     * Arma una página a partir de {@code pageSize + 1} filas: la fila extra solo indica que hay más.
+     */
+    private ReservationDto.CursorPage<ReservationDto.Detail> toPage(List<Reservation> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Reservation> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? ReservationCursor.of(items.get(items.size() - 1)).encode() : null;
+        return new ReservationDto.CursorPage<>(items.stream().map(this::mapToDetailDto).toList(), nextCursor);
+    }
+
+    private static int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE + ".");
+        }
+        return size;
+    }
+
+    private User requireAdmin(String userEmail) {
+        UserIdentityCache.UserIdentity identity = userIdentityCache.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
+
+        if (identity.rol() != UserRole.ADMIN) {
+            throw new SecurityException("Acceso denegado.");
+        }
+        return userReference(identity);
+    }
+
+    /**
+     * Referencia JPA al usuario sin consultarlo: basta para asociarlo a una reserva
+     * y para leer su ID; el resto de sus datos se carga solo si se usa.
+     */
+    private User userReference(UserIdentityCache.UserIdentity identity) {
+        return userRepo.getReferenceById(identity.id());
+    }
+
+    private ZonedDateTime now() {
+        return timeService.nowOffset().toZonedDateTime();
+    }
+
     /**
      * Obtiene los detalles de una reserva específica por su ID.
      *
@@ -317,7 +713,7 @@ public class ReservationService {
 
         // 1. Buscar reserva por ID.
         // 2. Si no existe, lanzar NotFoundException (manejada por GlobalExceptionHandler).
-        Reservation reservation = reservationRepo.findById(id)
+        Reservation reservation = reservationRepo.findWithDetailsById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Reserva no encontrada con ID: " + id));
 
         // 3. Mapear la entidad Reservation a un ReservationDto.Detail y devolverlo.
@@ -333,6 +729,8 @@ public class ReservationService {
      * 2. O, el usuario que solicita la cancelación es un Administrador (basado en el flag `isAdmin`).
      * <p>
      * Si no se cumple ninguna, se lanza una {@link SecurityException}.
+     * <p>
+     * El intervalo liberado se ofrece a la lista de espera ({@link WaitlistService}) sin esperar la asignación.
      *
      * @param id        El ID de la reserva a cancelar.
      * @param userEmail El email del usuario autenticado que solicita la cancelación
@@ -343,47 +741,73 @@ public class ReservationService {
     public void cancel(Long id, String userEmail) {
         log.info("Intento de cancelación para reserva ID: {} por usuario: {}", id, userEmail);
 
-        // 1. Buscar la reserva por 'id'.
-        Reservation reservation = reservationRepo.findById(id)
+        // 1. Buscar la reserva por 'id', bloqueándola: si el despacho a Google Calendar está guardando
+        // el ID del evento, se espera a que termine para encolar su borrado (ver CalendarOutboxDispatcher).
+        Reservation reservation = reservationRepo.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Reserva no encontrada con ID: " + id));
         //Para que el servicio ya no pregunte si es admin y lo averigue por el solo
-        User requestor = userRepo.findByEmail(userEmail)
+        UserIdentityCache.UserIdentity requestor = userIdentityCache.findByEmail(userEmail)
                 .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
-        // 2. Verificar permisos.
-        boolean isOwner = reservation.getUser().getEmail().equals(userEmail);
-        boolean isAdmin = requestor.getRol() == UserRole.ADMIN;
+        // 2. Verificar permisos (por ID: no hace falta cargar al dueño de la reserva).
+        boolean isOwner = reservation.getUser().getId().equals(requestor.id());
+        boolean isAdmin = requestor.rol() == UserRole.ADMIN;
         if (!isOwner && !isAdmin) {
             log.warn("¡Acceso denegado! Usuario {} intentó cancelar la reserva {} (Dueño: {}) sin permisos.",
                     userEmail, id, reservation.getUser().getEmail());
             throw new SecurityException("No tienes permiso para cancelar esta reserva. Solo el dueño o un administrador pueden hacerlo.");
         }
 
-        // 3. Sincronizar con Google Calendar para borrar el evento.
-        // Verificamos si nuestra reserva tiene un ID de Google guardado.
-        if (reservation.getGoogleEventId() != null) {
-            log.info("La reserva {} tiene un evento de Google Calendar ({}). Intentando borrar...", id, reservation.getGoogleEventId());
-            try {
-                // Obtenemos las credenciales del usuario QUE HIZO la reserva
-                User owner = reservation.getUser();
-                Credential credential = googleCredentialsService.getCredential(owner);
-
-                // Llamamos al servicio de borrado
-                googleCalendarService.deleteEvent(reservation.getGoogleEventId(), credential.getAccessToken());
-
-            } catch (IOException e) {
-                // Si falla la API de Google, solo lo logueamos.
-                // NO detenemos la cancelación local.
-                log.error("No se pudo borrar el evento de Google Calendar ({}). La reserva local se borrará de todos modos. Error: {}",
-                        reservation.getGoogleEventId(), e.getMessage());
-            }
-        }
+        // 3. Encolar el borrado del evento de Google Calendar (o descartar su creación pendiente).
+        // Se envía en segundo plano con las credenciales del dueño; un fallo de Google no afecta la cancelación.
+        calendarOutboxService.enqueueDelete(reservation);
 
-        // 4. Borrar la reserva de la base de datos local.
+        // 4. Borrar la reserva de la base de datos local y liberar su cupo semanal.
         reservationRepo.delete(reservation);
+        weeklyLimitService.release(reservation.getUser(), reservation.getStartAt());
+        Long roomId = reservation.getRoom().getId();
+        ZonedDateTime startAt = reservation.getStartAt();
+        ZonedDateTime endAt = reservation.getEndAt();
+        publishOccupancyChange(roomId, startAt, endAt, false);
+        // 5. Ofrecer el intervalo liberado a la lista de espera (se asigna en segundo plano)
+        waitlistService.enqueuePromotion(roomId, startAt, endAt);
 
         log.info("Reserva {} cancelada exitosamente por {}.", id, (isAdmin && !isOwner) ? "Admin " + userEmail : userEmail);
     }
 
+    /**
+     * Tras el commit, actualiza el índice de ocupación y notifica a los clientes SSE
+     * los bloques afectados por la reserva creada o cancelada.
+     */
+    private void publishOccupancyChange(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt, boolean occupied) {
+        afterCommit(() -> {
+            if (occupied) {
+                occupancyIndex.markOccupied(roomId, startAt, endAt);
+            } else {
+                occupancyIndex.markFree(roomId, startAt, endAt);
+            }
+            availabilityStreamService.publish(roomId, startAt, endAt);
+        });
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción actual hace commit, para que el estado en memoria
+     * solo refleje cambios confirmados. Sin transacción activa se ejecuta de inmediato.
+     *
+     * @param action La acción a ejecutar.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     /**
      * Convierte una entidad {@link Reservation} a su DTO de detalle.
      *
@@ -0,0 +1,108 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.RoomDto;
+import bookfronterab.model.Room;
+import bookfronterab.repo.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copia en memoria del catálogo de salas (con su equipamiento), ya convertida a {@link RoomDto}.
+ * <p>
+ * Las salas solo cambian cuando un admin usa {@link RoomService}, que llama a {@link #refresh()}
+ * después de cada escritura; así el listado de salas y la grilla de disponibilidad no consultan
+ * la base de datos en cada petición. Cada recarga arma una instantánea nueva y la publica de una vez:
+ * los lectores nunca ven una a medio armar ni necesitan bloqueos.
+ * <p>
+ * Los DTOs se comparten entre peticiones y no deben modificarse.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomCatalog {
+
+    private final RoomRepository roomRepo;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Numera las recargas: si dos se cruzan, queda publicada la que empezó después.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Todas las salas ordenadas por ID, con todos sus datos.
+     */
+    public List<RoomDto> getRooms() {
+        return current().rooms();
+    }
+
+    /**
+     * Todas las salas ordenadas por ID, sin la imagen (la grilla de disponibilidad no la usa).
+     */
+    public List<RoomDto> getAvailabilityRooms() {
+        return current().availabilityRooms();
+    }
+
+    /**
+     * Versión de la instantánea publicada; cambia con cada recarga.
+     */
+    public long getVersion() {
+        return current().version();
+    }
+
+    /**
+     * Resumen del contenido de las salas de la grilla; forma parte del ETag. A diferencia de la versión,
+     * es el mismo en todas las instancias y no cambia si una recarga trae los mismos datos.
+     */
+    public int getContentHash() {
+        return current().availabilityRooms().hashCode();
+    }
+
+    /**
+     * Vuelve a leer las salas de la base de datos y publica la nueva instantánea.
+     * Debe llamarse después del commit de la escritura, para que la lectura ya la vea.
+     */
+    public void refresh() {
+        load();
+    }
+
+    private Snapshot current() {
+        Snapshot loaded = snapshot.get();
+        return loaded != null ? loaded : load();
+    }
+
+    private Snapshot load() {
+        long version = generation.incrementAndGet();
+        List<Room> rooms = roomRepo.findAll().stream()
+                .sorted(Comparator.comparing(Room::getId))
+                .toList();
+        Snapshot loaded = new Snapshot(version,
+                rooms.stream().map(room -> toDto(room, room.getImageUrl())).toList(),
+                rooms.stream().map(room -> toDto(room, null)).toList());
+        Snapshot published = snapshot.updateAndGet(current ->
+                current != null && current.version() > version ? current : loaded);
+        log.debug("Catálogo de salas recargado: {} salas (versión {})", rooms.size(), published.version());
+        return published;
+    }
+
+    static RoomDto toDto(Room room, String imageUrl) {
+        return RoomDto.builder()
+                .id(room.getId())
+                .name(room.getName())
+                .capacity(room.getCapacity())
+                .equipment(room.getEquipment() == null ? null : List.copyOf(room.getEquipment()))
+                .floor(room.getFloor())
+                .imageUrl(imageUrl)
+                .build();
+    }
+
+    private record Snapshot(long version, List<RoomDto> rooms, List<RoomDto> availabilityRooms) {
+    }
+}
@@ -0,0 +1,372 @@
+package bookfronterab.service;
+
+import bookfronterab.model.Reservation;
+import bookfronterab.repo.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Índice en memoria de ocupación de salas, por día y por sala.
+ * <p>
+ * Cada día se representa como un mapa {@code roomId -> long[]}, donde cada bit
+ * corresponde a un minuto del día (1440 minutos = 23 palabras de 64 bits).
+ * Un bit en 1 significa que el minuto está ocupado por alguna reserva.
+ * <p>
+ * El día se carga desde la base de datos la primera vez que se consulta y luego
+ * se mantiene actualizado desde {@link ReservationService}: una reserva creada marca sus
+ * minutos en el día en memoria y una cancelada descarta el día, que se recarga en la siguiente
+ * consulta. No se limpian bits: el fin se redondea al minuto siguiente, así que dos reservas
+ * contiguas con segundos comparten un minuto y limpiarlo liberaría parte de la otra.
+ * <p>
+ * Los arreglos de bits nunca se modifican en sitio (copy-on-write), así los lectores
+ * siempre ven una foto consistente sin necesidad de bloqueos.
+ */
+@Component
+@Slf4j
+public class RoomOccupancyIndex {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+
+    private static final int STAMP_STRIPES = 256;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final ReservationRepository reservationRepo;
+    private final TimeService timeService;
+    private final Duration ttl;
+    private final int maxDays;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<LocalDate, DayOccupancy> days = new ConcurrentHashMap<>();
+
+    /**
+     * Sellos de modificación por día, repartidos en franjas ({@code epochDay % STAMP_STRIPES}) para que su
+     * tamaño no crezca con los días. Existen aunque el día no esté en memoria: una carga toma el sello de su día
+     * antes de consultar la BD y solo se publica si sigue igual. Dos días en la misma franja comparten sello;
+     * un commit en uno solo provoca una recarga extra del otro. Un rango (hasta 3 meses) nunca repite franja.
+     */
+    private final AtomicLongArray dayStamps = new AtomicLongArray(STAMP_STRIPES);
+
+    public RoomOccupancyIndex(ReservationRepository reservationRepo,
+                              TimeService timeService,
+                              @Value("${bookfrontera.availability.index.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${bookfrontera.availability.index.max-days:200}") int maxDays) {
+        this(reservationRepo, timeService, Duration.ofSeconds(ttlSeconds), maxDays, Clock.systemUTC());
+    }
+
+    RoomOccupancyIndex(ReservationRepository reservationRepo, TimeService timeService,
+                       Duration ttl, int maxDays, Clock clock) {
+        this.reservationRepo = reservationRepo;
+        this.timeService = timeService;
+        this.ttl = ttl;
+        this.maxDays = maxDays;
+        this.clock = clock;
+    }
+
+    /**
+     * Devuelve la ocupación de todas las salas para un día, cargándola desde la BD si no está en memoria.
+     *
+     * @param date El día a consultar.
+     * @return Un mapa inmutable {@code roomId -> bits de minutos ocupados}.
+     */
+    public Map<Long, long[]> getDay(LocalDate date) {
+        return snapshot(date).rooms;
+    }
+
+    /**
+     * La consulta a la BD se hace fuera del mapa (no dentro de {@code computeIfAbsent}), para no retener
+     * el bloqueo de su segmento durante la E/S. Dos hilos pueden cargar el mismo día a la vez; queda la
+     * primera carga vigente.
+     */
+    private DayOccupancy snapshot(LocalDate date) {
+        DayOccupancy day = days.get(date);
+        if (day != null && !day.isExpired(clock.instant(), ttl)) {
+            return day;
+        }
+        for (int attempt = 1; ; attempt++) {
+            long stamp = dayStamps.get(stripe(date));
+            DayOccupancy loaded = load(date);
+            DayOccupancy published = publish(date, loaded, stamp);
+            if (published != null) {
+                evictIfNeeded();
+                return published;
+            }
+            if (attempt == MAX_LOAD_ATTEMPTS) {
+                // El día cambia más rápido de lo que se carga: se responde con la carga sin guardarla
+                log.debug("Índice de ocupación: {} cambió durante {} cargas seguidas, no se guarda", date, attempt);
+                return loaded;
+            }
+        }
+    }
+
+    /**
+     * Publica un día recién cargado si ningún commit lo modificó desde que se tomó {@code stamp}.
+     * La comparación se hace dentro de {@code compute}, atómica respecto de {@link #apply}, que incrementa
+     * el sello antes de actualizar el día: un commit posterior a la publicación se aplica sobre ella.
+     * Si otro hilo ya publicó una carga vigente, se conserva esa.
+     *
+     * @return El día publicado, o {@code null} si la carga quedó desactualizada.
+     */
+    private DayOccupancy publish(LocalDate date, DayOccupancy loaded, long stamp) {
+        return days.compute(date, (d, current) -> {
+            if (current != null && !current.isExpired(clock.instant(), ttl)) {
+                return current;
+            }
+            return dayStamps.get(stripe(date)) == stamp ? loaded : null;
+        });
+    }
+
+    private static int stripe(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay(), STAMP_STRIPES);
+    }
+
+    /**
+     * Devuelve la ocupación de cada día en {@code [from, to]} (ambos inclusive).
+     * Los días que no están en memoria se cargan con una única consulta para todo el rango.
+     *
+     * @param from Primer día del rango.
+     * @param to   Último día del rango.
+     * @return Un mapa ordenado {@code día -> (roomId -> bits de minutos ocupados)}.
+     */
+    public SortedMap<LocalDate, Map<Long, long[]>> getDays(LocalDate from, LocalDate to) {
+        Instant now = clock.instant();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DayOccupancy day = days.get(date);
+            if (day == null || day.isExpired(now, ttl)) {
+                missing.add(date);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            loadRange(missing);
+        }
+
+        SortedMap<LocalDate, Map<Long, long[]>> result = new TreeMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            result.put(date, getDay(date));
+        }
+        return result;
+    }
+
+    /**
+     * Marca como ocupado el intervalo de una reserva recién confirmada.
+     * Solo afecta a los días que ya están en memoria; el resto se cargará completo al consultarlos.
+     */
+    public void markOccupied(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        apply(roomId, startAt, endAt, true);
+    }
+
+    /**
+     * Libera el intervalo de una reserva cancelada: descarta los días que toca, que se vuelven a cargar
+     * (ya sin la reserva) la próxima vez que se consulten.
+     */
+    public void markFree(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        apply(roomId, startAt, endAt, false);
+    }
+
+    /**
+     * Descarta todo el índice. Útil si la tabla de reservas se modificó por fuera del servicio.
+     */
+    public void invalidateAll() {
+        days.clear();
+    }
+
+    /**
+     * Indica si algún minuto en {@code [fromMinute, toMinute)} está ocupado.
+     */
+    public static boolean isOccupied(long[] bits, int fromMinute, int toMinute) {
+        if (bits == null || fromMinute >= toMinute) {
+            return false;
+        }
+        int firstWord = fromMinute >>> 6;
+        int lastWord = (toMinute - 1) >>> 6;
+        for (int w = firstWord; w <= lastWord; w++) {
+            long mask = -1L;
+            if (w == firstWord) {
+                mask &= -1L << (fromMinute & 63);
+            }
+            if (w == lastWord) {
+                mask &= -1L >>> (63 - ((toMinute - 1) & 63));
+            }
+            if ((bits[w] & mask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resumen de 64 bits de una ocupación {@code roomId -> bits}, para armar ETags.
+     * Depende solo de los minutos ocupados, no del orden del mapa ni de cuándo se cargó: es el mismo
+     * en todas las instancias, tras un reinicio o una recarga. Una sala sin minutos ocupados cuenta
+     * igual que una ausente (ej. después de cancelar su única reserva).
+     */
+    public static long contentHash(Map<Long, long[]> occupancy) {
+        long hash = 0;
+        for (Map.Entry<Long, long[]> entry : occupancy.entrySet()) {
+            long roomHash = entry.getKey();
+            boolean occupied = false;
+            for (long word : entry.getValue()) {
+                roomHash = roomHash * 0x9E3779B97F4A7C15L + word;
+                occupied |= word != 0;
+            }
+            if (occupied) {
+                // Suma: no depende del orden de iteración de Map.copyOf
+                hash += mix(roomHash);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizador de SplitMix64: reparte los bits para que salas parecidas no se cancelen en la suma.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void apply(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt, boolean occupied) {
+        LocalDateTime start = startAt.withZoneSameInstant(timeService.zone()).toLocalDateTime();
+        LocalDateTime end = endAt.withZoneSameInstant(timeService.zone()).toLocalDateTime();
+
+        for (LocalDate date = start.toLocalDate(); !date.atStartOfDay().isAfter(end); date = date.plusDays(1)) {
+            int[] range = minuteRange(date, start, end);
+            if (range[0] >= range[1]) {
+                continue;
+            }
+            dayStamps.incrementAndGet(stripe(date));
+            if (occupied) {
+                days.computeIfPresent(date, (d, day) -> day.withOccupied(roomId, range[0], range[1]));
+            } else {
+                days.remove(date);
+            }
+        }
+    }
+
+    private DayOccupancy load(LocalDate date) {
+        ZonedDateTime startOfDay = date.atStartOfDay(timeService.zone());
+        ZonedDateTime endOfDay = date.plusDays(1).atStartOfDay(timeService.zone());
+
+        List<Reservation> reservations = reservationRepo.findAllReservationsBetween(startOfDay, endOfDay);
+        DayOccupancy day = build(date, reservations);
+
+        log.debug("Índice de ocupación cargado para {}: {} reservas en {} salas", date, reservations.size(), day.rooms.size());
+        return day;
+    }
+
+    /**
+     * Carga varios días con una sola consulta. Cada día se publica con su propio sello: un commit
+     * durante la consulta solo descarta los días que modificó, que se recargarán individualmente.
+     */
+    private void loadRange(List<LocalDate> dates) {
+        LocalDate first = dates.get(0);
+        LocalDate last = dates.get(dates.size() - 1);
+        long[] stamps = new long[dates.size()];
+        for (int i = 0; i < dates.size(); i++) {
+            stamps[i] = dayStamps.get(stripe(dates.get(i)));
+        }
+
+        List<Reservation> reservations = reservationRepo.findAllReservationsBetween(
+                first.atStartOfDay(timeService.zone()),
+                last.plusDays(1).atStartOfDay(timeService.zone())
+        );
+
+        int stale = 0;
+        for (int i = 0; i < dates.size(); i++) {
+            LocalDate date = dates.get(i);
+            ZonedDateTime startOfDay = date.atStartOfDay(timeService.zone());
+            ZonedDateTime endOfDay = date.plusDays(1).atStartOfDay(timeService.zone());
+            List<Reservation> dayReservations = reservations.stream()
+                    .filter(r -> r.getStartAt().isBefore(endOfDay) && r.getEndAt().isAfter(startOfDay))
+                    .toList();
+            if (publish(date, build(date, dayReservations), stamps[i]) == null) {
+                stale++;
+            }
+        }
+
+        log.debug("Índice de ocupación cargado para {} días ({} a {}): {} reservas, {} días descartados por commits concurrentes",
+                dates.size(), first, last, reservations.size(), stale);
+        evictIfNeeded();
+    }
+
+    private DayOccupancy build(LocalDate date, List<Reservation> reservations) {
+        Map<Long, long[]> rooms = new HashMap<>();
+        for (Reservation res : reservations) {
+            LocalDateTime start = res.getStartAt().withZoneSameInstant(timeService.zone()).toLocalDateTime();
+            LocalDateTime end = res.getEndAt().withZoneSameInstant(timeService.zone()).toLocalDateTime();
+            int[] range = minuteRange(date, start, end);
+            setRange(rooms.computeIfAbsent(res.getRoom().getId(), id -> new long[WORDS_PER_DAY]), range[0], range[1]);
+        }
+        return new DayOccupancy(Map.copyOf(rooms), clock.instant());
+    }
+
+    /**
+     * Recorta el intervalo al día dado y lo convierte a minutos {@code [desde, hasta)}.
+     * El fin se redondea hacia arriba para no perder ocupaciones con segundos.
+     */
+    static int[] minuteRange(LocalDate date, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        long from = Math.max(0, Duration.between(dayStart, start).toMinutes());
+        long toSeconds = Duration.between(dayStart, end).toSeconds();
+        long to = Math.min(MINUTES_PER_DAY, (toSeconds + 59) / 60);
+        return new int[]{(int) from, (int) Math.max(from, to)};
+    }
+
+    static void setRange(long[] bits, int fromMinute, int toMinute) {
+        for (int m = fromMinute; m < toMinute; m++) {
+            bits[m >>> 6] |= 1L << (m & 63);
+        }
+    }
+
+    private void evictIfNeeded() {
+        int excess = days.size() - maxDays;
+        if (excess <= 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now(timeService.zone());
+        days.keySet().stream()
+                .sorted(Comparator.comparingLong((LocalDate d) -> Math.abs(d.toEpochDay() - today.toEpochDay())).reversed())
+                .limit(excess)
+                .forEach(days::remove);
+    }
+
+    /**
+     * Foto inmutable de la ocupación de un día.
+     */
+    private record DayOccupancy(Map<Long, long[]> rooms, Instant loadedAt) {
+
+        boolean isExpired(Instant now, Duration ttl) {
+            return loadedAt.plus(ttl).isBefore(now);
+        }
+
+        DayOccupancy withOccupied(Long roomId, int fromMinute, int toMinute) {
+            long[] current = rooms.get(roomId);
+            long[] updated = current != null ? current.clone() : new long[WORDS_PER_DAY];
+            setRange(updated, fromMinute, toMinute);
+
+            Map<Long, long[]> copy = new HashMap<>(rooms);
+            copy.put(roomId, updated);
+            return new DayOccupancy(Map.copyOf(copy), loadedAt);
+        }
+    }
+}
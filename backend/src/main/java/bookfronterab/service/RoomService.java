@@ -6,7 +6,6 @@ import bookfronterab.model.Room;
 import bookfronterab.repo.RoomRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional; // <-- 1. IMPORTA ESTO
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -17,18 +16,17 @@ public class RoomService {
 
     private final RoomRepository roomRepo;
     private final CloudinaryService cloudinaryService;
+    /**
+     * Catálogo de salas en memoria; se recarga después de cada escritura de este servicio.
+     */
+    private final RoomCatalog roomCatalog;
 
     /**
-     * Obtiene todas las salas y las convierte a DTOs.
+     * Obtiene todas las salas como DTOs, desde el catálogo en memoria (sin consultar la BD).
      */
-    // <-- 2. AÑADE ESTA LÍNEA
-    @Transactional(readOnly = true) 
     public List<RoomDto> getAllRooms() {
-        return roomRepo.findAll()
-                .stream()
-                .map(this::mapToDto) // Ahora la sesión sigue abierta aquí
-                .toList();
-    } // <-- La sesión se cierra aquí (después del mapeo)
+        return roomCatalog.getRooms();
+    }
 
     public RoomDto createRoom(RoomDto roomDto, MultipartFile imageFile) {
         String imageUrl = null;
@@ -52,11 +50,13 @@ public class RoomService {
                 .build();
 
         room = roomRepo.save(room);
+        roomCatalog.refresh();
         return mapToDto(room); // Asegúrate que mapToDto incluya el imageUrl de vuelta
     }
 
     public void delateRoom(Long roomId) {
         roomRepo.deleteById(roomId);
+        roomCatalog.refresh();
     }
 
     public RoomDto patchRoom(Long id, RoomDto roomDto, MultipartFile imageFile) {
@@ -85,6 +85,7 @@ public class RoomService {
         }
 
         Room updateRoom = roomRepo.save(existingRoom);
+        roomCatalog.refresh();
         return mapToDto(updateRoom);
     }
 
@@ -98,6 +99,7 @@ public class RoomService {
         existingRoom.setFloor(roomDto.getFloor());
 
         Room updateRoom = roomRepo.save(existingRoom);
+        roomCatalog.refresh();
         return mapToDto(updateRoom);
     }
 
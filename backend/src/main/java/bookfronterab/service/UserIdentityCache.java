@@ -0,0 +1,103 @@
+package bookfronterab.service;
+
+import bookfronterab.model.User;
+import bookfronterab.model.UserRole;
+import bookfronterab.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché acotada (tamaño y TTL) de la identidad y el rol de los usuarios, por email.
+ * <p>
+ * Casi toda petición autenticada busca al usuario por email para revisar su rol o si es dueño
+ * de una reserva; con esta caché esas revisiones no van a PostgreSQL. Solo guarda datos de
+ * identidad (nunca los tokens de Google) y no guarda búsquedas sin resultado, así un usuario
+ * recién creado se encuentra de inmediato.
+ * <p>
+ * Se invalida con {@link #evict(String)} cuando cambian el rol o los datos de login del usuario;
+ * el TTL acota lo que dura un cambio hecho por fuera de la aplicación.
+ * Publica {@code cache.gets} (hit/miss), {@code cache.evictions} y {@code cache.size} con
+ * {@code cache=users.identity} en cualquier {@link MeterRegistry} del contexto.
+ */
+@Service
+public class UserIdentityCache implements MeterBinder {
+
+    static final String CACHE_NAME = "users.identity";
+
+    private final UserRepository userRepo;
+    private final Cache<String, UserIdentity> cache;
+
+    public UserIdentityCache(UserRepository userRepo,
+                             @Value("${bookfrontera.users.cache.max-size:10000}") long maxSize,
+                             @Value("${bookfrontera.users.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepo = userRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Busca la identidad del usuario, primero en la caché y si no en la base de datos.
+     *
+     * @param email El email del usuario.
+     * @return La identidad, o vacío si el usuario no existe.
+     */
+    public Optional<UserIdentity> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(email, key -> userRepo.findByEmail(key).map(UserIdentity::of).orElse(null)));
+    }
+
+    /**
+     * Quita al usuario de la caché. Dentro de una transacción lo vuelve a quitar tras el commit,
+     * para que una lectura concurrente no deje guardado el valor anterior al cambio.
+     *
+     * @param email El email del usuario modificado.
+     */
+    public void evict(String email) {
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Vacía la caché (ej. tras borrar usuarios directamente en la base de datos).
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Copia inmutable de los datos de identidad de un {@link User}.
+     */
+    public record UserIdentity(Long id, String email, String nombre, UserRole rol) {
+
+        public static UserIdentity of(User user) {
+            return new UserIdentity(user.getId(), user.getEmail(), user.getNombre(), user.getRol());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.User;
+import bookfronterab.model.WaitlistEntry;
+import bookfronterab.model.WaitlistPromotion;
+import bookfronterab.repo.UserRepository;
+import bookfronterab.repo.WaitlistPromotionRepository;
+import bookfronterab.repo.WaitlistRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Asigna en segundo plano los intervalos liberados por cancelaciones a la lista de espera.
+ * <p>
+ * Por cada intervalo encolado ({@link WaitlistPromotion}) recorre las entradas que se solapan,
+ * en orden de llegada, e intenta crear la reserva con {@link ReservationService#create}: así se
+ * aplican las mismas reglas que a una reserva manual (disponibilidad, bloqueos tentativos y límite
+ * semanal). Cada intento usa su propia transacción; si un candidato no cumple (ej. ya alcanzó su
+ * límite semanal) conserva su lugar y se prueba el siguiente.
+ * <p>
+ * El intervalo solo se elimina de la cola cuando todos sus candidatos se procesaron. Si alguno
+ * falla por un error inesperado (ej. de la BD), igual se prueban los demás y el intervalo se
+ * conserva para el siguiente ciclo, hasta {@code maxAttempts} intentos.
+ * <p>
+ * Igual que {@link bookfronterab.service.google.CalendarOutboxDispatcher}, pensado para una sola
+ * instancia del backend: no reclama filas entre nodos.
+ */
+@Service
+@Slf4j
+public class WaitlistPromotionWorker {
+
+    private final WaitlistPromotionRepository promotionRepo;
+    private final WaitlistRepository waitlistRepo;
+    private final UserRepository userRepo;
+    private final ReservationService reservationService;
+    private final TimeService timeService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public WaitlistPromotionWorker(WaitlistPromotionRepository promotionRepo,
+                                   WaitlistRepository waitlistRepo,
+                                   UserRepository userRepo,
+                                   ReservationService reservationService,
+                                   TimeService timeService,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${bookfrontera.waitlist.batch-size:50}") int batchSize,
+                                   @Value("${bookfrontera.waitlist.max-attempts:5}") int maxAttempts) {
+        this.promotionRepo = promotionRepo;
+        this.waitlistRepo = waitlistRepo;
+        this.userRepo = userRepo;
+        this.reservationService = reservationService;
+        this.timeService = timeService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Procesa un lote de intervalos liberados, en orden de llegada.
+     *
+     * @return Cantidad de intervalos procesados.
+     */
+    @Scheduled(fixedDelayString = "${bookfrontera.waitlist.poll-ms:2000}")
+    public int promotePending() {
+        List<WaitlistPromotion> due = promotionRepo.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        for (WaitlistPromotion promotion : due) {
+            boolean completed;
+            try {
+                completed = process(promotion);
+            } catch (RuntimeException e) {
+                log.error("Error inesperado promoviendo la lista de espera de la sala {}", promotion.getRoomId(), e);
+                completed = false;
+            }
+            if (completed) {
+                promotionRepo.deleteById(promotion.getId());
+            } else {
+                retryLater(promotion);
+            }
+        }
+        return due.size();
+    }
+
+    /**
+     * Ofrece el intervalo a sus candidatos.
+     *
+     * @return false si algún candidato falló por un error inesperado y el intervalo se debe reintentar.
+     */
+    private boolean process(WaitlistPromotion promotion) {
+        List<WaitlistEntry> candidates = waitlistRepo.findCandidates(promotion.getRoomId(), promotion.getStartAt(),
+                promotion.getEndAt(), timeService.nowOffset().toZonedDateTime());
+        // Un intervalo liberado puede alcanzar para varias entradas que no se solapan entre sí
+        List<WaitlistEntry> promoted = new ArrayList<>();
+        boolean completed = true;
+        for (WaitlistEntry candidate : candidates) {
+            if (promoted.stream().anyMatch(p -> overlaps(p, candidate))) {
+                continue;
+            }
+            try {
+                if (promote(candidate)) {
+                    promoted.add(candidate);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error inesperado asignando la entrada {} de la lista de espera", candidate.getId(), e);
+                completed = false;
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Conserva el intervalo para el siguiente ciclo, o lo descarta si ya agotó sus intentos.
+     * Reintentarlo es seguro: las entradas ya asignadas salieron de la lista en la misma transacción
+     * que creó su reserva.
+     */
+    private void retryLater(WaitlistPromotion promotion) {
+        int attempts = promotion.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            log.error("Se descarta el intervalo liberado de la sala {} ({} a {}) tras {} intentos fallidos",
+                    promotion.getRoomId(), promotion.getStartAt(), promotion.getEndAt(), attempts);
+            promotionRepo.deleteById(promotion.getId());
+            return;
+        }
+        promotion.setAttempts(attempts);
+        promotionRepo.save(promotion);
+    }
+
+    /**
+     * Intenta convertir una entrada en reserva; si lo logra, la entrada sale de la lista.
+     *
+     * @return true si se creó la reserva.
+     */
+    private boolean promote(WaitlistEntry entry) {
+        User user = userRepo.findById(entry.getUserId()).orElse(null);
+        if (user == null) {
+            log.info("El usuario {} ya no existe; se descarta su entrada {} de la lista de espera", entry.getUserId(), entry.getId());
+            waitlistRepo.deleteById(entry.getId());
+            return false;
+        }
+        ReservationDto.CreateRequest request = new ReservationDto.CreateRequest(
+                entry.getRoomId(), entry.getStartAt(), entry.getEndAt(), entry.isAddToGoogleCalendar());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                reservationService.create(user.getEmail(), request);
+                waitlistRepo.deleteById(entry.getId());
+            });
+        } catch (IllegalStateException e) {
+            // Sigue ocupado, bloqueado por otro o el usuario alcanzó su límite semanal: conserva su lugar
+            log.info("La entrada {} de {} no se pudo asignar: {}", entry.getId(), user.getEmail(), e.getMessage());
+            return false;
+        } catch (IllegalArgumentException e) {
+            // No cumple las reglas de reserva (ej. la sala ya no existe): nunca se podrá asignar
+            log.warn("Se descarta la entrada {} de {}: {}", entry.getId(), user.getEmail(), e.getMessage());
+            waitlistRepo.deleteById(entry.getId());
+            return false;
+        }
+        log.info("Sala {} ({} a {}) asignada desde la lista de espera a {}",
+                entry.getRoomId(), entry.getStartAt(), entry.getEndAt(), user.getEmail());
+        return true;
+    }
+
+    private static boolean overlaps(WaitlistEntry a, WaitlistEntry b) {
+        return a.getStartAt().isBefore(b.getEndAt()) && a.getEndAt().isAfter(b.getStartAt());
+    }
+}
@@ -0,0 +1,164 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.Reservation;
+import bookfronterab.model.User;
+import bookfronterab.model.WaitlistEntry;
+import bookfronterab.model.WaitlistPromotion;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.RoomRepository;
+import bookfronterab.repo.UserRepository;
+import bookfronterab.repo.WaitlistPromotionRepository;
+import bookfronterab.repo.WaitlistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Lista de espera por sala e intervalo.
+ * <p>
+ * Un usuario se anota en un intervalo ya reservado; cuando una cancelación lo libera, la cancelación
+ * solo encola el intervalo ({@link #enqueuePromotion}) y {@link WaitlistPromotionWorker} se lo asigna
+ * en segundo plano al primero de la lista que cumpla las reglas de reserva (incluido el límite semanal).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistService {
+
+    /**
+     * Máximo de intervalos futuros en los que un usuario puede esperar a la vez.
+     */
+    static final int MAX_ENTRIES_PER_USER = 5;
+
+    private final WaitlistRepository waitlistRepo;
+    private final WaitlistPromotionRepository promotionRepo;
+    private final ReservationRepository reservationRepo;
+    private final RoomRepository roomRepo;
+    private final UserRepository userRepo;
+    private final ReservationHoldIndex holdIndex;
+    private final TimeService timeService;
+
+    /**
+     * Anota al usuario en la lista de espera de un intervalo.
+     *
+     * @param userEmail El email del usuario autenticado.
+     * @param req       La sala y el intervalo (mismas reglas que una reserva).
+     * @return La entrada creada, con su posición en la cola.
+     * @throws IllegalArgumentException Si las fechas no cumplen las reglas o la sala no existe.
+     * @throws IllegalStateException    Si el intervalo está libre, ya es del usuario, ya está anotado
+     *                                  o alcanzó el máximo de entradas.
+     */
+    @Transactional
+    public ReservationDto.WaitlistResponse join(String userEmail, ReservationDto.WaitlistRequest req) {
+        ReservationService.validateReservationRequest(
+                new ReservationDto.CreateRequest(req.roomId(), req.startAt(), req.endAt(), req.addToGoogleCalendar()));
+        User user = userRepo.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado: " + userEmail));
+        if (!roomRepo.existsById(req.roomId())) {
+            throw new IllegalArgumentException("Sala no encontrada: " + req.roomId());
+        }
+
+        List<Reservation> conflicts = reservationRepo.findConflictingReservations(req.roomId(), req.startAt(), req.endAt());
+        boolean held = holdIndex.findActiveByOthers(req.roomId(), user.getId(), req.startAt(), req.endAt(),
+                timeService.nowOffset()).isPresent();
+        if (conflicts.isEmpty() && !held) {
+            throw new IllegalStateException("El horario está disponible. Puedes reservarlo directamente.");
+        }
+        if (!conflicts.isEmpty() && conflicts.stream().allMatch(r -> r.getUser().getId().equals(user.getId()))) {
+            throw new IllegalStateException("Ya tienes reservado ese horario.");
+        }
+        if (waitlistRepo.existsByUserIdAndRoomIdAndStartAtAndEndAt(user.getId(), req.roomId(), req.startAt(), req.endAt())) {
+            throw new IllegalStateException("Ya estás en la lista de espera de ese horario.");
+        }
+        if (waitlistRepo.countByUserIdAndStartAtAfter(user.getId(), now()) >= MAX_ENTRIES_PER_USER) {
+            throw new IllegalStateException("Puedes estar en la lista de espera de máximo " + MAX_ENTRIES_PER_USER + " horarios a la vez.");
+        }
+
+        WaitlistEntry entry = waitlistRepo.save(WaitlistEntry.builder()
+                .roomId(req.roomId())
+                .userId(user.getId())
+                .startAt(req.startAt())
+                .endAt(req.endAt())
+                .addToGoogleCalendar(req.addToGoogleCalendar())
+                .createdAt(timeService.nowOffset())
+                .build());
+        log.info("Usuario {} anotado en la lista de espera de la sala {} ({} a {})",
+                userEmail, req.roomId(), req.startAt(), req.endAt());
+        return toResponse(entry);
+    }
+
+    /**
+     * Saca al usuario de la lista de espera de un intervalo.
+     *
+     * @throws IllegalArgumentException Si la entrada no existe.
+     * @throws SecurityException        Si la entrada es de otro usuario.
+     */
+    @Transactional
+    public void leave(Long entryId, String userEmail) {
+        User user = userRepo.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado: " + userEmail));
+        WaitlistEntry entry = waitlistRepo.findById(entryId)
+                .orElseThrow(() -> new IllegalArgumentException("Entrada de lista de espera no encontrada con ID: " + entryId));
+        if (!entry.getUserId().equals(user.getId())) {
+            throw new SecurityException("No puedes quitar a otro usuario de la lista de espera.");
+        }
+        waitlistRepo.delete(entry);
+        log.info("Usuario {} salió de la lista de espera {}", userEmail, entryId);
+    }
+
+    /**
+     * Obtiene las entradas vigentes (intervalos que aún no comienzan) del usuario, con su posición.
+     */
+    @Transactional(readOnly = true)
+    public List<ReservationDto.WaitlistResponse> getMine(String userEmail) {
+        User user = userRepo.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado: " + userEmail));
+        return waitlistRepo.findByUserIdAndStartAtAfterOrderByStartAt(user.getId(), now()).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Encola un intervalo liberado para ofrecerlo a la lista de espera. Debe llamarse dentro de la
+     * transacción de la cancelación: solo cuesta un INSERT y, si la cancelación hace rollback,
+     * el intervalo no queda encolado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueuePromotion(Long roomId, ZonedDateTime startAt, ZonedDateTime endAt) {
+        promotionRepo.save(WaitlistPromotion.builder()
+                .roomId(roomId)
+                .startAt(startAt)
+                .endAt(endAt)
+                .createdAt(timeService.nowOffset())
+                .build());
+    }
+
+    /**
+     * Elimina las entradas de intervalos que ya comenzaron: ya no se pueden asignar.
+     */
+    @Scheduled(fixedDelayString = "${bookfrontera.waitlist.purge-ms:3600000}")
+    @Transactional
+    public void purgeStarted() {
+        int deleted = waitlistRepo.deleteStarted(now());
+        if (deleted > 0) {
+            log.info("{} entradas vencidas eliminadas de la lista de espera", deleted);
+        }
+    }
+
+    private ReservationDto.WaitlistResponse toResponse(WaitlistEntry entry) {
+        long ahead = waitlistRepo.countAhead(entry.getRoomId(), entry.getStartAt(), entry.getEndAt(), entry.getId());
+        return new ReservationDto.WaitlistResponse(entry.getId(), entry.getRoomId(), entry.getStartAt(), entry.getEndAt(),
+                ahead + 1, entry.getCreatedAt());
+    }
+
+    private ZonedDateTime now() {
+        return timeService.nowOffset().toZonedDateTime();
+    }
+}
@@ -0,0 +1,135 @@
+package bookfronterab.service;
+
+import bookfronterab.model.User;
+import bookfronterab.repo.ReservationWeekCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Límite de reservas por semana laboral (lunes a viernes) de los estudiantes, con contadores por
+ * {@code (usuario, semana ISO)}. Una reserva de sábado o domingo cuenta en la semana laboral siguiente
+ * (igual que la validación original, que para el fin de semana revisaba hasta el viernes siguiente):
+ * el contador de una semana cubre desde el sábado anterior hasta su viernes.
+ * <p>
+ * En lugar de contar las reservas de la semana (y competir con otra reserva concurrente del mismo
+ * usuario en otra sala, que el bloqueo por sala no serializa), se suma al contador con un UPDATE
+ * condicional: la fila queda bloqueada hasta el commit y la segunda transacción ve el valor ya sumado.
+ * <p>
+ * Todos los métodos deben ejecutarse dentro de la transacción que crea o cancela la reserva.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WeeklyLimitService {
+
+    static final int MAX_RESERVATIONS_PER_WEEK = 1;
+
+    private final ReservationWeekCounterRepository counterRepo;
+    private final TimeService timeService;
+    private final ReservationMetrics metrics;
+
+    /**
+     * Reserva un cupo de la semana laboral en la que cuenta {@code startAt} para el usuario.
+     *
+     * @throws IllegalStateException Si el usuario ya alcanzó el límite de esa semana.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquire(User user, ZonedDateTime startAt) {
+        int week = initialize(user, startAt);
+        // El UPDATE espera si otra transacción del mismo usuario tiene bloqueada la fila del contador
+        int updated = metrics.timeLockWait(ReservationMetrics.Lock.WEEKLY_COUNTER,
+                () -> counterRepo.incrementIfBelow(user.getId(), week, MAX_RESERVATIONS_PER_WEEK));
+        if (updated == 0) {
+            log.warn("Bloqueo: Usuario {} ya tiene reserva en la semana {}.", user.getEmail(), week);
+            metrics.rejected(ReservationMetrics.Rejection.WEEKLY_LIMIT);
+            throw new IllegalStateException("Límite alcanzado: Solo puedes realizar 1 reserva por semana laboral (Lun-Vie).");
+        }
+    }
+
+    /**
+     * Registra una reserva que no está sujeta al límite (administradores o reservas en nombre de otro),
+     * para que el contador siga reflejando todas las reservas del usuario.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(User user, ZonedDateTime startAt) {
+        int week = initialize(user, startAt);
+        metrics.timeLockWait(ReservationMetrics.Lock.WEEKLY_COUNTER, () -> counterRepo.increment(user.getId(), week, 1));
+    }
+
+    /**
+     * Igual que {@link #record}, para varias reservas a la vez: un solo UPDATE por semana involucrada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(User user, Collection<ZonedDateTime> startAts) {
+        Map<ZonedDateTime, Integer> perWeek = new TreeMap<>();
+        startAts.forEach(startAt -> perWeek.merge(weekStart(startAt), 1, Integer::sum));
+        perWeek.forEach((weekStart, reservations) ->
+                counterRepo.increment(user.getId(), initialize(user, weekStart), reservations));
+    }
+
+    /**
+     * Libera el cupo de una reserva cancelada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(User user, ZonedDateTime startAt) {
+        counterRepo.decrement(user.getId(), isoWeek(weekStart(startAt)));
+    }
+
+    /**
+     * Elimina los contadores de las semanas anteriores a {@code before}.
+     *
+     * @return La cantidad de contadores eliminados.
+     */
+    @Transactional
+    public int deleteOlderThan(ZonedDateTime before) {
+        return counterRepo.deleteOlderThan(isoWeek(before));
+    }
+
+    /**
+     * Crea el contador de la semana laboral si no existe (con las reservas ya guardadas desde el sábado
+     * anterior hasta el viernes) y devuelve su semana ISO.
+     */
+    private int initialize(User user, ZonedDateTime startAt) {
+        ZonedDateTime weekStart = weekStart(startAt);
+        ZoneId zone = timeService.zone();
+        // Sábado anterior 00:00 a sábado 00:00: incluye el fin de semana que cuenta en esta semana
+        ZonedDateTime countFrom = weekStart.toLocalDate().minusDays(2).atStartOfDay(zone);
+        ZonedDateTime countTo = weekStart.toLocalDate().with(DayOfWeek.SATURDAY).atStartOfDay(zone);
+
+        int week = isoWeek(weekStart);
+        counterRepo.initialize(user.getId(), week, countFrom, countTo);
+        return week;
+    }
+
+    /**
+     * Inicio (lunes 00:00) de la semana laboral en la que cuenta un instante, en la zona de la app:
+     * la de su lunes si cae de lunes a viernes, o la siguiente si cae en fin de semana.
+     */
+    private ZonedDateTime weekStart(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(timeService.zone()).toLocalDate()
+                .plusDays(2) // sábado y domingo pasan a la semana siguiente
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .atStartOfDay(timeService.zone());
+    }
+
+    /**
+     * Semana ISO de un instante en la zona de la app, como {@code año * 100 + semana} (ej. 202541).
+     */
+    int isoWeek(ZonedDateTime dateTime) {
+        LocalDate date = dateTime.withZoneSameInstant(timeService.zone()).toLocalDate();
+        return date.get(IsoFields.WEEK_BASED_YEAR) * 100 + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    }
+}
@@ -0,0 +1,300 @@
+package bookfronterab.service.google;
+
+import bookfronterab.model.CalendarOutboxEvent;
+import bookfronterab.model.CalendarOutboxOperation;
+import bookfronterab.model.CalendarOutboxStatus;
+import bookfronterab.model.Reservation;
+import bookfronterab.model.User;
+import bookfronterab.repo.CalendarOutboxRepository;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.UserRepository;
+import bookfronterab.service.TimeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Procesa en segundo plano el outbox de Google Calendar.
+ * <p>
+ * Cada ciclo toma un lote de eventos pendientes, los agrupa por usuario y operación, y reparte
+ * los grupos en un pool acotado de hilos; cada grupo usa una sola credencial y peticiones batch.
+ * Las llamadas HTTP a Google se hacen fuera de cualquier transacción; solo la lectura de la
+ * reserva y la escritura del resultado usan transacciones cortas. Si la llamada falla, el
+ * evento se reintenta con backoff exponencial hasta {@code maxAttempts}, y luego queda en
+ * {@link CalendarOutboxStatus#FAILED}.
+ * <p>
+ * Pensado para una sola instancia del backend: no reclama filas entre nodos.
+ */
+@Service
+@Slf4j
+public class CalendarOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final CalendarOutboxRepository outboxRepo;
+    private final ReservationRepository reservationRepo;
+    private final UserRepository userRepo;
+    private final GoogleCalendarService googleCalendarService;
+    private final GoogleCredentialsService googleCredentialsService;
+    private final TimeService timeService;
+    private final TransactionTemplate transactionTemplate;
+    private final CalendarOutboxService calendarOutboxService;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final ExecutorService workers;
+
+    public CalendarOutboxDispatcher(CalendarOutboxRepository outboxRepo,
+                                    ReservationRepository reservationRepo,
+                                    UserRepository userRepo,
+                                    GoogleCalendarService googleCalendarService,
+                                    GoogleCredentialsService googleCredentialsService,
+                                    TimeService timeService,
+                                    TransactionTemplate transactionTemplate,
+                                    CalendarOutboxService calendarOutboxService,
+                                    @Value("${bookfrontera.calendar-outbox.batch-size:50}") int batchSize,
+                                    @Value("${bookfrontera.calendar-outbox.workers:4}") int workers,
+                                    @Value("${bookfrontera.calendar-outbox.max-attempts:8}") int maxAttempts,
+                                    @Value("${bookfrontera.calendar-outbox.backoff-seconds:5}") long backoffSeconds,
+                                    @Value("${bookfrontera.calendar-outbox.max-backoff-minutes:60}") long maxBackoffMinutes) {
+        this.outboxRepo = outboxRepo;
+        this.reservationRepo = reservationRepo;
+        this.userRepo = userRepo;
+        this.googleCalendarService = googleCalendarService;
+        this.googleCredentialsService = googleCredentialsService;
+        this.timeService = timeService;
+        this.transactionTemplate = transactionTemplate;
+        this.calendarOutboxService = calendarOutboxService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(backoffSeconds);
+        this.maxBackoff = Duration.ofMinutes(maxBackoffMinutes);
+        this.workers = Executors.newFixedThreadPool(workers,
+                Thread.ofPlatform().name("calendar-outbox-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Toma un lote de eventos vencidos y los procesa en el pool de hilos.
+     * Espera a que termine el lote antes de volver, así dos ciclos nunca procesan el mismo evento.
+     *
+     * @return Cantidad de eventos procesados (con o sin éxito).
+     */
+    @Scheduled(fixedDelayString = "${bookfrontera.calendar-outbox.poll-ms:2000}")
+    public int dispatchPending() {
+        List<CalendarOutboxEvent> due = outboxRepo.findDue(
+                CalendarOutboxStatus.PENDING, timeService.nowOffset(), PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        // Un grupo por usuario y operación: comparte credencial y viaja en peticiones batch
+        Map<GroupKey, List<CalendarOutboxEvent>> groups = due.stream().collect(Collectors.groupingBy(
+                event -> new GroupKey(event.getUserId(), event.getOperation()), LinkedHashMap::new, Collectors.toList()));
+
+        List<Future<?>> running = new ArrayList<>(groups.size());
+        for (List<CalendarOutboxEvent> group : groups.values()) {
+            running.add(workers.submit(() -> processGroup(group)));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.error("Error inesperado procesando el outbox de Google Calendar", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return due.size();
+    }
+
+    /**
+     * Ejecuta un evento del outbox. Si la llamada a Google falla, programa un reintento.
+     *
+     * @param eventId El ID del evento a procesar.
+     */
+    public void process(Long eventId) {
+        outboxRepo.findById(eventId)
+                .filter(event -> event.getStatus() == CalendarOutboxStatus.PENDING)
+                .ifPresent(event -> processGroup(List.of(event)));
+    }
+
+    /**
+     * Procesa eventos de un mismo usuario y operación.
+     */
+    private void processGroup(List<CalendarOutboxEvent> events) {
+        if (events.get(0).getOperation() == CalendarOutboxOperation.CREATE) {
+            processCreates(events);
+        } else {
+            processDeletes(events);
+        }
+    }
+
+    private void processCreates(List<CalendarOutboxEvent> events) {
+        Map<Long, CalendarOutboxEvent> byReservation = new LinkedHashMap<>();
+        List<Long> discarded = new ArrayList<>();
+        for (CalendarOutboxEvent event : events) {
+            if (byReservation.putIfAbsent(event.getReservationId(), event) != null) {
+                discarded.add(event.getId()); // CREATE duplicado para la misma reserva
+            }
+        }
+
+        List<Reservation> toSend = transactionTemplate.execute(status -> {
+            List<Reservation> pending = new ArrayList<>();
+            for (Reservation found : reservationRepo.findAllById(byReservation.keySet())) {
+                if (found.getGoogleEventId() != null) {
+                    continue; // ya sincronizada
+                }
+                // Se inicializan aquí porque la llamada a Google ocurre fuera de la transacción
+                Hibernate.initialize(found.getRoom());
+                Hibernate.initialize(found.getUser());
+                pending.add(found);
+            }
+            return pending;
+        });
+
+        Set<Long> toSendIds = toSend.stream().map(Reservation::getId).collect(Collectors.toSet());
+        byReservation.forEach((reservationId, event) -> {
+            if (!toSendIds.contains(reservationId)) {
+                log.info("La reserva {} ya no existe o ya está sincronizada; se omite su creación en Google Calendar", reservationId);
+                discarded.add(event.getId());
+            }
+        });
+        discarded.forEach(outboxRepo::deleteById);
+        if (toSend.isEmpty()) {
+            return;
+        }
+
+        String accessToken;
+        Map<Long, GoogleCalendarService.BatchItemResult> results;
+        try {
+            accessToken = googleCredentialsService.getCredential(toSend.get(0).getUser()).getAccessToken();
+            results = googleCalendarService.createEventsForReservations(toSend, accessToken);
+        } catch (IOException | RuntimeException e) {
+            toSend.forEach(reservation -> scheduleRetry(byReservation.get(reservation.getId()), e.getMessage()));
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Con la fila bloqueada, una cancelación concurrente ya terminó (la reserva no aparece y se borra
+            // el evento) o espera a este commit y encola el borrado con el ID guardado: nunca queda huérfano.
+            Map<Long, Reservation> current = reservationRepo.findAllByIdForUpdate(toSendIds).stream()
+                    .collect(Collectors.toMap(Reservation::getId, reservation -> reservation));
+            for (Reservation reservation : toSend) {
+                CalendarOutboxEvent event = byReservation.get(reservation.getId());
+                GoogleCalendarService.BatchItemResult result = results.get(reservation.getId());
+                if (result == null || !result.isSuccess()) {
+                    scheduleRetry(event, result == null ? "Sin respuesta de Google Calendar" : result.error());
+                    continue;
+                }
+                outboxRepo.deleteById(event.getId());
+                Reservation stillBooked = current.get(reservation.getId());
+                if (stillBooked != null) {
+                    stillBooked.setGoogleEventId(result.googleEventId());
+                    reservationRepo.save(stillBooked);
+                    log.info("Reserva {} registrada en Google Calendar con ID: {}", reservation.getId(), result.googleEventId());
+                } else {
+                    // La reserva se canceló mientras se creaba el evento: no debe quedar huérfano
+                    log.info("La reserva {} se canceló durante la sincronización; se encola el borrado del evento {}",
+                            reservation.getId(), result.googleEventId());
+                    calendarOutboxService.enqueueDelete(reservation.getId(), event.getUserId(), result.googleEventId());
+                }
+            }
+        });
+    }
+
+    private void processDeletes(List<CalendarOutboxEvent> events) {
+        Long userId = events.get(0).getUserId();
+        User owner = userRepo.findById(userId).orElse(null);
+        if (owner == null) {
+            log.warn("El usuario {} ya no existe; se omite el borrado de {} eventos", userId, events.size());
+            events.forEach(event -> outboxRepo.deleteById(event.getId()));
+            return;
+        }
+
+        Map<String, GoogleCalendarService.BatchItemResult> results;
+        try {
+            String accessToken = googleCredentialsService.getCredential(owner).getAccessToken();
+            List<String> googleEventIds = events.stream().map(CalendarOutboxEvent::getGoogleEventId).distinct().toList();
+            results = googleCalendarService.deleteEvents(googleEventIds, accessToken);
+        } catch (IOException | RuntimeException e) {
+            events.forEach(event -> scheduleRetry(event, e.getMessage()));
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CalendarOutboxEvent event : events) {
+                GoogleCalendarService.BatchItemResult result = results.get(event.getGoogleEventId());
+                if (result != null && result.isSuccess()) {
+                    outboxRepo.deleteById(event.getId());
+                } else {
+                    scheduleRetry(event, result == null ? "Sin respuesta de Google Calendar" : result.error());
+                }
+            }
+        });
+    }
+
+    private void scheduleRetry(CalendarOutboxEvent event, String error) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(error));
+        if (attempts >= maxAttempts) {
+            event.setStatus(CalendarOutboxStatus.FAILED);
+            log.error("Operación {} de Google Calendar (reserva {}) descartada tras {} intentos: {}",
+                    event.getOperation(), event.getReservationId(), attempts, error);
+        } else {
+            Duration delay = backoff(attempts);
+            event.setNextAttemptAt(timeService.nowOffset().plus(delay));
+            log.warn("Operación {} de Google Calendar (reserva {}) falló (intento {}), reintento en {}s: {}",
+                    event.getOperation(), event.getReservationId(), attempts, delay.toSeconds(), error);
+        }
+        outboxRepo.save(event);
+    }
+
+    /**
+     * Clave de agrupación: mismo usuario (credencial) y misma operación.
+     */
+    private record GroupKey(Long userId, CalendarOutboxOperation operation) {
+    }
+
+    /**
+     * Backoff exponencial: {@code base * 2^(intento-1)}, con tope en {@code maxBackoff}.
+     */
+    Duration backoff(int attempts) {
+        int exponent = Math.min(attempts - 1, 30);
+        Duration delay = baseBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package bookfronterab.service.google;
+
+import bookfronterab.model.CalendarOutboxEvent;
+import bookfronterab.model.CalendarOutboxOperation;
+import bookfronterab.model.CalendarOutboxStatus;
+import bookfronterab.model.Reservation;
+import bookfronterab.repo.CalendarOutboxRepository;
+import bookfronterab.service.TimeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Encola las operaciones de Google Calendar en el outbox ({@link CalendarOutboxEvent}).
+ * <p>
+ * Debe llamarse dentro de la transacción de la reserva: si la reserva hace rollback,
+ * la operación tampoco queda registrada. El envío real lo hace {@link CalendarOutboxDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarOutboxService {
+
+    private final CalendarOutboxRepository outboxRepo;
+    private final TimeService timeService;
+
+    /**
+     * Registra la creación del evento de Google Calendar para una reserva recién guardada.
+     *
+     * @param reservation La reserva (ya con ID).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueCreate(Reservation reservation) {
+        save(CalendarOutboxOperation.CREATE, reservation.getId(), reservation.getUser().getId(), null);
+        log.info("Creación en Google Calendar de la reserva {} encolada", reservation.getId());
+    }
+
+    /**
+     * Registra el borrado del evento de Google Calendar de una reserva que se va a cancelar.
+     * Si la reserva aún no tiene evento en Google, descarta el CREATE pendiente.
+     *
+     * @param reservation La reserva cancelada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueDelete(Reservation reservation) {
+        if (reservation.getGoogleEventId() == null) {
+            int discarded = outboxRepo.deletePending(reservation.getId(), CalendarOutboxOperation.CREATE);
+            if (discarded > 0) {
+                log.info("Creación en Google Calendar de la reserva {} descartada antes de enviarse", reservation.getId());
+            }
+            return;
+        }
+        save(CalendarOutboxOperation.DELETE, reservation.getId(), reservation.getUser().getId(), reservation.getGoogleEventId());
+        log.info("Borrado del evento de Google Calendar {} (reserva {}) encolado", reservation.getGoogleEventId(), reservation.getId());
+    }
+
+    /**
+     * Registra el borrado de un evento de Google Calendar ya conocido
+     * (ej. un evento creado para una reserva que se canceló durante el envío).
+     *
+     * @param reservationId La reserva de origen (solo informativo).
+     * @param userId        El dueño del calendario.
+     * @param googleEventId El ID del evento a eliminar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueDelete(Long reservationId, Long userId, String googleEventId) {
+        save(CalendarOutboxOperation.DELETE, reservationId, userId, googleEventId);
+    }
+
+    private void save(CalendarOutboxOperation operation, Long reservationId, Long userId, String googleEventId) {
+        OffsetDateTime now = timeService.nowOffset();
+        outboxRepo.save(CalendarOutboxEvent.builder()
+                .operation(operation)
+                .status(CalendarOutboxStatus.PENDING)
+                .reservationId(reservationId)
+                .userId(userId)
+                .googleEventId(googleEventId)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+}
@@ -1,8 +1,7 @@
 package bookfronterab.service.google;
 
-import bookfronterab.model.User;
 import bookfronterab.model.UserRole;
-import bookfronterab.repo.UserRepository;
+import bookfronterab.service.UserIdentityCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,14 +16,13 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CustomOidcUserService extends OidcUserService {
 
-    private final UserRepository userRepository;
+    private final UserIdentityCache userIdentityCache;
 
     // Lista  de correos personales autorizados como Admin/Dev
     private static final List<String> ADMIN_EMAILS = List.of(
@@ -53,8 +51,9 @@ public class CustomOidcUserService extends OidcUserService {
             throw new OAuth2AuthenticationException(error, error.getDescription());
         }
 
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        UserRole rol = userOptional.map(User::getRol).orElse(UserRole.STUDENT);
+        UserRole rol = userIdentityCache.findByEmail(email)
+                .map(UserIdentityCache.UserIdentity::rol)
+                .orElse(UserRole.STUDENT);
 
         Set<GrantedAuthority> authorities = Collections.singleton(
                 new SimpleGrantedAuthority("ROLE_" + rol.name())
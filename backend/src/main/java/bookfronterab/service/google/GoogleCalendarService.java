@@ -1,52 +1,84 @@
 package bookfronterab.service.google;
 
 import bookfronterab.model.Reservation;
-import com.google.api.client.http.HttpRequestInitializer;
-import com.google.api.client.http.HttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.CalendarRequest;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventDateTime;
 import com.google.api.client.util.DateTime;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio para interactuar con la API de Google Calendar.
  * Se encarga de la gestión de eventos (creación y eliminación).
+ * <p>
+ * Usa un único cliente de Calendar (ver {@link bookfronterab.config.GoogleApiConfig}) cuyo
+ * transporte mantiene un pool de conexiones; el token del usuario se agrega en cada petición.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class GoogleCalendarService {
 
-    private static final String APPLICATION_NAME = "BookFrontera Calendar";
     private static final String CALENDAR_ID = "primary";
 
     /**
-     * Construye y devuelve un cliente de Google Calendar autenticado.
-     * <p>
-     * Se reemplaza el uso de la clase deprecada GoogleCredential por un
-     * HttpRequestInitializer simple mediante una expresión lambda.
-     * </p>
+     * Duración de cada petición HTTP a la API de Calendar, por operación ({@code insert}, {@code delete}
+     * o {@code batch}) y resultado.
+     */
+    static final String REQUEST_TIMER = "bookfrontera.google.calendar.requests";
+
+    private final Calendar googleCalendarClient;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Máximo de operaciones por petición batch (la API de Calendar acepta hasta 50).
+     */
+    @Value("${bookfrontera.google.calendar.batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Resultado de una operación dentro de un lote: el ID del evento si tuvo éxito, o el error.
+     */
+    public record BatchItemResult(String googleEventId, String error) {
+
+        static BatchItemResult success(String googleEventId) {
+            return new BatchItemResult(googleEventId, null);
+        }
+
+        static BatchItemResult failure(String error) {
+            return new BatchItemResult(null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Agrega el token de acceso OAuth2 del usuario a una petición del cliente compartido.
      *
+     * @param request     La petición a autenticar.
      * @param accessToken El token de acceso OAuth2 del usuario.
-     * @return Un cliente de Calendar configurado y listo para usar.
+     * @return La misma petición, lista para ejecutarse.
      */
-    public Calendar getCalendarClient(String accessToken) {
-        HttpTransport transport = new NetHttpTransport();
-        GsonFactory jsonFactory = GsonFactory.getDefaultInstance();
-
-        // En lugar de 'new GoogleCredential().setAccessToken(...)', definimos
-        // manualmente cómo se inyecta el token en los headers.
-        HttpRequestInitializer requestInitializer = request ->
-                request.getHeaders().setAuthorization("Bearer " + accessToken);
-
-        return new Calendar.Builder(transport, jsonFactory, requestInitializer)
-                .setApplicationName(APPLICATION_NAME)
-                .build();
+    private static <T extends CalendarRequest<?>> T authorize(T request, String accessToken) {
+        request.getRequestHeaders().setAuthorization("Bearer " + accessToken);
+        return request;
     }
 
     /**
@@ -58,8 +90,70 @@ public class GoogleCalendarService {
      * @throws IOException Si hay un error de comunicación con la API.
      */
     public String createEventForReservation(Reservation reservation, String accessToken) throws IOException {
-        Calendar service = getCalendarClient(accessToken);
+        Event createdEvent = timed("insert",
+                authorize(googleCalendarClient.events().insert(CALENDAR_ID, toEvent(reservation)), accessToken)::execute);
+        log.info("Evento de Google Calendar creado con ID: {}", createdEvent.getId());
+
+        return createdEvent.getId();
+    }
+
+    /**
+     * Crea los eventos de varias reservas de un mismo usuario usando peticiones batch
+     * (hasta {@code batchSize} operaciones por petición HTTP).
+     *
+     * @param reservations Reservas del usuario dueño del token.
+     * @param accessToken  El token de acceso del usuario.
+     * @return El resultado de cada reserva, por ID de reserva. Si falla una petición batch completa, solo
+     *         las reservas de esa petición quedan con error; los resultados de las demás se conservan.
+     * @throws IOException Si no se puede armar una petición (los errores de envío van en el resultado).
+     */
+    public Map<Long, BatchItemResult> createEventsForReservations(List<Reservation> reservations, String accessToken) throws IOException {
+        Map<Long, BatchItemResult> results = new LinkedHashMap<>();
+        if (reservations.size() == 1) {
+            // Un solo evento no justifica el sobrecosto del formato batch
+            Reservation reservation = reservations.get(0);
+            try {
+                results.put(reservation.getId(), BatchItemResult.success(createEventForReservation(reservation, accessToken)));
+            } catch (IOException e) {
+                results.put(reservation.getId(), BatchItemResult.failure(e.getMessage()));
+            }
+            return results;
+        }
+
+        for (int from = 0; from < reservations.size(); from += batchSize) {
+            List<Reservation> chunk = reservations.subList(from, Math.min(from + batchSize, reservations.size()));
+            BatchRequest batch = newBatch(accessToken);
+            for (Reservation reservation : chunk) {
+                authorize(googleCalendarClient.events().insert(CALENDAR_ID, toEvent(reservation)), accessToken)
+                        .queue(batch, new JsonBatchCallback<Event>() {
+                            @Override
+                            public void onSuccess(Event created, HttpHeaders responseHeaders) {
+                                results.put(reservation.getId(), BatchItemResult.success(created.getId()));
+                            }
+
+                            @Override
+                            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                                results.put(reservation.getId(), BatchItemResult.failure(describe(error)));
+                            }
+                        });
+            }
+            try {
+                executeBatch(batch);
+            } catch (IOException e) {
+                // Solo fallan las operaciones de este lote; los lotes anteriores ya se aplicaron en Google
+                log.warn("Falló un lote de {} eventos de Google Calendar: {}", chunk.size(), e.getMessage());
+                chunk.forEach(reservation -> results.putIfAbsent(reservation.getId(), BatchItemResult.failure(e.getMessage())));
+            }
+        }
+        log.info("Lote de {} eventos enviado a Google Calendar ({} creados)",
+                reservations.size(), results.values().stream().filter(BatchItemResult::isSuccess).count());
+        return results;
+    }
 
+    /**
+     * Construye el evento de Google Calendar de una reserva.
+     */
+    private static Event toEvent(Reservation reservation) {
         Event event = new Event()
                 .setSummary("Reserva de Sala: " + reservation.getRoom().getName())
                 .setDescription("Reserva realizada a través de BookFrontera.")
@@ -71,11 +165,7 @@ public class GoogleCalendarService {
 
         event.setStart(new EventDateTime().setDateTime(startDateTime).setTimeZone(reservation.getStartAt().getZone().getId()));
         event.setEnd(new EventDateTime().setDateTime(endDateTime).setTimeZone(reservation.getEndAt().getZone().getId()));
-
-        Event createdEvent = service.events().insert(CALENDAR_ID, event).execute();
-        log.info("Evento de Google Calendar creado con ID: {}", createdEvent.getId());
-
-        return createdEvent.getId();
+        return event;
     }
 
     /**
@@ -92,8 +182,7 @@ public class GoogleCalendarService {
         }
 
         try {
-            Calendar service = getCalendarClient(accessToken);
-            service.events().delete(CALENDAR_ID, googleEventId).execute();
+            timed("delete", authorize(googleCalendarClient.events().delete(CALENDAR_ID, googleEventId), accessToken)::execute);
             log.info("Evento de Google Calendar eliminado con ID: {}", googleEventId);
         } catch (IOException e) {
             if (e.getMessage().contains("404") || e.getMessage().contains("410")) {
@@ -104,4 +193,96 @@ public class GoogleCalendarService {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Elimina varios eventos de un mismo usuario usando peticiones batch.
+     * Un evento que ya no existe (404/410) cuenta como eliminado.
+     *
+     * @param googleEventIds Los IDs de los eventos a eliminar.
+     * @param accessToken    El token de acceso del usuario.
+     * @return El resultado de cada evento, por ID de evento. Si falla una petición batch completa, solo
+     *         los eventos de esa petición quedan con error; los resultados de los demás se conservan.
+     * @throws IOException Si no se puede armar una petición (los errores de envío van en el resultado).
+     */
+    public Map<String, BatchItemResult> deleteEvents(List<String> googleEventIds, String accessToken) throws IOException {
+        Map<String, BatchItemResult> results = new LinkedHashMap<>();
+        if (googleEventIds.size() == 1) {
+            String googleEventId = googleEventIds.get(0);
+            try {
+                deleteEvent(googleEventId, accessToken);
+                results.put(googleEventId, BatchItemResult.success(googleEventId));
+            } catch (IOException e) {
+                results.put(googleEventId, BatchItemResult.failure(e.getMessage()));
+            }
+            return results;
+        }
+
+        for (int from = 0; from < googleEventIds.size(); from += batchSize) {
+            List<String> chunk = googleEventIds.subList(from, Math.min(from + batchSize, googleEventIds.size()));
+            BatchRequest batch = newBatch(accessToken);
+            for (String googleEventId : chunk) {
+                authorize(googleCalendarClient.events().delete(CALENDAR_ID, googleEventId), accessToken)
+                        .queue(batch, new JsonBatchCallback<Void>() {
+                            @Override
+                            public void onSuccess(Void content, HttpHeaders responseHeaders) {
+                                results.put(googleEventId, BatchItemResult.success(googleEventId));
+                            }
+
+                            @Override
+                            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                                if (error.getCode() == 404 || error.getCode() == 410) {
+                                    log.warn("El evento {} ya no existe en Google Calendar (404/410).", googleEventId);
+                                    results.put(googleEventId, BatchItemResult.success(googleEventId));
+                                } else {
+                                    results.put(googleEventId, BatchItemResult.failure(describe(error)));
+                                }
+                            }
+                        });
+            }
+            try {
+                executeBatch(batch);
+            } catch (IOException e) {
+                log.warn("Falló un lote de {} borrados de Google Calendar: {}", chunk.size(), e.getMessage());
+                chunk.forEach(googleEventId -> results.putIfAbsent(googleEventId, BatchItemResult.failure(e.getMessage())));
+            }
+        }
+        log.info("Lote de {} borrados enviado a Google Calendar ({} exitosos)",
+                googleEventIds.size(), results.values().stream().filter(BatchItemResult::isSuccess).count());
+        return results;
+    }
+
+    private void executeBatch(BatchRequest batch) throws IOException {
+        timed("batch", () -> {
+            batch.execute();
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta una petición a Google registrando su duración en {@link #REQUEST_TIMER}.
+     */
+    private <T> T timed(String operation, GoogleCall<T> call) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.execute();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(meterRegistry.timer(REQUEST_TIMER, "operation", operation, "outcome", outcome));
+        }
+    }
+
+    @FunctionalInterface
+    private interface GoogleCall<T> {
+        T execute() throws IOException;
+    }
+
+    private BatchRequest newBatch(String accessToken) {
+        return googleCalendarClient.batch(request -> request.getHeaders().setAuthorization("Bearer " + accessToken));
+    }
+
+    private static String describe(GoogleJsonError error) {
+        return error.getCode() + " " + error.getMessage();
+    }
+}
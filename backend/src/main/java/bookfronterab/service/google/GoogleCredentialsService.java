@@ -9,8 +9,10 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.auth.oauth2.TokenResponse;
 import com.google.api.client.googleapis.auth.oauth2.GoogleRefreshTokenRequest;
 import com.google.api.client.http.GenericUrl;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,10 +20,18 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Servicio encargado de gestionar y validar las credenciales OAuth2 de Google.
- * Realiza el refresco de tokens automáticamente si estos han expirado.
+ * <p>
+ * Mantiene en memoria el último token de cada usuario y lo refresca antes de que expire
+ * (con un margen configurable). Si varios hilos necesitan refrescar el token del mismo usuario
+ * a la vez, solo uno llama a Google y los demás esperan su resultado; los tokens nuevos se
+ * guardan una sola vez.
  */
 @Service
 @RequiredArgsConstructor
@@ -31,6 +41,27 @@ public class GoogleCredentialsService {
     private final UserRepository userRepository;
     private final TimeService timeService;
 
+    /**
+     * Transporte compartido con pool de conexiones (ver {@link bookfronterab.config.GoogleApiConfig}).
+     */
+    private final HttpTransport googleHttpTransport;
+    private final JsonFactory googleJsonFactory;
+
+    /**
+     * Registra la duración de cada refresco ({@code bookfrontera.google.token.refresh}), por resultado.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Último token conocido por ID de usuario.
+     */
+    private final Map<Long, CachedToken> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * Refrescos en curso por ID de usuario, para que las peticiones concurrentes compartan uno solo.
+     */
+    private final Map<Long, CompletableFuture<CachedToken>> refreshesInFlight = new ConcurrentHashMap<>();
+
     // URL estándar de Google para obtener tokens
     private static final String TOKEN_SERVER_URL = "https://oauth2.googleapis.com/token";
 
@@ -40,68 +71,152 @@ public class GoogleCredentialsService {
     @Value("${spring.security.oauth2.client.registration.google.client-secret}")
     private String clientSecret;
 
+    /**
+     * Margen antes de la expiración en el que el token ya se considera vencido.
+     */
+    @Value("${bookfrontera.google.token.refresh-skew-seconds:120}")
+    private long refreshSkewSeconds;
+
     /**
      * Obtiene una Credencial válida para el usuario.
-     * Si el token de acceso ha expirado, intenta refrescarlo utilizando el refresh token.
+     * Si el token de acceso expiró (o está por expirar), lo refresca utilizando el refresh token.
      *
      * @param user El usuario del cual se requieren las credenciales.
      * @return Un objeto {@link Credential} válido.
      * @throws IOException Si faltan tokens o falla el proceso de refresco.
      */
     public Credential getCredential(User user) throws IOException {
-        if (user.getGoogleAccessToken() == null || user.getGoogleRefreshToken() == null) {
+        CachedToken token = currentToken(user);
+        if (token == null) {
             throw new IOException("Tokens OAuth2 no encontrados para el usuario: " + user.getEmail());
         }
 
-        //  Verificamos si el token está expirado o cerca de expirar
-        boolean isExpired = user.getGoogleTokenExpiryDate() == null ||
-                user.getGoogleTokenExpiryDate().isBefore(timeService.nowOffset());
-
-        if (isExpired) {
-            log.info("El token de acceso para {} ha expirado. Iniciando refresco...", user.getEmail());
-            refreshAccessToken(user);
+        if (!isFresh(token)) {
+            log.info("El token de acceso para {} expiró o está por expirar. Iniciando refresco...", user.getEmail());
+            token = refreshSingleFlight(user);
         }
 
         //  Construimos y devolvemos la credencial usando clases estándar no deprecadas
-        return createCredentialObject(user);
+        return createCredentialObject(token);
+    }
+
+    /**
+     * Devuelve el token más reciente entre el guardado en memoria y el de la entidad
+     * (que puede traer tokens nuevos tras un inicio de sesión).
+     */
+    private CachedToken currentToken(User user) {
+        CachedToken fromEntity = CachedToken.of(user);
+        return tokens.compute(user.getId(), (id, cached) -> {
+            if (cached == null) {
+                return fromEntity;
+            }
+            return fromEntity != null && fromEntity.expiresLaterThan(cached) ? fromEntity : cached;
+        });
+    }
+
+    private boolean isFresh(CachedToken token) {
+        return token.expiresAt() != null
+                && token.expiresAt().minusSeconds(refreshSkewSeconds).isAfter(timeService.nowOffset());
+    }
+
+    /**
+     * Refresca el token del usuario, compartiendo el resultado con los hilos que lo pidan a la vez.
+     */
+    private CachedToken refreshSingleFlight(User user) throws IOException {
+        CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+        CompletableFuture<CachedToken> running = refreshesInFlight.putIfAbsent(user.getId(), mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            // Otro hilo pudo terminar un refresco justo antes de registrar el nuestro
+            CachedToken cached = tokens.get(user.getId());
+            CachedToken refreshed = cached != null && isFresh(cached) ? cached : refreshAccessToken(user, cached);
+            mine.complete(refreshed);
+            return refreshed;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshesInFlight.remove(user.getId(), mine);
+        }
+    }
+
+    private static CachedToken await(CompletableFuture<CachedToken> refresh) throws IOException {
+        try {
+            return refresh.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando el refresco del token de Google", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Error al refrescar el token de Google: " + e.getCause().getMessage(), e.getCause());
+        }
     }
 
     /**
-     * Realiza la petición a Google para refrescar el token de acceso.
-     * Actualiza la entidad User con los nuevos valores.
+     * Realiza la petición a Google para refrescar el token de acceso
+     * y persiste los tokens nuevos. Registra la duración en {@code bookfrontera.google.token.refresh}.
      *
-     * @param user El usuario a actualizar.
+     * @param user    El usuario a actualizar.
+     * @param current El último token conocido (su refresh token es el que se usa).
+     * @return El token refrescado.
      * @throws IOException Si la petición de refresco falla.
      */
-    private void refreshAccessToken(User user) throws IOException {
+    private CachedToken refreshAccessToken(User user, CachedToken current) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            CachedToken refreshed = requestAndStoreToken(user, current);
+            outcome = "success";
+            return refreshed;
+        } finally {
+            sample.stop(meterRegistry.timer("bookfrontera.google.token.refresh", "outcome", outcome));
+        }
+    }
+
+    /**
+     * Pide el token nuevo a Google y lo guarda en memoria, en la BD y en la entidad recibida.
+     */
+    private CachedToken requestAndStoreToken(User user, CachedToken current) throws IOException {
+        String refreshToken = current != null ? current.refreshToken() : user.getGoogleRefreshToken();
         try {
             // Usamos GoogleRefreshTokenRequest en lugar de GoogleCredential.refreshToken()
             TokenResponse response = new GoogleRefreshTokenRequest(
-                    new NetHttpTransport(),
-                    GsonFactory.getDefaultInstance(),
-                    user.getGoogleRefreshToken(),
+                    googleHttpTransport,
+                    googleJsonFactory,
+                    refreshToken,
                     clientId,
                     clientSecret
             ).execute();
 
             log.info("Token refrescado exitosamente para {}", user.getEmail());
 
-            // Actualizamos el usuario con el nuevo Access Token
-            user.setGoogleAccessToken(response.getAccessToken());
-
             // A veces Google rota el Refresh Token también, si viene uno nuevo, lo guardamos
             if (response.getRefreshToken() != null) {
-                user.setGoogleRefreshToken(response.getRefreshToken());
+                refreshToken = response.getRefreshToken();
             }
 
             // Calculamos la nueva fecha de expiración
             // getExpiresInSeconds() devuelve Long, si es null asumimos 3600 (1 hora)
             long expiresInSeconds = response.getExpiresInSeconds() != null ? response.getExpiresInSeconds() : 3600;
-            user.setGoogleTokenExpiryDate(
-                    OffsetDateTime.now(timeService.zone()).plusSeconds(expiresInSeconds)
+            CachedToken refreshed = new CachedToken(
+                    response.getAccessToken(),
+                    refreshToken,
+                    timeService.nowOffset().plusSeconds(expiresInSeconds)
             );
 
-            userRepository.save(user);
+            userRepository.updateGoogleTokens(user.getId(), refreshed.accessToken(), refreshed.refreshToken(), refreshed.expiresAt());
+            tokens.put(user.getId(), refreshed);
+
+            // Mantenemos la entidad recibida coherente con lo guardado
+            user.setGoogleAccessToken(refreshed.accessToken());
+            user.setGoogleRefreshToken(refreshed.refreshToken());
+            user.setGoogleTokenExpiryDate(refreshed.expiresAt());
+            return refreshed;
 
         } catch (IOException e) {
             log.error("Fallo al refrescar token para {}. El refresh token podría haber sido revocado.", user.getEmail());
@@ -113,14 +228,34 @@ public class GoogleCredentialsService {
      * Crea el objeto Credential necesario para las librerías de Google API.
      * Reemplaza al builder deprecado de GoogleCredential.
      */
-    private Credential createCredentialObject(User user) {
+    private Credential createCredentialObject(CachedToken token) {
         return new Credential.Builder(BearerToken.authorizationHeaderAccessMethod())
-                .setTransport(new NetHttpTransport())
-                .setJsonFactory(GsonFactory.getDefaultInstance())
+                .setTransport(googleHttpTransport)
+                .setJsonFactory(googleJsonFactory)
                 .setTokenServerUrl(new GenericUrl(TOKEN_SERVER_URL))
                 .setClientAuthentication(new ClientParametersAuthentication(clientId, clientSecret))
                 .build()
-                .setAccessToken(user.getGoogleAccessToken())
-                .setRefreshToken(user.getGoogleRefreshToken());
+                .setAccessToken(token.accessToken())
+                .setRefreshToken(token.refreshToken());
+    }
+
+    /**
+     * Tokens de un usuario tal como se guardaron por última vez.
+     */
+    private record CachedToken(String accessToken, String refreshToken, OffsetDateTime expiresAt) {
+
+        static CachedToken of(User user) {
+            if (user.getGoogleAccessToken() == null || user.getGoogleRefreshToken() == null) {
+                return null;
+            }
+            return new CachedToken(user.getGoogleAccessToken(), user.getGoogleRefreshToken(), user.getGoogleTokenExpiryDate());
+        }
+
+        boolean expiresLaterThan(CachedToken other) {
+            if (expiresAt == null) {
+                return false;
+            }
+            return other.expiresAt() == null || expiresAt.isAfter(other.expiresAt());
+        }
     }
-}
\ No newline at end of file
+}
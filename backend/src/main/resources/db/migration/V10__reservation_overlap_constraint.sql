@@ -0,0 +1,14 @@
+-- Restricción de exclusión: PostgreSQL rechaza (SQLSTATE 23P01) dos reservas solapadas de una misma sala.
+-- Siempre está instalada; bookfrontera.reservations.exclusion-constraint.enabled solo decide si
+-- ReservationService se apoya en ella (sin bloquear la sala) o sigue bloqueando la fila de la sala.
+-- btree_gist es una extensión "trusted" desde PostgreSQL 13: basta con ser dueño de la base.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'reservations_no_overlap') THEN
+        ALTER TABLE reservations ADD CONSTRAINT reservations_no_overlap
+            EXCLUDE USING gist (room_id WITH =, tstzrange(start_at, end_at, '[)') WITH &&);
+    END IF;
+END $$;
@@ -0,0 +1,4 @@
+-- Intentos fallidos de cada intervalo liberado: el worker lo conserva tras un error inesperado
+-- y lo reintenta en el siguiente ciclo, hasta bookfrontera.waitlist.max-attempts.
+
+ALTER TABLE waitlist_promotions ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
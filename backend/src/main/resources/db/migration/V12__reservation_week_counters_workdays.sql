@@ -0,0 +1,5 @@
+-- Los contadores del límite semanal pasan a cubrir la semana laboral (sábado anterior a viernes: una reserva
+-- de fin de semana cuenta en la semana siguiente). Los existentes usaban otra ventana: se eliminan y
+-- WeeklyLimitService los vuelve a crear, contando de nuevo, al usarlos.
+
+DELETE FROM reservation_week_counters;
@@ -0,0 +1,15 @@
+-- registry.reservation_id deja de tener FK a reservations: ReservationArchiveService mueve las reservas
+-- antiguas a reservations_archive (PK (id, start_at), no referenciable solo por id) y las filas de registry
+-- deben seguir apuntando a la reserva archivada. El nombre de la FK depende de quién creó la tabla
+-- (esta baseline o Hibernate con ddl-auto), por eso se busca en el catálogo.
+
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conname FROM pg_constraint
+              WHERE conrelid = 'registry'::regclass AND confrelid = 'reservations'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE registry DROP CONSTRAINT %I', fk.conname);
+    END LOOP;
+END $$;
@@ -0,0 +1,51 @@
+-- Esquema base, equivalente al que generaba Hibernate (ddl-auto) a partir de las entidades
+-- antes de introducir Flyway y el outbox de Google Calendar (ese llega en V9).
+-- En bases ya existentes Flyway no ejecuta este script: las registra en la versión 1 (baseline),
+-- así que aquí solo puede ir lo que todas esas bases ya tienen.
+
+CREATE SEQUENCE IF NOT EXISTS room_id_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS user_id_seq START WITH 100 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS reservation_id_seq START WITH 100 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS rooms (
+    id        BIGINT       NOT NULL,
+    name      VARCHAR(255),
+    capacity  INTEGER      NOT NULL,
+    floor     INTEGER      NOT NULL,
+    image_url VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS room_equipment (
+    room_id   BIGINT NOT NULL REFERENCES rooms (id),
+    equipment VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id                       BIGINT                      NOT NULL,
+    email                    VARCHAR(255)                NOT NULL UNIQUE,
+    nombre                   VARCHAR(255)                NOT NULL,
+    rol                      VARCHAR(255)                NOT NULL CHECK (rol IN ('STUDENT', 'ADMIN')),
+    creado_en                TIMESTAMP(6) WITH TIME ZONE,
+    google_access_token      VARCHAR(1024),
+    google_refresh_token     VARCHAR(1024),
+    google_token_expiry_date TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS reservations (
+    id              BIGINT                      NOT NULL,
+    room_id         BIGINT                      NOT NULL REFERENCES rooms (id),
+    user_id         BIGINT                      NOT NULL REFERENCES users (id),
+    start_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    end_at          TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    google_event_id VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS registry (
+    id_registry    INTEGER NOT NULL,
+    reservation_id BIGINT REFERENCES reservations (id),
+    state          VARCHAR(255) CHECK (state IN ('CANCELLED', 'MAINTENANCE', 'MODIFIED', 'CREATED')),
+    PRIMARY KEY (id_registry)
+);
@@ -0,0 +1,13 @@
+-- Índices para las consultas frecuentes de ReservationRepository.
+
+-- Conflictos de una sala (room_id = ? AND start_at < ? AND end_at > ?) y páginas por sala
+-- ordenadas por (start_at, id).
+CREATE INDEX IF NOT EXISTS idx_reservations_room_start ON reservations (room_id, start_at, id);
+
+-- Límite semanal (user_id = ? AND start_at BETWEEN ? AND ?, tras resolver el email con el índice único de users.email)
+-- y páginas por usuario ordenadas por (start_at, id).
+CREATE INDEX IF NOT EXISTS idx_reservations_user_start ON reservations (user_id, start_at, id);
+
+-- Ocupación de un rango de días (start_at < ? AND end_at > ?). Se indexa primero end_at porque
+-- las consultas son de días actuales o futuros: end_at > inicio del día descarta todo el historial.
+CREATE INDEX IF NOT EXISTS idx_reservations_end_start ON reservations (end_at, start_at);
@@ -0,0 +1,17 @@
+-- Historial archivado: reservas que empezaron antes de la retención configurada
+-- (bookfrontera.reservations.archive.retention-days). Las mueve ReservationArchiveService.
+-- Se particiona por mes de start_at; las particiones las crea el job antes de mover cada mes.
+
+CREATE TABLE IF NOT EXISTS reservations_archive (
+    id              BIGINT                      NOT NULL,
+    room_id         BIGINT                      NOT NULL REFERENCES rooms (id),
+    user_id         BIGINT                      NOT NULL REFERENCES users (id),
+    start_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    end_at          TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    google_event_id VARCHAR(255),
+    archived_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id, start_at)
+) PARTITION BY RANGE (start_at);
+
+CREATE INDEX IF NOT EXISTS idx_reservations_archive_room_start ON reservations_archive (room_id, start_at, id);
+CREATE INDEX IF NOT EXISTS idx_reservations_archive_user_start ON reservations_archive (user_id, start_at, id);
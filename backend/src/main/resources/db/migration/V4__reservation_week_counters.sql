@@ -0,0 +1,10 @@
+-- Contador de reservas por usuario y semana ISO (año * 100 + semana, en la zona de la app).
+-- Lo mantiene WeeklyLimitService en la misma transacción que crea o cancela la reserva;
+-- la fila de cada semana se inicializa con un conteo la primera vez que se usa.
+
+CREATE TABLE IF NOT EXISTS reservation_week_counters (
+    user_id      BIGINT  NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    iso_week     INTEGER NOT NULL,
+    reservations INTEGER NOT NULL,
+    PRIMARY KEY (user_id, iso_week)
+);
@@ -0,0 +1,13 @@
+-- Claves de idempotencia de POST /reservations y /reservations/on-behalf (encabezado Idempotency-Key).
+-- La fila se inserta en la misma transacción que la reserva; expira según bookfrontera.idempotency.ttl-hours.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_email      VARCHAR(255)                NOT NULL,
+    idempotency_key VARCHAR(255)                NOT NULL,
+    request_hash    VARCHAR(64)                 NOT NULL,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (user_email, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys (expires_at);
@@ -0,0 +1,5 @@
+-- Asignación "pooled" de IDs: cada nextval reserva 50 valores (allocationSize = 50 en las entidades).
+-- El valor actual de cada secuencia ya es >= al mayor ID usado, así los nuevos bloques no se repiten.
+ALTER SEQUENCE room_id_seq INCREMENT BY 50;
+ALTER SEQUENCE user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reservation_id_seq INCREMENT BY 50;
@@ -0,0 +1,18 @@
+-- Bloqueos tentativos (holds) de un intervalo de sala; expiran según bookfrontera.reservations.holds.ttl-seconds.
+-- Sin FK: son de vida corta y se purgan periódicamente.
+
+CREATE SEQUENCE IF NOT EXISTS reservation_hold_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservation_holds (
+    id         BIGINT                      NOT NULL PRIMARY KEY,
+    room_id    BIGINT                      NOT NULL,
+    user_id    BIGINT                      NOT NULL,
+    start_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    end_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_reservation_holds_room_start ON reservation_holds (room_id, start_at);
+CREATE INDEX IF NOT EXISTS idx_reservation_holds_user ON reservation_holds (user_id);
+CREATE INDEX IF NOT EXISTS idx_reservation_holds_expires ON reservation_holds (expires_at);
@@ -0,0 +1,28 @@
+-- Lista de espera por sala e intervalo, y cola de promociones que se encolan al cancelar una reserva.
+-- Sin FK, igual que reservation_holds: las entradas de usuarios o salas eliminados se descartan al promover.
+
+CREATE SEQUENCE IF NOT EXISTS reservation_waitlist_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservation_waitlist (
+    id                      BIGINT                      NOT NULL PRIMARY KEY,
+    room_id                 BIGINT                      NOT NULL,
+    user_id                 BIGINT                      NOT NULL,
+    start_at                TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    end_at                  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    add_to_google_calendar  BOOLEAN                     NOT NULL DEFAULT FALSE,
+    created_at              TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_reservation_waitlist_user_slot UNIQUE (user_id, room_id, start_at, end_at)
+);
+
+CREATE INDEX IF NOT EXISTS idx_reservation_waitlist_room_start ON reservation_waitlist (room_id, start_at, id);
+CREATE INDEX IF NOT EXISTS idx_reservation_waitlist_start ON reservation_waitlist (start_at);
+
+CREATE SEQUENCE IF NOT EXISTS waitlist_promotion_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS waitlist_promotions (
+    id         BIGINT                      NOT NULL PRIMARY KEY,
+    room_id    BIGINT                      NOT NULL,
+    start_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    end_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,22 @@
+-- Outbox de sincronización con Google Calendar.
+-- Va en su propia migración (y no en V1) porque las bases registradas en V1 sin ejecutarla (baseline)
+-- pueden ser anteriores al outbox. IF NOT EXISTS: las que Hibernate ya actualizó con ddl-auto la tienen.
+
+CREATE SEQUENCE IF NOT EXISTS calendar_outbox_id_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS calendar_outbox (
+    id              BIGINT                      NOT NULL,
+    operation       VARCHAR(255)                NOT NULL CHECK (operation IN ('CREATE', 'DELETE')),
+    status          VARCHAR(255)                NOT NULL CHECK (status IN ('PENDING', 'FAILED')),
+    reservation_id  BIGINT,
+    user_id         BIGINT                      NOT NULL,
+    google_event_id VARCHAR(255),
+    attempts        INTEGER                     NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error      VARCHAR(1024),
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_calendar_outbox_due ON calendar_outbox (status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_calendar_outbox_reservation ON calendar_outbox (reservation_id);
@@ -4,6 +4,7 @@ import bookfronterab.model.User;
 import bookfronterab.model.UserRole;
 import bookfronterab.repo.UserRepository;
 import bookfronterab.service.TimeService;
+import bookfronterab.service.UserIdentityCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +40,7 @@ class CustomAuthenticationSuccessHandlerTest {
     @Mock private OAuth2AuthorizedClientService authorizedClientService;
     @Mock private UserRepository userRepository;
     @Mock private TimeService timeService;
+    @Mock private UserIdentityCache userIdentityCache;
 
     @Mock private HttpServletRequest request;
     @Mock private HttpServletResponse response;
@@ -119,7 +121,8 @@ class CustomAuthenticationSuccessHandlerTest {
         assertEquals(NAME, savedUser.getNombre()); // Nombre actualizado
         assertEquals(UserRole.ADMIN, savedUser.getRol()); // Rol mantenido
         assertEquals("new-access-token", savedUser.getGoogleAccessToken());
-        
+        verify(userIdentityCache).evict(EMAIL); // nombre y tokens nuevos: la identidad en caché se descarta
+
         verify(response).sendRedirect("http://localhost:5173");
     }
 
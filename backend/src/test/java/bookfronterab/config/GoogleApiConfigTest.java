@@ -0,0 +1,92 @@
+package bookfronterab.config;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpTransport;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleApiConfigTest {
+
+    private HttpServer server;
+    private final Set<Object> remoteClients = ConcurrentHashMap.newKeySet();
+    private PoolingHttpClientConnectionManager manager;
+    private HttpTransport transport;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            remoteClients.add(exchange.getRemoteAddress());
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        GoogleApiConfig config = new GoogleApiConfig();
+        ReflectionTestUtils.setField(config, "maxConnections", 10);
+        ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", 5);
+        ReflectionTestUtils.setField(config, "connectionTtlSeconds", 60L);
+        ReflectionTestUtils.setField(config, "idleTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(config, "connectTimeoutMillis", 2000);
+        ReflectionTestUtils.setField(config, "readTimeoutMillis", 2000);
+        manager = config.googleConnectionManager();
+        transport = config.googleHttpTransport(manager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        manager.shutdown();
+    }
+
+    @Test
+    @DisplayName("Las peticiones reutilizan la misma conexión del pool (keep-alive)")
+    void transport_ShouldReuseConnections() throws IOException {
+        GenericUrl url = new GenericUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/ping");
+        for (int i = 0; i < 5; i++) {
+            HttpResponse response = transport.createRequestFactory().buildGetRequest(url).execute();
+            assertEquals("ok", response.parseAsString());
+            response.disconnect();
+        }
+
+        assertEquals(1, remoteClients.size(), "Todas las peticiones debieron usar la misma conexión");
+        assertEquals(0, manager.getTotalStats().getLeased());
+        assertEquals(1, manager.getTotalStats().getAvailable());
+    }
+
+    @Test
+    @DisplayName("El uso del pool se publica como gauges google.http.pool.*")
+    void poolMetrics_ShouldExposeGauges() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new GoogleApiConfig().googleHttpPoolMetrics(manager).bindTo(registry);
+
+        GenericUrl url = new GenericUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/ping");
+        HttpResponse response = transport.createRequestFactory().buildGetRequest(url).execute();
+        assertEquals(1.0, registry.get("google.http.pool.leased").gauge().value());
+        response.disconnect();
+
+        assertEquals(0.0, registry.get("google.http.pool.leased").gauge().value());
+        assertEquals(1.0, registry.get("google.http.pool.available").gauge().value());
+        assertEquals(0.0, registry.get("google.http.pool.pending").gauge().value());
+        assertEquals(10.0, registry.get("google.http.pool.max").gauge().value());
+    }
+}
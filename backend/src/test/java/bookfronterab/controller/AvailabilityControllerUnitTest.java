@@ -2,6 +2,7 @@ package bookfronterab.controller;
 
 import bookfronterab.dto.AvailabilityDto;
 import bookfronterab.service.AvailabilityService;
+import bookfronterab.service.AvailabilityStreamService;
 import bookfronterab.service.TimeService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,14 +11,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AvailabilityController.class)
@@ -30,6 +37,9 @@ class AvailabilityControllerUnitTest {
     @MockitoBean
     private AvailabilityService availabilityService;
 
+    @MockitoBean
+    private AvailabilityStreamService availabilityStreamService;
+
     @MockitoBean
     private TimeService timeService;
 
@@ -78,4 +88,104 @@ class AvailabilityControllerUnitTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    // CASO 3: El usuario pide un rango de días (?from=...&to=...)
+    @Test
+    void getRangeAvailability_DeberiaUsarRangoProporcionado() throws Exception {
+        LocalDate from = LocalDate.parse("2025-10-20");
+        LocalDate to = LocalDate.parse("2025-10-24");
+
+        AvailabilityDto.RangeAvailabilityResponse responseMock = new AvailabilityDto.RangeAvailabilityResponse(
+                List.of(),
+                List.of(),
+                List.of(new AvailabilityDto.DayAvailabilityDto(from, List.of()))
+        );
+
+        when(availabilityService.getRangeAvailability(from, to)).thenReturn(responseMock);
+
+        mockMvc.perform(get("/api/v1/availability")
+                        .param("from", "2025-10-20")
+                        .param("to", "2025-10-24")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days[0].date").value("2025-10-20"));
+    }
+
+    // CASO 4: El cliente ya tiene la versión vigente (If-None-Match) -> 304 sin recalcular
+    @Test
+    void getDailyAvailability_DeberiaResponder304_CuandoElETagCoincide() throws Exception {
+        LocalDate fecha = LocalDate.parse("2025-10-20");
+        when(availabilityService.getAvailabilityETag(fecha)).thenReturn("\"abc-0-7\"");
+
+        mockMvc.perform(get("/api/v1/availability")
+                        .param("date", "2025-10-20")
+                        .header("If-None-Match", "\"abc-0-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(availabilityService, never()).getDailyAvailability(any());
+    }
+
+    // CASO 5: ETag distinto -> 200 con el ETag actual
+    @Test
+    void getDailyAvailability_DeberiaIncluirETag_CuandoCambioLaVersion() throws Exception {
+        LocalDate fecha = LocalDate.parse("2025-10-20");
+        when(availabilityService.getAvailabilityETag(fecha)).thenReturn("\"abc-0-8\"");
+        when(availabilityService.getDailyAvailability(fecha)).thenReturn(
+                new AvailabilityDto.DailyAvailabilityResponse(List.of(), List.of(), List.of()));
+
+        mockMvc.perform(get("/api/v1/availability")
+                        .param("date", "2025-10-20")
+                        .header("If-None-Match", "\"abc-0-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-0-8\""));
+    }
+
+    // CASO 6: Suscripción SSE a los cambios de un día
+    @Test
+    void streamAvailability_DeberiaAbrirStreamAsincrono() throws Exception {
+        LocalDate fecha = LocalDate.parse("2025-10-20");
+        when(availabilityStreamService.subscribe(fecha)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/availability/stream")
+                        .param("date", "2025-10-20")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Accel-Buffering", "no"));
+
+        verify(availabilityStreamService).subscribe(fecha);
+    }
+
+    // CASO 7: Representación compacta por parámetro (?format=compact)
+    @Test
+    void getCompactDailyAvailability_DeberiaResponderMascaras_ConFormatCompact() throws Exception {
+        LocalDate fecha = LocalDate.parse("2025-10-20");
+        when(availabilityService.getAvailabilityETag(fecha)).thenReturn("\"abc-0-7\"");
+        when(availabilityService.getCompactDailyAvailability(fecha)).thenReturn(
+                new AvailabilityDto.CompactDailyAvailabilityResponse(List.of(), List.of(), new long[]{2047L}));
+
+        mockMvc.perform(get("/api/v1/availability")
+                        .param("date", "2025-10-20")
+                        .param("format", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-0-7-compact\""))
+                .andExpect(jsonPath("$.availability[0]").value(2047));
+
+        verify(availabilityService, never()).getDailyAvailability(any());
+    }
+
+    // CASO 8: Representación compacta negociada por Accept
+    @Test
+    void getCompactDailyAvailability_DeberiaResponderMascaras_ConAcceptCompact() throws Exception {
+        LocalDate fecha = LocalDate.parse("2025-10-20");
+        when(availabilityService.getCompactDailyAvailability(fecha)).thenReturn(
+                new AvailabilityDto.CompactDailyAvailabilityResponse(List.of(), List.of(), new long[]{0L}));
+
+        mockMvc.perform(get("/api/v1/availability")
+                        .param("date", "2025-10-20")
+                        .accept(AvailabilityController.COMPACT_MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availability[0]").value(0));
+
+        verify(availabilityService, never()).getDailyAvailability(any());
+    }
+}
@@ -4,9 +4,13 @@ import bookfronterab.config.CustomAuthenticationFailureHandler;
 import bookfronterab.config.CustomAuthenticationSuccessHandler;
 import bookfronterab.config.SecurityConfig;
 import bookfronterab.dto.ReservationDto;
+import bookfronterab.service.IdempotencyService;
+import bookfronterab.service.ReservationHoldService;
 import bookfronterab.service.ReservationService;
+import bookfronterab.service.WaitlistService;
 import bookfronterab.service.google.CustomOidcUserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -33,6 +37,8 @@ import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ReservationController.class)
@@ -44,6 +50,18 @@ class ReservationControllerUnitTest {
     @Autowired private ObjectMapper objectMapper;
 
     @MockitoBean private ReservationService reservationService;
+    @MockitoBean private IdempotencyService idempotencyService;
+    @MockitoBean private ReservationHoldService reservationHoldService;
+    @MockitoBean private WaitlistService waitlistService;
+
+    @BeforeEach
+    void runActionsWithoutIdempotency() {
+        // Por defecto la operación se ejecuta (primera solicitud)
+        when(idempotencyService.execute(anyString(), any(), anyString(), any(), any())).thenAnswer(inv -> {
+            inv.<Runnable>getArgument(4).run();
+            return false;
+        });
+    }
 
     // --- CONFIGURACIÓN PARA MOCKS DE SEGURIDAD (Evita error ApplicationContext) ---
     @TestConfiguration
@@ -106,6 +124,26 @@ class ReservationControllerUnitTest {
         verify(reservationService).create(eq(STUDENT_EMAIL), any(ReservationDto.CreateRequest.class));
     }
 
+    @Test
+    @DisplayName("create() con una Idempotency-Key ya usada debe devolver 201 sin volver a crear la reserva")
+    void create_ShouldReplay_WhenIdempotencyKeyWasUsed() throws Exception {
+        ReservationDto.CreateRequest req = new ReservationDto.CreateRequest(
+                1L, ZonedDateTime.now().plusHours(1), ZonedDateTime.now().plusHours(2), false
+        );
+        when(idempotencyService.execute(eq(STUDENT_EMAIL), eq("abc-123"), anyString(), any(), any())).thenReturn(true);
+
+        mockMvc.perform(post("/api/v1/reservations")
+                        .with(studentLogin)
+                        .with(csrf())
+                        .header("Idempotency-Key", "abc-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+        verify(reservationService, never()).create(anyString(), any());
+    }
+
     @Test
     @DisplayName("create() debe devolver 401 UNAUTHORIZED si no hay usuario")
     void create_ShouldReturnUnauthorized_WhenNotAuthenticated() throws Exception {
@@ -162,6 +200,82 @@ class ReservationControllerUnitTest {
                 .andExpect(status().isForbidden()); // Esperamos el 403 del @PreAuthorize
     }
 
+    @Test
+    @DisplayName("createBulk() debe devolver 201 con el informe si se creó alguna reserva, 409 si ninguna")
+    void createBulk_ShouldReturnReport() throws Exception {
+        ZonedDateTime start = ZonedDateTime.now().plusDays(1);
+        ReservationDto.BulkCreateRequest req = new ReservationDto.BulkCreateRequest(
+                List.of(1L), List.of(new ReservationDto.Interval(start, start.plusHours(1))), null, null);
+        ReservationDto.OccurrenceResult conflict = new ReservationDto.OccurrenceResult(
+                1L, start, start.plusHours(1), ReservationDto.OccurrenceStatus.CONFLICT, null, "ocupada");
+        when(reservationService.createBulk(eq(ADMIN_EMAIL), any()))
+                .thenReturn(new ReservationDto.BulkCreateResponse(0, 1, List.of(conflict)));
+
+        mockMvc.perform(post("/api/v1/reservations/bulk")
+                        .with(adminLogin)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.occurrences[0].status").value("CONFLICT"));
+
+        mockMvc.perform(post("/api/v1/reservations/bulk")
+                        .with(studentLogin)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("placeHold() debe devolver 201 con el bloqueo y releaseHold() 204")
+    void holds_ShouldPlaceAndRelease() throws Exception {
+        ZonedDateTime start = ZonedDateTime.now().plusDays(1);
+        ReservationDto.HoldRequest req = new ReservationDto.HoldRequest(1L, start, start.plusHours(1));
+        when(reservationHoldService.place(eq(STUDENT_EMAIL), any()))
+                .thenReturn(new ReservationDto.HoldResponse(7L, 1L, start, start.plusHours(1), start.toOffsetDateTime()));
+
+        mockMvc.perform(post("/api/v1/reservations/holds")
+                        .with(studentLogin)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7));
+
+        mockMvc.perform(delete("/api/v1/reservations/holds/7")
+                        .with(studentLogin)
+                        .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        verify(reservationHoldService).release(7L, STUDENT_EMAIL);
+    }
+
+    @Test
+    @DisplayName("joinWaitlist() debe devolver 201 con la posición y leaveWaitlist() 204")
+    void waitlist_ShouldJoinAndLeave() throws Exception {
+        ZonedDateTime start = ZonedDateTime.now().plusDays(1);
+        ReservationDto.WaitlistRequest req = new ReservationDto.WaitlistRequest(1L, start, start.plusHours(1), false);
+        when(waitlistService.join(eq(STUDENT_EMAIL), any()))
+                .thenReturn(new ReservationDto.WaitlistResponse(9L, 1L, start, start.plusHours(1), 2, start.toOffsetDateTime()));
+
+        mockMvc.perform(post("/api/v1/reservations/waitlist")
+                        .with(studentLogin)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(9))
+                .andExpect(jsonPath("$.position").value(2));
+
+        mockMvc.perform(delete("/api/v1/reservations/waitlist/9")
+                        .with(studentLogin)
+                        .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        verify(waitlistService).leave(9L, STUDENT_EMAIL);
+    }
+
     // =================================================================================================
     // 3. GET /reservations/my-reservations (Mis Reservas)
     // =================================================================================================
@@ -170,7 +284,7 @@ class ReservationControllerUnitTest {
     @DisplayName("getMyReservations() debe devolver 200 OK y llamar al servicio")
     void getMyReservations_ShouldReturnOk() throws Exception {
         ReservationDto.MyReservationsResponse mockResponse = new ReservationDto.MyReservationsResponse(
-                null, Collections.emptyList(), Collections.emptyList()
+                null, Collections.emptyList(), Collections.emptyList(), null
         );
         
         when(reservationService.getMyReservations(STUDENT_EMAIL)).thenReturn(mockResponse);
@@ -225,12 +339,43 @@ class ReservationControllerUnitTest {
     void getByRoom_ShouldReturnOk() throws Exception {
         Long roomId = 1L;
         // Asumiendo que el endpoint getByRoom está protegido por seguridad en el código de la aplicación.
-        when(reservationService.getReservationsByRoom(roomId, ADMIN_EMAIL)).thenReturn(List.of());
+        when(reservationService.getReservationsByRoom(roomId, ADMIN_EMAIL, null, null))
+                .thenReturn(new ReservationDto.CursorPage<>(List.of(), null));
 
         mockMvc.perform(get("/api/v1/room/{roomId}", roomId)
                         .with(adminLogin))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isArray());
         
-        verify(reservationService).getReservationsByRoom(roomId, ADMIN_EMAIL);
+        verify(reservationService).getReservationsByRoom(roomId, ADMIN_EMAIL, null, null);
+    }
+
+    @Test
+    @DisplayName("getRoomHistory() debe pasar el cursor y el tamaño al servicio")
+    void getRoomHistory_ShouldPassCursor() throws Exception {
+        Long roomId = 1L;
+        when(reservationService.getRoomHistory(roomId, ADMIN_EMAIL, "abc", 10))
+                .thenReturn(new ReservationDto.CursorPage<>(List.of(), "def"));
+
+        mockMvc.perform(get("/api/v1/room/{roomId}/history", roomId)
+                        .param("cursor", "abc")
+                        .param("size", "10")
+                        .with(adminLogin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
+    @Test
+    @DisplayName("getMyPastReservations() debe devolver la página del historial")
+    void getMyPastReservations_ShouldReturnOk() throws Exception {
+        when(reservationService.getMyPastReservations(STUDENT_EMAIL, "abc", null))
+                .thenReturn(new ReservationDto.CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/reservations/my-reservations/past")
+                        .param("cursor", "abc")
+                        .with(studentLogin))
+                .andExpect(status().isOk());
+
+        verify(reservationService).getMyPastReservations(STUDENT_EMAIL, "abc", null);
     }
 }
\ No newline at end of file
@@ -3,12 +3,14 @@ package bookfronterab.controller;
 import bookfronterab.model.User;
 import bookfronterab.model.UserRole;
 import bookfronterab.repo.UserRepository;
+import bookfronterab.service.UserIdentityCache;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
@@ -29,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
+@Import(UserIdentityCache.class)
 @AutoConfigureMockMvc(addFilters = false)
 class UserControllerUnitTest {
 
@@ -38,12 +41,17 @@ class UserControllerUnitTest {
     @MockitoBean
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
     // Variables para simular la seguridad compleja
     private OAuth2User oauth2UserMock;
     private OAuth2AuthenticationToken oauth2AuthToken;
 
     @BeforeEach
     void setUp() {
+        userIdentityCache.invalidateAll();
+
         // 1. Preparamos el usuario OAuth2 (el "Principal")
         oauth2UserMock = mock(OAuth2User.class);
         when(oauth2UserMock.getAttribute("email")).thenReturn("student@test.com");
@@ -84,6 +92,28 @@ class UserControllerUnitTest {
                 .andExpect(jsonPath("$.rol").value("STUDENT"));
     }
 
+    @Test
+    void getMe_DeberiaUsarLaCache_YToggleRoleInvalidarla() throws Exception {
+        User userEntity = new User();
+        userEntity.setId(1L);
+        userEntity.setEmail("student@test.com");
+        userEntity.setNombre("Juan Perez");
+        userEntity.setRol(UserRole.STUDENT);
+        when(userRepository.findByEmail("student@test.com")).thenReturn(Optional.of(userEntity));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(get("/api/v1/users/me")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/users/me")).andExpect(status().isOk());
+        verify(userRepository, times(1)).findByEmail("student@test.com");
+
+        // El cambio de rol invalida la entrada: la siguiente consulta ve el rol nuevo
+        mockMvc.perform(patch("/api/v1/users/toggle-role")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/users/me"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rol").value("ADMIN"));
+        verify(userRepository, times(3)).findByEmail("student@test.com");
+    }
+
     @Test
     void getMe_DeberiaRetornarNotFound_CuandoNoExisteEnBD() throws Exception {
         // El usuario está logueado en Google, pero no existe en nuestra BD local
@@ -0,0 +1,32 @@
+package bookfronterab.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationCursorTest {
+
+    @Test
+    @DisplayName("encode() y decode() conservan el instante y el ID")
+    void encodeDecode_ShouldRoundTrip() {
+        ZonedDateTime startAt = ZonedDateTime.of(2025, 3, 10, 10, 30, 0, 0, ZoneId.of("America/Santiago"));
+        ReservationCursor cursor = new ReservationCursor(startAt, 42L);
+
+        ReservationCursor decoded = ReservationCursor.decode(cursor.encode());
+
+        assertEquals(startAt.toInstant(), decoded.startAt().toInstant());
+        assertEquals(42L, decoded.id());
+    }
+
+    @Test
+    @DisplayName("decode() rechaza cursores malformados con IllegalArgumentException")
+    void decode_ShouldRejectInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> ReservationCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> ReservationCursor.decode("c2luLXNlcGFyYWRvcg"));
+        assertThrows(IllegalArgumentException.class, () -> ReservationCursor.decode("eHx5"));
+    }
+}
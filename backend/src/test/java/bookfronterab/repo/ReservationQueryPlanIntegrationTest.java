@@ -0,0 +1,125 @@
+package bookfronterab.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Verifica con {@code EXPLAIN} que las consultas de {@link ReservationRepository} usan los índices
+ * de las migraciones de Flyway y no recorren completas las tablas grandes.
+ * <p>
+ * El esquema lo crean solo las migraciones ({@code ddl-auto=validate}), así el test también
+ * comprueba que {@code V1__baseline_schema.sql} coincide con las entidades.
+ * Las consultas son el SQL equivalente al JPQL de cada método del repositorio.
+ */
+@Testcontainers
+@SpringBootTest
+class ReservationQueryPlanIntegrationTest {
+
+    private static final int ROOMS = 20;
+    private static final int USERS = 5_000;
+    private static final int RESERVATIONS = 400_000;
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("bookfronterab-test")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("bookfrontera.calendar-outbox.poll-ms", () -> "3600000");
+    }
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Siembra una sola vez ~7 años de historial (una reserva cada 10 minutos) que termina
+     * un mes en el futuro, y actualiza las estadísticas del planificador.
+     */
+    @BeforeEach
+    void seed() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT count(*) FROM reservations", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        jdbcTemplate.update("""
+                INSERT INTO rooms (id, name, capacity, floor)
+                SELECT g, 'Sala ' || g, 10, 1 FROM generate_series(1, ?) g
+                """, ROOMS);
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, nombre, rol)
+                SELECT g, 'u' || g || '@ufromail.cl', 'Usuario ' || g, 'STUDENT' FROM generate_series(1, ?) g
+                """, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO reservations (id, room_id, user_id, start_at, end_at)
+                SELECT g, 1 + g % ?, 1 + g % ?,
+                       date_trunc('hour', now()) + interval '1 month' - (? - g) * interval '10 minutes',
+                       date_trunc('hour', now()) + interval '1 month' - (? - g) * interval '10 minutes' + interval '1 hour'
+                FROM generate_series(1, ?) g
+                """, ROOMS, USERS, RESERVATIONS, RESERVATIONS, RESERVATIONS);
+        jdbcTemplate.execute("ANALYZE rooms");
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE reservations");
+    }
+
+    static Stream<String> repositoryQueries() {
+        String tomorrow = "date_trunc('day', now()) + interval '1 day'";
+        String detail = "SELECT r.*, u.*, ro.* FROM reservations r JOIN users u ON u.id = r.user_id JOIN rooms ro ON ro.id = r.room_id ";
+        return Stream.of(
+                // findConflictingReservations
+                "SELECT * FROM reservations r WHERE r.room_id = 3 AND r.start_at < " + tomorrow + " + interval '11 hours' " +
+                        "AND r.end_at > " + tomorrow + " + interval '10 hours'",
+                // findAllReservationsBetween (un día)
+                "SELECT * FROM reservations r WHERE r.start_at < " + tomorrow + " + interval '1 day' AND r.end_at > " + tomorrow,
+                // ReservationWeekCounterRepository.initialize (conteo inicial de la semana)
+                "SELECT count(*) FROM reservations r WHERE r.user_id = 42 " +
+                        "AND r.start_at >= " + tomorrow + " AND r.start_at < " + tomorrow + " + interval '7 days'",
+                // findUpcomingByUserEmail
+                detail + "WHERE u.email = 'u42@ufromail.cl' AND r.end_at > now() ORDER BY r.start_at, r.id",
+                // findPastPageByUserEmail
+                detail + "WHERE u.email = 'u42@ufromail.cl' AND r.end_at <= now() " +
+                        "AND (r.start_at < now() OR (r.start_at = now() AND r.id < 9223372036854775807)) " +
+                        "ORDER BY r.start_at DESC, r.id DESC LIMIT 21",
+                // findUpcomingPageByRoomId
+                detail + "WHERE r.room_id = 3 AND r.end_at > now() " +
+                        "AND (r.start_at > 'epoch' OR (r.start_at = 'epoch' AND r.id > 0)) ORDER BY r.start_at, r.id LIMIT 21",
+                // findPastPageByRoomId
+                detail + "WHERE r.room_id = 3 AND r.end_at <= now() " +
+                        "AND (r.start_at < now() OR (r.start_at = now() AND r.id < 9223372036854775807)) " +
+                        "ORDER BY r.start_at DESC, r.id DESC LIMIT 21"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("repositoryQueries")
+    @DisplayName("Las consultas de reservas no hacen Seq Scan sobre reservations (ni sobre users al filtrar por email)")
+    void query_ShouldUseIndexes(String sql) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        String text = String.join("\n", plan);
+
+        assertFalse(text.contains("Seq Scan on reservations"), () -> "Seq Scan en reservations:\n" + sql + "\n" + text);
+        if (sql.contains("u.email")) {
+            assertFalse(text.contains("Seq Scan on users"), () -> "Seq Scan en users:\n" + sql + "\n" + text);
+        }
+    }
+}
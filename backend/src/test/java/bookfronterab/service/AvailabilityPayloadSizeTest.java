@@ -0,0 +1,98 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.AvailabilityDto;
+import bookfronterab.model.Room;
+import bookfronterab.repo.RoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compara el tamaño de la grilla JSON clásica contra la representación compacta
+ * (máscara de bits por sala) con 100 salas. Los tiempos de serialización se miden con JMH
+ * ({@code AvailabilityBenchmark}, perfil {@code benchmarks} del pom), no aquí.
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailabilityPayloadSizeTest {
+
+    private static final int ROOMS = 100;
+    private static final LocalDate TEST_DATE = LocalDate.of(2025, 11, 20);
+
+    @Mock
+    private RoomRepository roomRepo;
+
+    @Mock
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Mock
+    private TimeService timeService;
+
+    private AvailabilityService availabilityService;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @BeforeEach
+    void setUp() {
+        List<Room> rooms = LongStream.rangeClosed(1, ROOMS)
+                .mapToObj(id -> Room.builder().id(id).name("Sala " + id).capacity(10).floor(1)
+                        .equipment(List.of("TV", "Pizarra")).build())
+                .toList();
+        when(roomRepo.findAll()).thenReturn(rooms);
+
+        // Una de cada tres salas con la mañana ocupada (08:00-12:00)
+        Map<Long, long[]> occupancy = new HashMap<>();
+        for (long id = 1; id <= ROOMS; id += 3) {
+            long[] bits = new long[23];
+            for (int m = 480; m < 720; m++) {
+                bits[m >>> 6] |= 1L << (m & 63);
+            }
+            occupancy.put(id, bits);
+        }
+        when(occupancyIndex.getDay(TEST_DATE)).thenReturn(occupancy);
+
+        availabilityService = new AvailabilityService(new RoomCatalog(roomRepo), occupancyIndex,
+                new ReservationHoldIndex(timeService), timeService, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("La grilla compacta es equivalente y mucho más liviana que la clásica")
+    void compactEncoding_ShouldBeEquivalentAndSmaller() throws Exception {
+        AvailabilityDto.DailyAvailabilityResponse full = availabilityService.getDailyAvailability(TEST_DATE);
+        AvailabilityDto.CompactDailyAvailabilityResponse compact = availabilityService.getCompactDailyAvailability(TEST_DATE);
+
+        // Equivalencia celda a celda
+        int slots = full.getSlots().size();
+        for (int r = 0; r < ROOMS; r++) {
+            for (int s = 0; s < slots; s++) {
+                boolean expected = full.getAvailability().get(r * slots + s).isAvailable();
+                assertEquals(expected, (compact.getAvailability()[r] & (1L << s)) != 0);
+            }
+        }
+
+        // Solo la matriz: las salas y los bloques son iguales en ambas representaciones
+        byte[] fullMatrix = objectMapper.writeValueAsBytes(full.getAvailability());
+        byte[] compactMatrix = objectMapper.writeValueAsBytes(compact.getAvailability());
+        byte[] fullPayload = objectMapper.writeValueAsBytes(full);
+        byte[] compactPayload = objectMapper.writeValueAsBytes(compact);
+
+        assertTrue(compactMatrix.length * 20 < fullMatrix.length, "La matriz compacta debería ser al menos 20 veces más pequeña");
+        assertTrue(compactPayload.length * 2 < fullPayload.length, "La respuesta compacta debería pesar menos de la mitad");
+    }
+}
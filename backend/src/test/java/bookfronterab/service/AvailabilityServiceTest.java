@@ -60,6 +60,8 @@ class AvailabilityServiceTest {
     @Autowired private RoomRepository roomRepository;
     @Autowired private ReservationRepository reservationRepository;
     @Autowired private UserRepository userRepository;
+    @Autowired private RoomOccupancyIndex occupancyIndex;
+    @Autowired private RoomCatalog roomCatalog;
 
     private static final LocalDate TEST_DATE = LocalDate.of(2025, 11, 20);
     private static final ZoneId TEST_ZONE = ZoneId.of("America/Santiago");
@@ -75,6 +77,10 @@ class AvailabilityServiceTest {
         userRepository.deleteAllInBatch();
 
         when(timeService.zone()).thenReturn(TEST_ZONE);
+        when(timeService.nowOffset()).thenReturn(TEST_DATE.atTime(8, 0).atZone(TEST_ZONE).toOffsetDateTime());
+        // Las reservas de estos tests se guardan directo en el repositorio (sin pasar por
+        // ReservationService), así que el índice en memoria debe recargarse desde la BD.
+        occupancyIndex.invalidateAll();
 
         testUser = userRepository.save(User.builder()
                 .email("test@example.com")
@@ -84,6 +90,8 @@ class AvailabilityServiceTest {
 
         roomA = roomRepository.save(Room.builder().name("Sala A").capacity(10).floor(1).equipment(List.of("TV")).build());
         roomB = roomRepository.save(Room.builder().name("Sala B").capacity(5).floor(2).equipment(List.of("Pizarra")).build());
+        // Igual que las reservas, las salas se guardan directo: el catálogo en memoria se recarga
+        roomCatalog.refresh();
     }
 
     @AfterEach
@@ -161,6 +169,22 @@ class AvailabilityServiceTest {
         assertEquals(11, slotsOcupadosRoomB, "Todos los slots de la Sala B debían estar ocupados");
     }
 
+    @Test
+    @DisplayName("El ETag depende del contenido: se mantiene tras recargar el índice y cambia con una reserva")
+    void getAvailabilityETag_ShouldDependOnContentOnly() {
+        String initial = availabilityService.getAvailabilityETag(TEST_DATE);
+
+        // Recargar el índice y el catálogo (como tras el TTL o un reinicio) no cambia la grilla ni su ETag
+        occupancyIndex.invalidateAll();
+        roomCatalog.refresh();
+        assertEquals(initial, availabilityService.getAvailabilityETag(TEST_DATE));
+
+        crearReserva(roomA, ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE),
+                ZonedDateTime.of(TEST_DATE, LocalTime.of(9, 30), TEST_ZONE));
+        occupancyIndex.invalidateAll();
+        assertNotEquals(initial, availabilityService.getAvailabilityETag(TEST_DATE));
+    }
+
     private void crearReserva(Room room, ZonedDateTime startAt, ZonedDateTime endAt) {
         Reservation res = Reservation.builder()
                 .room(room)
@@ -209,4 +233,51 @@ class AvailabilityServiceTest {
         
         assertEquals(0, occupiedSlots, "Ningún slot de la Sala A debería estar ocupado por una reserva en el gap.");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("El rango de días debe devolver una matriz por día con las reservas de cada uno")
+    void getRangeAvailability_ShouldReturnOneMatrixPerDay() {
+        LocalDate nextDay = TEST_DATE.plusDays(1);
+        crearReserva(roomA,
+                ZonedDateTime.of(nextDay, LocalTime.of(8, 30), TEST_ZONE),
+                ZonedDateTime.of(nextDay, LocalTime.of(9, 30), TEST_ZONE));
+
+        AvailabilityDto.RangeAvailabilityResponse response = availabilityService.getRangeAvailability(TEST_DATE, TEST_DATE.plusDays(2));
+
+        assertEquals(3, response.getDays().size());
+        assertEquals(11, response.getSlots().size());
+        assertEquals(TEST_DATE, response.getDays().get(0).getDate());
+
+        String roomAId = String.valueOf(roomA.getId());
+        assertTrue(response.getDays().get(0).getAvailability().stream()
+                .allMatch(AvailabilityDto.AvailabilityMatrixItemDto::isAvailable));
+        assertTrue(response.getDays().get(1).getAvailability().stream()
+                .anyMatch(item -> item.getRoomId().equals(roomAId) && item.getSlotId().equals("08:30-09:30") && !item.isAvailable()));
+    }
+
+    @Test
+    @DisplayName("Un rango mayor a 3 meses debe ser rechazado")
+    void getRangeAvailability_WhenRangeTooLong_ShouldThrow() {
+        LocalDate to = TEST_DATE.plusMonths(3).plusDays(1);
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.getRangeAvailability(TEST_DATE, to));
+    }
+
+    @Test
+    @DisplayName("Un rango en el pasado debe ser rechazado aunque sea corto")
+    void getRangeAvailability_WhenRangeInPast_ShouldThrow() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.getRangeAvailability(from, from.plusMonths(3)));
+        LocalDate yesterday = TEST_DATE.minusDays(1);
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.getRangeAvailability(yesterday, TEST_DATE));
+    }
+
+    @Test
+    @DisplayName("Un rango más allá del horizonte de 3 meses debe ser rechazado aunque sea corto")
+    void getRangeAvailability_WhenRangeBeyondHorizon_ShouldThrow() {
+        LocalDate from = LocalDate.of(2090, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.getRangeAvailability(from, from.plusDays(2)));
+        LocalDate lastDay = TEST_DATE.plusMonths(3);
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.getRangeAvailability(lastDay, lastDay.plusDays(1)));
+        assertDoesNotThrow(() -> availabilityService.getRangeAvailability(lastDay.minusDays(1), lastDay));
+    }
+}
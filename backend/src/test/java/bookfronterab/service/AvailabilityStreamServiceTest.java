@@ -0,0 +1,227 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.AvailabilityDto;
+import bookfronterab.exception.StreamCapacityException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamServiceTest {
+
+    private static final ZoneId TEST_ZONE = ZoneId.of("America/Santiago");
+    private static final LocalDate TEST_DATE = LocalDate.of(2025, 11, 20);
+    private static final int QUEUE_CAPACITY = 4;
+    private static final long WRITE_TIMEOUT_MS = 200;
+    private static final int MAX_SUBSCRIBERS = 3;
+    private static final int MAX_SUBSCRIBERS_PER_DAY = 2;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private TimeService timeService;
+
+    private AvailabilityStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(timeService.zone()).thenReturn(TEST_ZONE);
+        streamService = new AvailabilityStreamService(availabilityService, timeService, 30, QUEUE_CAPACITY, WRITE_TIMEOUT_MS,
+                MAX_SUBSCRIBERS, MAX_SUBSCRIBERS_PER_DAY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Unitario: subscribe registra la conexión para el día pedido")
+    void subscribe_ShouldRegisterEmitter() {
+        SseEmitter emitter = streamService.subscribe(TEST_DATE);
+
+        assertNotNull(emitter);
+        assertEquals(1, streamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Unitario: subscribe rechaza un día fuera del horizonte de reservas")
+    void subscribe_ShouldRejectDateOutsideHorizon() {
+        LocalDate farAway = TEST_DATE.plusYears(1);
+        doThrow(new IllegalArgumentException("Fuera del horizonte")).when(availabilityService).requireWithinHorizon(farAway);
+
+        assertThrows(IllegalArgumentException.class, () -> streamService.subscribe(farAway));
+        assertEquals(0, streamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Unitario: se rechaza una conexión más allá del máximo por día")
+    void register_ShouldRejectWhenDayIsFull() {
+        for (int i = 0; i < MAX_SUBSCRIBERS_PER_DAY; i++) {
+            streamService.register(TEST_DATE, new RecordingEmitter());
+        }
+
+        assertThrows(StreamCapacityException.class, () -> streamService.register(TEST_DATE, new RecordingEmitter()));
+        assertDoesNotThrow(() -> streamService.register(TEST_DATE.plusDays(1), new RecordingEmitter()));
+        assertEquals(MAX_SUBSCRIBERS_PER_DAY + 1, streamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Unitario: se rechaza una conexión más allá del máximo total")
+    void register_ShouldRejectWhenGlobalLimitReached() {
+        for (int i = 0; i < MAX_SUBSCRIBERS; i++) {
+            streamService.register(TEST_DATE.plusDays(i), new RecordingEmitter());
+        }
+
+        assertThrows(StreamCapacityException.class,
+                () -> streamService.register(TEST_DATE.plusDays(MAX_SUBSCRIBERS), new RecordingEmitter()));
+        assertEquals(MAX_SUBSCRIBERS, streamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Unitario: publish no calcula cambios si nadie observa ese día")
+    void publish_ShouldSkipWhenNoSubscribers() {
+        streamService.subscribe(TEST_DATE.plusDays(3));
+
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE);
+        streamService.publish(1L, start, start.plusHours(1));
+
+        verifyNoInteractions(availabilityService);
+    }
+
+    @Test
+    @DisplayName("Unitario: publish calcula los bloques afectados cuando hay suscriptores")
+    void publish_ShouldComputeChangesWhenSubscribed() {
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE);
+        when(availabilityService.getSlotChanges(any(), any(), any())).thenReturn(List.of(
+                new AvailabilityDto.SlotChangeDto(TEST_DATE, "1", "08:30-09:30", false)
+        ));
+        streamService.subscribe(TEST_DATE);
+
+        streamService.publish(1L, start, start.plusHours(1));
+
+        verify(availabilityService, timeout(1000)).getSlotChanges(1L, start, start.plusHours(1));
+    }
+
+    @Test
+    @DisplayName("Unitario: un cliente que dejó de leer no retrasa los eventos de los demás")
+    void publish_ShouldReachOtherSubscribersWhileOneIsStalled() throws Exception {
+        stubSlotChange();
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter recording = new RecordingEmitter();
+        streamService.register(TEST_DATE, stalled);
+        streamService.register(TEST_DATE, recording);
+
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE);
+        streamService.publish(1L, start, start.plusHours(1));
+        assertTrue(stalled.sending.await(1, TimeUnit.SECONDS));
+        streamService.publish(1L, start, start.plusHours(1));
+        streamService.heartbeat();
+
+        assertNotNull(recording.sent.poll(1, TimeUnit.SECONDS));
+        assertNotNull(recording.sent.poll(1, TimeUnit.SECONDS));
+        assertNotNull(recording.sent.poll(1, TimeUnit.SECONDS)); // heartbeat
+        assertEquals(2, streamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Unitario: se desconecta al cliente cuya cola de eventos se llena")
+    void publish_ShouldDropSubscriberThatFallsBehind() throws Exception {
+        stubSlotChange();
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter recording = new RecordingEmitter();
+        streamService.register(TEST_DATE, stalled);
+        streamService.register(TEST_DATE, recording);
+
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE);
+        streamService.publish(1L, start, start.plusHours(1));
+        assertTrue(stalled.sending.await(1, TimeUnit.SECONDS));
+        // El primer evento quedó bloqueado en el envío; estos llenan la cola y el último ya no cabe
+        for (int i = 0; i <= QUEUE_CAPACITY; i++) {
+            streamService.publish(1L, start, start.plusHours(1));
+        }
+
+        assertEquals(1, streamService.getSubscriberCount());
+        for (int i = 0; i < QUEUE_CAPACITY + 2; i++) {
+            assertNotNull(recording.sent.poll(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Unitario: el heartbeat desconecta al cliente con un envío bloqueado más del tiempo máximo")
+    void heartbeat_ShouldDropSubscriberStuckLongerThanWriteTimeout() throws Exception {
+        stubSlotChange();
+        StalledEmitter stalled = new StalledEmitter();
+        streamService.register(TEST_DATE, stalled);
+
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE);
+        streamService.publish(1L, start, start.plusHours(1));
+        assertTrue(stalled.sending.await(1, TimeUnit.SECONDS));
+
+        streamService.heartbeat();
+        assertEquals(1, streamService.getSubscriberCount());
+
+        Thread.sleep(WRITE_TIMEOUT_MS + 100);
+        streamService.heartbeat();
+
+        assertEquals(0, streamService.getSubscriberCount());
+        assertTrue(stalled.interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    private void stubSlotChange() {
+        when(availabilityService.getSlotChanges(any(), any(), any())).thenReturn(List.of(
+                new AvailabilityDto.SlotChangeDto(TEST_DATE, "1", "08:30-09:30", false)
+        ));
+    }
+
+    /**
+     * Emisor de un cliente que dejó de leer: el envío queda bloqueado hasta que se interrumpe.
+     */
+    private static final class StalledEmitter extends SseEmitter {
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IOException("Envío interrumpido", e);
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+    }
+}
@@ -3,11 +3,11 @@ package bookfronterab.service;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.Uploader;
 import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
@@ -29,9 +29,9 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class CloudinaryServiceTest {
 
-    // Inyecta los mocks en la clase a probar
-    @InjectMocks
+    // Se construye en setUp con el mock de Cloudinary y un registro de métricas en memoria
     private CloudinaryService cloudinaryService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     // Mockea la dependencia externa
     @Mock
@@ -50,6 +50,7 @@ class CloudinaryServiceTest {
     void setUp() {
         // Configuramos la cadena de llamadas antes de cada test: cloudinary.uploader() -> uploader
         when(cloudinary.uploader()).thenReturn(uploader);
+        cloudinaryService = new CloudinaryService(cloudinary, meterRegistry);
 
         // Creamos un archivo simulado (MockMultipartFile)
         mockFile = new MockMultipartFile(
@@ -85,6 +86,9 @@ class CloudinaryServiceTest {
         // 4. Verificar la interacción (Opcional, pero bueno):
         // Verificamos que uploader.upload fue llamado una vez con los argumentos correctos.
         verify(uploader).upload(mockFile.getBytes(), ObjectUtils.emptyMap());
+
+        // 5. La subida queda registrada en la métrica de duración
+        assertEquals(1, meterRegistry.get("bookfrontera.cloudinary.upload").tag("outcome", "success").timer().count());
     }
 
     @Test
@@ -0,0 +1,116 @@
+package bookfronterab.service;
+
+import bookfronterab.model.IdempotencyKey;
+import bookfronterab.repo.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyServiceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 3, 3, 10, 0, 0, 0, ZoneOffset.ofHours(-3));
+    private static final String EMAIL = "student@ufromail.cl";
+
+    @Mock private IdempotencyKeyRepository idempotencyKeyRepo;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private TimeService timeService;
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyKeyRepo, transactionTemplate, timeService, 24, 100);
+        when(timeService.nowOffset()).thenReturn(NOW);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Sin clave la operación se ejecuta siempre")
+    void execute_WithoutKey_ShouldAlwaysRun() {
+        assertFalse(idempotencyService.execute(EMAIL, null, "op", "body", executions::incrementAndGet));
+        assertFalse(idempotencyService.execute(EMAIL, null, "op", "body", executions::incrementAndGet));
+
+        assertEquals(2, executions.get());
+        verifyNoInteractions(idempotencyKeyRepo);
+    }
+
+    @Test
+    @DisplayName("Un reintento con la misma clave se responde desde la caché sin ejecutar ni consultar la BD")
+    void execute_Retry_ShouldReplayFromCache() {
+        when(idempotencyKeyRepo.claim(eq(EMAIL), eq("k1"), anyString(), eq(NOW), eq(NOW.plusHours(24)))).thenReturn(1);
+
+        assertFalse(idempotencyService.execute(EMAIL, "k1", "op", "body", executions::incrementAndGet));
+        assertTrue(idempotencyService.execute(EMAIL, "k1", "op", "body", executions::incrementAndGet));
+
+        assertEquals(1, executions.get());
+        verify(idempotencyKeyRepo, times(1)).claim(anyString(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Si otra instancia ya registró la clave, se responde con el resultado guardado")
+    void execute_KeyClaimedElsewhere_ShouldReplayFromDatabase() {
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        when(idempotencyKeyRepo.claim(eq(EMAIL), eq("k2"), hash.capture(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepo.findById(new IdempotencyKey.Key(EMAIL, "k2"))).thenAnswer(inv -> Optional.of(
+                IdempotencyKey.builder().requestHash(hash.getValue()).expiresAt(NOW.plusHours(1)).build()));
+
+        assertTrue(idempotencyService.execute(EMAIL, "k2", "op", "body", executions::incrementAndGet));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    @DisplayName("Reutilizar la clave con otra solicitud lanza IllegalArgumentException")
+    void execute_SameKeyDifferentRequest_ShouldFail() {
+        when(idempotencyKeyRepo.claim(anyString(), anyString(), anyString(), any(), any())).thenReturn(1);
+        idempotencyService.execute(EMAIL, "k3", "op", "body", executions::incrementAndGet);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                idempotencyService.execute(EMAIL, "k3", "op", "otro body", executions::incrementAndGet));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Si la operación falla, la clave no queda en caché y el reintento se ejecuta")
+    void execute_FailedAction_ShouldNotBeCached() {
+        when(idempotencyKeyRepo.claim(anyString(), anyString(), anyString(), any(), any())).thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(EMAIL, "k4", "op", "body", () -> {
+            throw new IllegalStateException("Límite alcanzado");
+        }));
+        assertFalse(idempotencyService.execute(EMAIL, "k4", "op", "body", executions::incrementAndGet));
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Una clave vacía o demasiado larga lanza IllegalArgumentException")
+    void execute_InvalidKey_ShouldFail() {
+        String tooLong = "x".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(EMAIL, " ", "op", "body", executions::incrementAndGet));
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(EMAIL, tooLong, "op", "body", executions::incrementAndGet));
+        assertEquals(0, executions.get());
+    }
+}
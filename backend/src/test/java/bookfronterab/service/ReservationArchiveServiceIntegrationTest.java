@@ -0,0 +1,162 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.Reservation;
+import bookfronterab.model.Room;
+import bookfronterab.model.User;
+import bookfronterab.model.UserRole;
+import bookfronterab.repo.ArchivedReservationRepository;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.RoomRepository;
+import bookfronterab.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba el archivado de reservas antiguas y que el historial paginado continúe en el archivo.
+ * El esquema lo crean las migraciones ({@code ddl-auto=validate}), así el archivo está particionado por mes.
+ */
+@Testcontainers
+@SpringBootTest
+class ReservationArchiveServiceIntegrationTest {
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("bookfronterab-test")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("bookfrontera.calendar-outbox.poll-ms", () -> "3600000");
+        registry.add("bookfrontera.reservations.archive.retention-days", () -> "365");
+        // Lotes chicos para ejercitar el bucle de lotes
+        registry.add("bookfrontera.reservations.archive.batch-size", () -> "2");
+    }
+
+    @Autowired private ReservationArchiveService archiveService;
+    @Autowired private ReservationService reservationService;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private ArchivedReservationRepository archivedReservationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserIdentityCache userIdentityCache;
+
+    private User student;
+    private List<Reservation> old;
+    private List<Reservation> recent;
+
+    @BeforeEach
+    void setUp() {
+        userIdentityCache.invalidateAll();
+        student = userRepository.save(User.builder().email("archivo@ufromail.cl").nombre("Estudiante").rol(UserRole.STUDENT).build());
+        Room room = roomRepository.save(Room.builder().name("Sala Archivo").capacity(6).floor(1).equipment(new ArrayList<>()).build());
+
+        ZonedDateTime base = ZonedDateTime.now().withMinute(0).withSecond(0).withNano(0);
+        old = new ArrayList<>();
+        recent = new ArrayList<>();
+        // 3 reservas de hace más de un año, en meses distintos (varias particiones)
+        for (int i = 0; i < 3; i++) {
+            ZonedDateTime start = base.minusDays(400 + 40L * i);
+            old.add(reservationRepository.save(Reservation.builder().user(student).room(room).startAt(start).endAt(start.plusHours(1)).build()));
+        }
+        // 2 reservas pasadas dentro de la retención y 1 futura
+        for (int i = 0; i < 2; i++) {
+            ZonedDateTime start = base.minusDays(10 + i);
+            recent.add(reservationRepository.save(Reservation.builder().user(student).room(room).startAt(start).endAt(start.plusHours(1)).build()));
+        }
+        ZonedDateTime future = base.plusDays(5);
+        reservationRepository.save(Reservation.builder().user(student).room(room).startAt(future).endAt(future.plusHours(1)).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM registry");
+        jdbcTemplate.update("DELETE FROM reservations_archive");
+        reservationRepository.deleteAllInBatch();
+        roomRepository.deleteAll();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("archiveOldReservations() mueve solo las reservas anteriores a la retención, en particiones mensuales")
+    void archive_ShouldMoveOnlyReservationsOlderThanRetention() {
+        assertEquals(3, archiveService.archiveOldReservations());
+
+        assertEquals(3, reservationRepository.count());
+        assertEquals(3, archivedReservationRepository.count());
+        old.forEach(r -> assertTrue(reservationRepository.findById(r.getId()).isEmpty()));
+
+        Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'reservations_archive'::regclass", Integer.class);
+        assertNotNull(partitions);
+        assertTrue(partitions >= 3, "Debería existir una partición por cada mes archivado");
+
+        // Volver a ejecutarlo no mueve nada
+        assertEquals(0, archiveService.archiveOldReservations());
+    }
+
+    @Test
+    @DisplayName("Una reserva referenciada desde registry también se archiva y registry conserva su ID")
+    void archive_ShouldMoveReservationsReferencedFromRegistry() {
+        Long referenced = old.get(0).getId();
+        jdbcTemplate.update("INSERT INTO registry (id_registry, reservation_id, state) VALUES (1, ?, 'CREATED')", referenced);
+
+        assertEquals(3, archiveService.archiveOldReservations());
+
+        assertTrue(reservationRepository.findById(referenced).isEmpty());
+        assertEquals(referenced, jdbcTemplate.queryForObject(
+                "SELECT reservation_id FROM registry WHERE id_registry = 1", Long.class));
+        // Nada anterior al límite queda en la tabla principal: el historial puede continuar en el archivo
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM reservations WHERE start_at < ?",
+                Integer.class, archiveService.cutoff().toOffsetDateTime()));
+    }
+
+    @Test
+    @DisplayName("El historial paginado continúa en el archivo sin repetir ni saltar reservas")
+    void history_ShouldContinueIntoArchive() {
+        archiveService.archiveOldReservations();
+
+        List<Long> ids = new ArrayList<>();
+        ReservationDto.MyReservationsResponse first = reservationService.getMyReservations(student.getEmail());
+        first.past().forEach(detail -> ids.add(detail.id()));
+        assertNull(first.pastNextCursor());
+
+        String cursor = null;
+        List<Long> paged = new ArrayList<>();
+        do {
+            ReservationDto.CursorPage<ReservationDto.Detail> page =
+                    reservationService.getMyPastReservations(student.getEmail(), cursor, 2);
+            page.items().forEach(detail -> paged.add(detail.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = new ArrayList<>();
+        recent.forEach(r -> expected.add(r.getId()));
+        old.forEach(r -> expected.add(r.getId()));
+        assertEquals(expected, ids);
+        assertEquals(expected, paged);
+    }
+}
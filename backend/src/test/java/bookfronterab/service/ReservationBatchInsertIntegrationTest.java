@@ -0,0 +1,137 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.Room;
+import bookfronterab.model.User;
+import bookfronterab.model.UserRole;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.RoomRepository;
+import bookfronterab.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los INSERT masivos (creación masiva de reservas e importación de salas) usen IDs "pooled"
+ * y lotes JDBC: la cantidad de sentencias preparadas crece por lote y no por fila.
+ * El rendimiento (filas/s) se mide aparte en {@link ReservationBatchInsertBenchmarkTest}.
+ */
+@Testcontainers
+@SpringBootTest
+class ReservationBatchInsertIntegrationTest {
+
+    private static final int BULK_ROOMS = 4;
+    private static final int BULK_DAYS = 5;
+    private static final int BULK_HOURS_PER_DAY = 5;
+    private static final int IMPORTED_ROOMS = 100;
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("bookfronterab-test")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        // Evita que el dispatcher del outbox ejecute consultas durante la medición
+        registry.add("bookfrontera.calendar-outbox.poll-ms", () -> "3600000");
+    }
+
+    @Autowired private ReservationService reservationService;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private UserIdentityCache userIdentityCache;
+
+    private Statistics statistics;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        userIdentityCache.invalidateAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        admin = userRepository.save(User.builder().email("admin-batch@ufromail.cl").nombre("Admin").rol(UserRole.ADMIN).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAllInBatch();
+        roomRepository.deleteAll();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("La creación masiva inserta las reservas en lotes")
+    void bulkReservations_ShouldInsertInBatches() {
+        List<Long> roomIds = new ArrayList<>();
+        for (int i = 0; i < BULK_ROOMS; i++) {
+            roomIds.add(roomRepository.save(Room.builder().name("Sala " + i).capacity(6).floor(1).build()).getId());
+        }
+        ZonedDateTime firstDay = ZonedDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        List<ReservationDto.Interval> intervals = new ArrayList<>();
+        for (int day = 0; day < BULK_DAYS; day++) {
+            for (int hour = 0; hour < BULK_HOURS_PER_DAY; hour++) {
+                ZonedDateTime start = firstDay.plusDays(day).plusHours(hour);
+                intervals.add(new ReservationDto.Interval(start, start.plusHours(1)));
+            }
+        }
+        int rows = BULK_ROOMS * intervals.size();
+        statistics.clear();
+
+        ReservationDto.BulkCreateResponse response = reservationService.createBulk(admin.getEmail(),
+                new ReservationDto.BulkCreateRequest(roomIds, intervals, null, null));
+
+        assertEquals(rows, response.created());
+        assertEquals(rows, reservationRepository.count());
+        assertEquals(rows, statistics.getEntityInsertCount());
+        // Sin lotes ni IDs "pooled" serían al menos 2 sentencias por reserva (nextval + INSERT);
+        // con lotes quedan las 2 por sala (bloqueo y conflictos) más unas pocas por lote
+        assertTrue(statistics.getPrepareStatementCount() < rows / 4,
+                "Sentencias preparadas: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("La importación de salas inserta salas y equipamiento en lotes")
+    void roomImport_ShouldInsertInBatches() {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < IMPORTED_ROOMS; i++) {
+            rooms.add(Room.builder().name("Sala importada " + i).capacity(10).floor(i % 5)
+                    .equipment(new ArrayList<>(List.of("TV", "Pizarra"))).build());
+        }
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> roomRepository.saveAll(rooms));
+
+        assertEquals(IMPORTED_ROOMS, roomRepository.count());
+        assertEquals(IMPORTED_ROOMS, statistics.getEntityInsertCount());
+        // Sin lotes serían 4 sentencias por sala (nextval + sala + 2 filas de equipamiento)
+        assertTrue(statistics.getPrepareStatementCount() < IMPORTED_ROOMS / 5,
+                "Sentencias preparadas: " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,89 @@
+package bookfronterab.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationHoldIndexTest {
+
+    private static final ZoneId TEST_ZONE = ZoneId.of("America/Santiago");
+    private static final LocalDate TEST_DATE = LocalDate.of(2025, 11, 20);
+    private static final ZonedDateTime START = ZonedDateTime.of(TEST_DATE, LocalTime.of(9, 40), TEST_ZONE);
+    private static final OffsetDateTime NOW = START.minusHours(1).toOffsetDateTime();
+
+    @Mock
+    private TimeService timeService;
+
+    private ReservationHoldIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(timeService.zone()).thenReturn(TEST_ZONE);
+        index = new ReservationHoldIndex(timeService);
+    }
+
+    @Test
+    @DisplayName("Unitario: un bloqueo solo bloquea a otros usuarios y cubre su propio intervalo")
+    void find_ShouldDistinguishOwnerFromOthers() {
+        index.put(hold(1L, 10L, 100L, NOW.plusMinutes(2)));
+
+        assertTrue(index.findActiveByOthers(10L, 200L, START.plusMinutes(30), START.plusMinutes(90), NOW).isPresent());
+        assertTrue(index.findActiveByOthers(10L, 100L, START, START.plusHours(1), NOW).isEmpty());
+        assertTrue(index.findActiveByOthers(11L, 200L, START, START.plusHours(1), NOW).isEmpty());
+        assertTrue(index.findActiveCovering(10L, 100L, START, START.plusHours(1), NOW).isPresent());
+        assertTrue(index.findActiveCovering(10L, 100L, START, START.plusHours(2), NOW).isEmpty());
+        // Vencido: ya no bloquea ni se puede confirmar
+        assertTrue(index.findActiveByOthers(10L, 200L, START, START.plusHours(1), NOW.plusMinutes(3)).isEmpty());
+        assertTrue(index.findActiveCovering(10L, 100L, START, START.plusHours(1), NOW.plusMinutes(3)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Unitario: overlay suma los minutos bloqueados sin modificar la ocupación original")
+    void overlay_ShouldMarkHeldMinutes() {
+        long[] reserved = new long[RoomOccupancyIndex.WORDS_PER_DAY];
+        RoomOccupancyIndex.setRange(reserved, 510, 570); // 08:30-09:30
+        Map<Long, long[]> occupancy = Map.of(10L, reserved);
+        assertSame(occupancy, index.overlay(TEST_DATE, occupancy));
+
+        index.put(hold(1L, 10L, 100L, NOW.plusMinutes(2)));
+        Map<Long, long[]> merged = index.overlay(TEST_DATE, occupancy);
+
+        assertTrue(RoomOccupancyIndex.isOccupied(merged.get(10L), 510, 570));
+        assertTrue(RoomOccupancyIndex.isOccupied(merged.get(10L), 580, 640)); // 09:40-10:40
+        assertFalse(RoomOccupancyIndex.isOccupied(reserved, 580, 640));
+        assertSame(occupancy, index.overlay(TEST_DATE.plusDays(1), occupancy));
+    }
+
+    @Test
+    @DisplayName("Unitario: removeExpired quita solo los vencidos")
+    void removeExpired_ShouldRemoveOnlyExpiredHolds() {
+        index.put(hold(1L, 10L, 100L, NOW.plusMinutes(2)));
+        index.put(hold(2L, 10L, 200L, NOW.plusMinutes(10)));
+
+        List<ReservationHoldIndex.Hold> expired = index.removeExpired(NOW.plusMinutes(5));
+
+        assertEquals(1, expired.size());
+        assertEquals(1L, expired.get(0).id());
+        assertTrue(index.findActiveCovering(10L, 200L, START, START.plusHours(1), NOW).isPresent());
+        assertTrue(index.removeExpired(NOW.plusMinutes(5)).isEmpty());
+    }
+
+    private static ReservationHoldIndex.Hold hold(Long id, Long roomId, Long userId, OffsetDateTime expiresAt) {
+        return new ReservationHoldIndex.Hold(id, roomId, userId, START, START.plusHours(1), expiresAt);
+    }
+}
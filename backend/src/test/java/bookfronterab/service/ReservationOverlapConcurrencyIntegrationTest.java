@@ -0,0 +1,195 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.Room;
+import bookfronterab.model.User;
+import bookfronterab.model.UserRole;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.RoomRepository;
+import bookfronterab.repo.UserRepository;
+import bookfronterab.service.google.GoogleCalendarService;
+import bookfronterab.service.google.GoogleCredentialsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de concurrencia del modo "restricción de exclusión":
+ * muchos usuarios intentan reservar exactamente el mismo bloque de la misma sala al mismo tiempo,
+ * sin bloqueo de fila. Solo una reserva debe quedar en la BD y el resto debe recibir
+ * el error de negocio "sala ya reservada".
+ */
+@Testcontainers
+@SpringBootTest(properties = "bookfrontera.reservations.exclusion-constraint.enabled=true")
+class ReservationOverlapConcurrencyIntegrationTest {
+
+    private static final int CONCURRENT_USERS = 20;
+    private static final ZoneId TEST_ZONE = ZoneId.of("America/Santiago");
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("bookfronterab-test")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        // La restricción de exclusión la crean las migraciones: Hibernate no debe recrear la tabla
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @MockitoBean private GoogleCalendarService googleCalendarService;
+    @MockitoBean private GoogleCredentialsService googleCredentialsService;
+
+    @Autowired private ReservationService reservationService;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserIdentityCache userIdentityCache;
+
+    private Room room;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userIdentityCache.invalidateAll();
+        reservationRepository.deleteAllInBatch();
+        roomRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+
+        room = roomRepository.save(Room.builder().name("Sala Popular").capacity(6).floor(1).build());
+        for (int i = 0; i < CONCURRENT_USERS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .email("student" + i + "@ufromail.cl")
+                    .nombre("Student " + i)
+                    .rol(UserRole.STUDENT)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAllInBatch();
+        roomRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        users.clear();
+    }
+
+    @Test
+    @DisplayName("Reservas concurrentes del mismo bloque: solo una se confirma")
+    void concurrentBookings_ShouldNeverDoubleBook() throws Exception {
+        ZonedDateTime start = ZonedDateTime.now(TEST_ZONE)
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .withHour(10).withMinute(0).withSecond(0).withNano(0);
+        // Intervalos distintos pero solapados, para ejercitar el rango y no solo la igualdad
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_USERS);
+        CountDownLatch ready = new CountDownLatch(CONCURRENT_USERS);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < CONCURRENT_USERS; i++) {
+            User user = users.get(i);
+            ZonedDateTime userStart = start.plusMinutes(i % 3 * 10L);
+            ReservationDto.CreateRequest req = new ReservationDto.CreateRequest(
+                    room.getId(), userStart, userStart.plusMinutes(45), false);
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                go.await();
+                try {
+                    reservationService.create(user.getEmail(), req);
+                } catch (IllegalStateException e) {
+                    assertEquals("La sala ya está reservada en ese horario. Por favor, elige otro.", e.getMessage());
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        ready.await();
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(1, reservationRepository.count(), "Solo una reserva debe quedar confirmada");
+        assertEquals(CONCURRENT_USERS - 1, conflicts.get());
+    }
+
+    @Test
+    @DisplayName("Reservas concurrentes del mismo estudiante en salas distintas: solo una respeta el límite semanal")
+    void concurrentBookingsSameStudent_ShouldRespectWeeklyLimit() throws Exception {
+        User student = users.get(0);
+        ZonedDateTime start = ZonedDateTime.now(TEST_ZONE)
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .withHour(10).withMinute(0).withSecond(0).withNano(0);
+        int attempts = 8;
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            rooms.add(roomRepository.save(Room.builder().name("Sala " + i).capacity(6).floor(1).build()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(attempts);
+        CountDownLatch ready = new CountDownLatch(attempts);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < attempts; i++) {
+            // Salas distintas y días distintos de la misma semana: el bloqueo por sala no los serializa
+            ZonedDateTime dayStart = start.plusDays(i % 5);
+            ReservationDto.CreateRequest req = new ReservationDto.CreateRequest(
+                    rooms.get(i).getId(), dayStart, dayStart.plusMinutes(45), false);
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                go.await();
+                try {
+                    reservationService.create(student.getEmail(), req);
+                } catch (IllegalStateException e) {
+                    assertTrue(e.getMessage().contains("Límite alcanzado"));
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        ready.await();
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(1, reservationRepository.count(), "El estudiante solo puede tener una reserva en la semana");
+        assertEquals(attempts - 1, rejected.get());
+    }
+}
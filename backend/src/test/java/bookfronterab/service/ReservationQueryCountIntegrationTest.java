@@ -0,0 +1,153 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.Reservation;
+import bookfronterab.model.Room;
+import bookfronterab.model.User;
+import bookfronterab.model.UserRole;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.RoomRepository;
+import bookfronterab.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica con las estadísticas de Hibernate que armar {@link ReservationDto.Detail}
+ * usa una cantidad acotada de consultas, sin importar cuántas reservas haya (sin N+1).
+ */
+@Testcontainers
+@SpringBootTest
+class ReservationQueryCountIntegrationTest {
+
+    private static final int RESERVATIONS_PER_ROOM = 15;
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("bookfronterab-test")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        // Evita que el dispatcher del outbox ejecute consultas durante la medición
+        registry.add("bookfrontera.calendar-outbox.poll-ms", () -> "3600000");
+    }
+
+    @Autowired private ReservationService reservationService;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserIdentityCache userIdentityCache;
+
+    private Statistics statistics;
+    private User student;
+    private User admin;
+    private List<Room> rooms;
+
+    @BeforeEach
+    void setUp() {
+        userIdentityCache.invalidateAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        student = userRepository.save(User.builder().email("n1@ufromail.cl").nombre("Estudiante").rol(UserRole.STUDENT).build());
+        admin = userRepository.save(User.builder().email("admin-n1@ufromail.cl").nombre("Admin").rol(UserRole.ADMIN).build());
+        rooms = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            rooms.add(roomRepository.save(Room.builder()
+                    .name("Sala " + i).capacity(6).floor(1)
+                    .equipment(new ArrayList<>(List.of("TV", "Pizarra")))
+                    .build()));
+        }
+
+        ZonedDateTime start = ZonedDateTime.now().plusDays(1).withMinute(0).withSecond(0).withNano(0);
+        List<Reservation> reservations = new ArrayList<>();
+        for (Room room : rooms) {
+            for (int i = 0; i < RESERVATIONS_PER_ROOM; i++) {
+                ZonedDateTime slot = start.plusDays(i);
+                reservations.add(Reservation.builder().user(student).room(room).startAt(slot).endAt(slot.plusHours(1)).build());
+            }
+        }
+        reservationRepository.saveAll(reservations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAllInBatch();
+        roomRepository.deleteAll();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("getMyReservations arma el detalle de todas las reservas en 4 consultas")
+    void getMyReservations_ShouldUseBoundedQueries() {
+        statistics.clear();
+
+        ReservationDto.MyReservationsResponse response = reservationService.getMyReservations(student.getEmail());
+
+        assertEquals(rooms.size() * RESERVATIONS_PER_ROOM, response.future().size());
+        assertEquals(List.of("TV", "Pizarra"), response.future().get(0).room().getEquipment());
+        // 1: reservas vigentes + sala + usuario (entity graph); 1: equipamiento de las 4 salas (@BatchSize);
+        // 1: primera página del historial; 1: su continuación en el archivo (la tabla principal no tiene pasadas)
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("getReservationsByRoom arma el detalle en una cantidad fija de consultas")
+    void getReservationsByRoom_ShouldUseBoundedQueries() {
+        statistics.clear();
+
+        List<ReservationDto.Detail> details =
+                reservationService.getReservationsByRoom(rooms.get(0).getId(), admin.getEmail(), null, null).items();
+
+        assertEquals(RESERVATIONS_PER_ROOM, details.size());
+        assertEquals(student.getEmail(), details.get(0).user().getEmail());
+        // 1: usuario que consulta; 1: reservas + sala + usuario; 1: equipamiento
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        // Con el rol del admin ya en caché, la revisión de permisos no consulta la base de datos,
+        // y el equipamiento de la sala sale de la caché de segundo nivel
+        statistics.clear();
+        reservationService.getReservationsByRoom(rooms.get(0).getId(), admin.getEmail(), null, null);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    @DisplayName("getById trae la reserva con su sala y su usuario en una sola consulta")
+    void getById_ShouldFetchDetailsTogether() {
+        Long id = reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getRoom().getId().equals(rooms.get(1).getId()))
+                .findFirst().orElseThrow().getId();
+        statistics.clear();
+
+        ReservationDto.Detail detail = reservationService.getById(id);
+
+        assertEquals(rooms.get(1).getId(), detail.room().getId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
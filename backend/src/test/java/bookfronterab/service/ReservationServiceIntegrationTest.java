@@ -49,6 +49,7 @@ class ReservationServiceIntegrationTest {
     @Autowired private ReservationRepository reservationRepository;
     @Autowired private UserRepository userRepository;
     @Autowired private RoomRepository roomRepository;
+    @Autowired private UserIdentityCache userIdentityCache;
     static ZonedDateTime start;
 
     @BeforeAll
@@ -57,6 +58,7 @@ class ReservationServiceIntegrationTest {
     }
     @BeforeEach
     void setUp() {
+        userIdentityCache.invalidateAll();
         reservationRepository.deleteAllInBatch();
         roomRepository.deleteAllInBatch();
         userRepository.deleteAllInBatch();
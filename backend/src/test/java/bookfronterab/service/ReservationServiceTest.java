@@ -1,16 +1,24 @@
 package bookfronterab.service;
 
 import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.CalendarOutboxEvent;
+import bookfronterab.model.CalendarOutboxOperation;
+import bookfronterab.model.CalendarOutboxStatus;
 import bookfronterab.model.Reservation;
 import bookfronterab.model.Room;
 import bookfronterab.model.User;
 import bookfronterab.model.UserRole;
+import bookfronterab.repo.CalendarOutboxRepository;
+import bookfronterab.repo.ReservationHoldRepository;
 import bookfronterab.repo.ReservationRepository;
 import bookfronterab.repo.RoomRepository;
 import bookfronterab.repo.UserRepository;
+import bookfronterab.repo.WaitlistRepository;
+import bookfronterab.service.google.CalendarOutboxDispatcher;
 import bookfronterab.service.google.GoogleCalendarService;
 import bookfronterab.service.google.GoogleCredentialsService;
 import com.google.api.client.auth.oauth2.Credential;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -32,6 +40,7 @@ import java.time.ZonedDateTime;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -67,6 +76,15 @@ class ReservationServiceTest {
     @Autowired private UserRepository userRepository;
     @Autowired private RoomRepository roomRepository;
     @Autowired private ReservationRepository reservationRepository;
+    @Autowired private CalendarOutboxRepository calendarOutboxRepository;
+    @Autowired private CalendarOutboxDispatcher calendarOutboxDispatcher;
+    @Autowired private ReservationHoldService reservationHoldService;
+    @Autowired private ReservationHoldRepository reservationHoldRepository;
+    @Autowired private WaitlistService waitlistService;
+    @Autowired private WaitlistPromotionWorker waitlistPromotionWorker;
+    @Autowired private WaitlistRepository waitlistRepository;
+    @Autowired private UserIdentityCache userIdentityCache;
+    @Autowired private MeterRegistry meterRegistry;
 
     private User testUser;
     private User otherUser;
@@ -78,10 +96,13 @@ class ReservationServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Los usuarios se recrean en cada test con los mismos emails y otros IDs
+        userIdentityCache.invalidateAll();
         // CORRECCIÓN 2: Configurar el mockCredential para que devuelva un token falso
         // Esto evita que getAccessToken() devuelva null y rompa los tests de Google.
         when(mockCredential.getAccessToken()).thenReturn("mock-token-abc-123");
 
+        calendarOutboxRepository.deleteAllInBatch();
         reservationRepository.deleteAllInBatch();
         roomRepository.deleteAllInBatch();
         userRepository.deleteAllInBatch();
@@ -104,6 +125,7 @@ class ReservationServiceTest {
 
     @AfterEach
     void tearDown() {
+        calendarOutboxRepository.deleteAllInBatch();
         reservationRepository.deleteAllInBatch();
         roomRepository.deleteAllInBatch();
         userRepository.deleteAllInBatch();
@@ -120,11 +142,15 @@ class ReservationServiceTest {
         ZonedDateTime end = nextMonday.plusHours(1);
 
         ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), start, end, false);
+        long roomLocks = stageCount("room_lock");
+        long weeklyCounterWaits = lockWaitCount("weekly_counter");
 
         reservationService.create(testUser.getEmail(), request);
 
         assertEquals(1, reservationRepository.count());
-        verify(googleCalendarService, never()).createEventForReservation(any(), any());
+        verify(googleCalendarService, never()).createEventsForReservations(any(), any());
+        assertEquals(roomLocks + 1, stageCount("room_lock"));
+        assertEquals(weeklyCounterWaits + 1, lockWaitCount("weekly_counter"));
     }
 
     @Test
@@ -136,7 +162,9 @@ class ReservationServiceTest {
 
         ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), start, end, false);
         String emailTestUser = testUser.getEmail();
+        double conflicts = rejectedCount("conflict");
         assertThrows(IllegalStateException.class, () -> reservationService.create(emailTestUser, request));
+        assertEquals(conflicts + 1, rejectedCount("conflict"));
     }
 
     @Test
@@ -148,10 +176,54 @@ class ReservationServiceTest {
         ZonedDateTime fridayStart = nextMonday.with(TemporalAdjusters.next(DayOfWeek.FRIDAY));
         ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), fridayStart, fridayStart.plusHours(1), false);
         String emailTestUser = testUser.getEmail();
+        double limitRejections = rejectedCount("weekly_limit");
         IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
                 reservationService.create(emailTestUser, request));
 
         assertTrue(ex.getMessage().contains("Límite alcanzado"));
+        assertEquals(limitRejections + 1, rejectedCount("weekly_limit"));
+    }
+
+    @Test
+    @DisplayName("cancel() debe liberar el cupo semanal del estudiante")
+    void cancel_ShouldReleaseWeeklyLimit() {
+        ZonedDateTime mondayStart = nextMonday;
+        String emailTestUser = testUser.getEmail();
+        reservationService.create(emailTestUser, createValidRequest(testRoom.getId(), mondayStart, mondayStart.plusHours(1), false));
+        Long firstId = reservationRepository.findAll().get(0).getId();
+
+        ZonedDateTime fridayStart = nextMonday.with(TemporalAdjusters.next(DayOfWeek.FRIDAY));
+        ReservationDto.CreateRequest second = createValidRequest(testRoom.getId(), fridayStart, fridayStart.plusHours(1), false);
+        assertThrows(IllegalStateException.class, () -> reservationService.create(emailTestUser, second));
+
+        reservationService.cancel(firstId, emailTestUser);
+
+        assertDoesNotThrow(() -> reservationService.create(emailTestUser, second));
+        assertEquals(1, reservationRepository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Una reserva de fin de semana cuenta en el cupo de la semana laboral siguiente")
+    void create_ShouldCountWeekendReservations_InNextWorkWeek() {
+        String emailTestUser = testUser.getEmail();
+        ZonedDateTime saturdayStart = nextMonday.with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+        reservationService.create(emailTestUser, createValidRequest(testRoom.getId(), saturdayStart, saturdayStart.plusHours(1), false));
+
+        // El sábado no toma el cupo de su propia semana laboral: el lunes anterior se puede reservar
+        ZonedDateTime mondayStart = nextMonday.withHour(12);
+        assertDoesNotThrow(() -> reservationService.create(emailTestUser,
+                createValidRequest(testRoom.getId(), mondayStart, mondayStart.plusHours(1), false)));
+
+        ZonedDateTime fridayStart = nextMonday.with(TemporalAdjusters.next(DayOfWeek.FRIDAY));
+        ReservationDto.CreateRequest friday = createValidRequest(testRoom.getId(), fridayStart, fridayStart.plusHours(1), false);
+        assertThrows(IllegalStateException.class, () -> reservationService.create(emailTestUser, friday));
+
+        // Un segundo día del mismo fin de semana se rechaza: el sábado ya tomó ese cupo
+        ZonedDateTime sundayStart = nextMonday.with(TemporalAdjusters.next(DayOfWeek.SUNDAY));
+        ReservationDto.CreateRequest sunday = createValidRequest(testRoom.getId(), sundayStart, sundayStart.plusHours(1), false);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> reservationService.create(emailTestUser, sunday));
+        assertTrue(ex.getMessage().contains("Límite alcanzado"));
+        assertEquals(2, reservationRepository.findAll().size());
     }
 
     @Test
@@ -264,6 +336,21 @@ class ReservationServiceTest {
     // TESTS: Integración con Google Calendar
     // =================================================================================================
 
+    @Test
+    @DisplayName("create() debe encolar la sincronización con Google Calendar sin llamar a la API")
+    void create_ShouldEnqueueGoogleSync_WhenGoogleCalendarRequested() throws IOException {
+        ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), nextMonday, nextMonday.plusHours(1), true);
+
+        reservationService.create(testUser.getEmail(), request);
+
+        verify(googleCalendarService, never()).createEventsForReservations(any(), any());
+        CalendarOutboxEvent event = calendarOutboxRepository.findAll().get(0);
+        assertEquals(CalendarOutboxOperation.CREATE, event.getOperation());
+        assertEquals(CalendarOutboxStatus.PENDING, event.getStatus());
+        assertEquals(reservationRepository.findAll().get(0).getId(), event.getReservationId());
+        assertEquals(testUser.getId(), event.getUserId());
+    }
+
     @Test
     @DisplayName("create() debe sincronizar con Google Calendar y guardar el ID del evento")
     void create_ShouldSucceedAndSync_WhenGoogleCalendarRequested() throws IOException {
@@ -274,16 +361,19 @@ class ReservationServiceTest {
         // Configurar mocks de Google
         when(googleCredentialsService.getCredential(any(User.class))).thenReturn(mockCredential);
         // NOTA: mockCredential.getAccessToken() ya devuelve string gracias al setUp()
-        when(googleCalendarService.createEventForReservation(any(Reservation.class), anyString())).thenReturn(mockGoogleId);
+        when(googleCalendarService.createEventsForReservations(anyList(), anyString())).thenAnswer(inv -> Map.of(
+                inv.<List<Reservation>>getArgument(0).get(0).getId(), new GoogleCalendarService.BatchItemResult(mockGoogleId, null)));
 
         ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), start, end, true);
 
         reservationService.create(testUser.getEmail(), request);
+        dispatchOutbox();
 
         // Verificar
-        verify(googleCalendarService).createEventForReservation(any(Reservation.class), anyString());
+        verify(googleCalendarService).createEventsForReservations(anyList(), anyString());
         Reservation savedRes = reservationRepository.findAll().get(0);
         assertEquals(mockGoogleId, savedRes.getGoogleEventId());
+        assertEquals(0, calendarOutboxRepository.count());
     }
 
     @Test
@@ -293,16 +383,24 @@ class ReservationServiceTest {
         ZonedDateTime end = nextMonday.plusHours(1);
 
         when(googleCredentialsService.getCredential(any(User.class))).thenReturn(mockCredential);
-        when(googleCalendarService.createEventForReservation(any(Reservation.class), anyString()))
+        when(googleCalendarService.createEventsForReservations(anyList(), anyString()))
                 .thenThrow(new IOException("Google API error"));
 
         ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), start, end, true);
 
         assertDoesNotThrow(() -> reservationService.create(testUser.getEmail(), request));
+        dispatchOutbox();
 
         assertEquals(1, reservationRepository.count());
         Reservation savedRes = reservationRepository.findAll().get(0);
         assertNull(savedRes.getGoogleEventId());
+
+        // El evento queda pendiente para un reintento posterior
+        CalendarOutboxEvent event = calendarOutboxRepository.findAll().get(0);
+        assertEquals(CalendarOutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertTrue(event.getNextAttemptAt().isAfter(nextMonday.toOffsetDateTime()));
+        assertEquals("Google API error", event.getLastError());
     }
 
     // =================================================================================================
@@ -336,6 +434,156 @@ class ReservationServiceTest {
                 reservationService.createOnBehalf(emailAdmin, "other@notfound.cl", request));
     }
 
+    // =================================================================================================
+    // TESTS: Bloqueos tentativos (holds)
+    // =================================================================================================
+
+    @Test
+    @DisplayName("Un bloqueo tentativo impide que otro usuario reserve y su dueño lo confirma con create()")
+    void hold_ShouldBlockOthers_AndBeConsumedByOwner() {
+        ZonedDateTime start = nextMonday.withHour(15);
+        ZonedDateTime end = start.plusHours(1);
+        ReservationDto.HoldResponse hold = reservationHoldService.place(testUser.getEmail(),
+                new ReservationDto.HoldRequest(testRoom.getId(), start, end));
+        assertEquals(nextMonday.toOffsetDateTime().plusSeconds(120), hold.expiresAt());
+
+        String otherEmail = otherUser.getEmail();
+        ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), start, end, false);
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> reservationService.create(otherEmail, request));
+        assertEquals(ReservationHoldService.SLOT_HELD, ex.getMessage());
+
+        long roomLockWaits = lockWaitCount("room");
+        reservationService.create(testUser.getEmail(), request);
+
+        assertEquals(1, reservationRepository.count());
+        assertEquals(0, reservationHoldRepository.count());
+        // El bloqueo tentativo ya reservó el intervalo con la sala bloqueada: confirmar no la vuelve a bloquear
+        assertEquals(roomLockWaits, lockWaitCount("room"));
+    }
+
+    @Test
+    @DisplayName("No se puede bloquear un intervalo ya reservado ni uno bloqueado por otro usuario")
+    void hold_ShouldFail_WhenBookedOrHeld() {
+        ZonedDateTime start = nextMonday.withHour(16);
+        createTestReservation(adminUser, testRoom, start, start.plusHours(1));
+        String testEmail = testUser.getEmail();
+        ReservationDto.HoldRequest booked = new ReservationDto.HoldRequest(testRoom.getId(), start, start.plusHours(1));
+        assertThrows(IllegalStateException.class, () -> reservationHoldService.place(testEmail, booked));
+
+        ReservationDto.HoldRequest free = new ReservationDto.HoldRequest(testRoom.getId(), start.plusHours(2), start.plusHours(3));
+        reservationHoldService.place(testEmail, free);
+        String otherEmail = otherUser.getEmail();
+        assertThrows(IllegalStateException.class, () -> reservationHoldService.place(otherEmail, free));
+        assertEquals(1, reservationHoldRepository.count());
+    }
+
+    // =================================================================================================
+    // TESTS: Lista de espera
+    // =================================================================================================
+
+    @Test
+    @DisplayName("Al cancelar, el intervalo se asigna al primero de la lista de espera")
+    void waitlist_ShouldPromoteFirstInLine_AfterCancel() {
+        ZonedDateTime start = nextMonday.withHour(17);
+        ZonedDateTime end = start.plusHours(1);
+        reservationService.create(testUser.getEmail(), createValidRequest(testRoom.getId(), start, end, false));
+        Long reservationId = reservationRepository.findAll().get(0).getId();
+
+        ReservationDto.WaitlistRequest request = new ReservationDto.WaitlistRequest(testRoom.getId(), start, end, false);
+        String testEmail = testUser.getEmail();
+        assertThrows(IllegalStateException.class, () -> waitlistService.join(testEmail, request)); // ya es suyo
+        ReservationDto.WaitlistResponse first = waitlistService.join(otherUser.getEmail(), request);
+        ReservationDto.WaitlistResponse second = waitlistService.join(adminUser.getEmail(), request);
+        assertEquals(1, first.position());
+        assertEquals(2, second.position());
+
+        reservationService.cancel(reservationId, testUser.getEmail());
+        assertEquals(0, reservationRepository.count()); // la cancelación no espera la asignación
+
+        assertEquals(1, waitlistPromotionWorker.promotePending());
+
+        List<Reservation> reservations = reservationRepository.findAll();
+        assertEquals(1, reservations.size());
+        assertEquals(otherUser.getId(), reservations.get(0).getUser().getId());
+        assertEquals(1, waitlistRepository.count());
+        assertEquals(1, waitlistService.getMine(adminUser.getEmail()).get(0).position());
+    }
+
+    @Test
+    @DisplayName("No se puede entrar a la lista de espera de un intervalo libre")
+    void waitlist_ShouldFail_WhenSlotIsFree() {
+        ZonedDateTime start = nextMonday.withHour(18);
+        ReservationDto.WaitlistRequest request = new ReservationDto.WaitlistRequest(testRoom.getId(), start, start.plusHours(1), false);
+        String otherEmail = otherUser.getEmail();
+        assertThrows(IllegalStateException.class, () -> waitlistService.join(otherEmail, request));
+        assertEquals(0, waitlistRepository.count());
+    }
+
+    // =================================================================================================
+    // TESTS: createBulk (Reservas masivas / recurrentes)
+    // =================================================================================================
+
+    @Test
+    @DisplayName("createBulk() debe crear las ocurrencias libres e informar los conflictos")
+    void createBulk_ShouldCreateFreeOccurrences_AndReportConflicts() {
+        Room secondRoom = roomRepository.save(Room.builder().name("Sala 2").capacity(20).floor(2).build());
+        // La segunda semana ya está ocupada en la sala de pruebas
+        createTestReservation(testUser, testRoom, nextMonday.plusWeeks(1), nextMonday.plusWeeks(1).plusHours(1));
+        ReservationDto.BulkCreateRequest request = new ReservationDto.BulkCreateRequest(
+                List.of(testRoom.getId(), secondRoom.getId()),
+                null,
+                new ReservationDto.Recurrence(nextMonday, nextMonday.plusHours(1), 1, nextMonday.plusWeeks(2).toLocalDate()),
+                otherUser.getEmail());
+
+        ReservationDto.BulkCreateResponse response = reservationService.createBulk(adminUser.getEmail(), request);
+
+        assertEquals(5, response.created());
+        assertEquals(1, response.rejected());
+        assertEquals(6, response.occurrences().size());
+        ReservationDto.OccurrenceResult conflict = response.occurrences().get(1);
+        assertEquals(testRoom.getId(), conflict.roomId());
+        assertEquals(ReservationDto.OccurrenceStatus.CONFLICT, conflict.status());
+        assertNull(conflict.reservationId());
+        assertEquals(6, reservationRepository.count());
+        assertTrue(response.occurrences().stream()
+                .filter(o -> o.status() == ReservationDto.OccurrenceStatus.CREATED)
+                .allMatch(o -> reservationRepository.findById(o.reservationId()).orElseThrow()
+                        .getUser().getEmail().equals(otherUser.getEmail())));
+    }
+
+    @Test
+    @DisplayName("createBulk() debe informar como inválidos los intervalos que no cumplen las reglas y no solaparlos entre sí")
+    void createBulk_ShouldReportInvalidAndOverlappingIntervals() {
+        ReservationDto.BulkCreateRequest request = new ReservationDto.BulkCreateRequest(
+                List.of(testRoom.getId()),
+                List.of(
+                        new ReservationDto.Interval(nextMonday, nextMonday.plusHours(1)),
+                        new ReservationDto.Interval(nextMonday.plusMinutes(30), nextMonday.plusMinutes(90)),
+                        new ReservationDto.Interval(nextMonday.plusHours(3), nextMonday.plusHours(5))),
+                null,
+                null);
+
+        ReservationDto.BulkCreateResponse response = reservationService.createBulk(adminUser.getEmail(), request);
+
+        assertEquals(1, response.created());
+        assertEquals(ReservationDto.OccurrenceStatus.CREATED, response.occurrences().get(0).status());
+        assertEquals(ReservationDto.OccurrenceStatus.CONFLICT, response.occurrences().get(1).status());
+        assertEquals(ReservationDto.OccurrenceStatus.INVALID, response.occurrences().get(2).status());
+        assertEquals(adminUser.getEmail(), reservationRepository.findAll().get(0).getUser().getEmail());
+    }
+
+    @Test
+    @DisplayName("createBulk() debe fallar si el usuario no es administrador")
+    void createBulk_ShouldFail_WhenNotAdmin() {
+        ReservationDto.BulkCreateRequest request = new ReservationDto.BulkCreateRequest(
+                List.of(testRoom.getId()), List.of(new ReservationDto.Interval(nextMonday, nextMonday.plusHours(1))), null, null);
+        String email = testUser.getEmail();
+
+        assertThrows(SecurityException.class, () -> reservationService.createBulk(email, request));
+        assertEquals(0, reservationRepository.count());
+    }
+
     // =================================================================================================
     // TESTS: cancel() (Cancelación)
     // =================================================================================================
@@ -385,13 +633,19 @@ class ReservationServiceTest {
         Reservation res = createReservationWithGoogleId(testUser, testRoom, nextMonday, nextMonday.plusHours(1), mockGoogleId);
         
         when(googleCredentialsService.getCredential(any(User.class))).thenReturn(mockCredential);
-        doNothing().when(googleCalendarService).deleteEvent(eq(mockGoogleId), anyString());
+        when(googleCalendarService.deleteEvents(eq(List.of(mockGoogleId)), anyString()))
+                .thenReturn(Map.of(mockGoogleId, new GoogleCalendarService.BatchItemResult(mockGoogleId, null)));
 
         reservationService.cancel(res.getId(), testUser.getEmail());
 
         assertEquals(0, reservationRepository.count());
+        verify(googleCalendarService, never()).deleteEvents(any(), any());
+
+        dispatchOutbox();
+
         // Ahora funciona porque anyString() matchea con nuestro token mockeado
-        verify(googleCalendarService).deleteEvent(eq(mockGoogleId), anyString());
+        verify(googleCalendarService).deleteEvents(eq(List.of(mockGoogleId)), anyString());
+        assertEquals(0, calendarOutboxRepository.count());
     }
 
     @Test
@@ -401,11 +655,29 @@ class ReservationServiceTest {
         Reservation res = createReservationWithGoogleId(testUser, testRoom, nextMonday, nextMonday.plusHours(1), mockGoogleId);
         
         when(googleCredentialsService.getCredential(any(User.class))).thenReturn(mockCredential);
-        doThrow(new IOException("Fallo Google")).when(googleCalendarService).deleteEvent(eq(mockGoogleId), anyString());
+        when(googleCalendarService.deleteEvents(eq(List.of(mockGoogleId)), anyString())).thenThrow(new IOException("Fallo Google"));
 
         assertDoesNotThrow(() -> reservationService.cancel(res.getId(), testUser.getEmail()));
+        dispatchOutbox();
 
         assertEquals(0, reservationRepository.count());
+        CalendarOutboxEvent event = calendarOutboxRepository.findAll().get(0);
+        assertEquals(CalendarOutboxOperation.DELETE, event.getOperation());
+        assertEquals(1, event.getAttempts());
+    }
+
+    @Test
+    @DisplayName("cancel() debe descartar la creación en Google pendiente si aún no se envió")
+    void cancel_ShouldDiscardPendingGoogleCreate() throws IOException {
+        ReservationDto.CreateRequest request = createValidRequest(testRoom.getId(), nextMonday, nextMonday.plusHours(1), true);
+        reservationService.create(testUser.getEmail(), request);
+        Long resId = reservationRepository.findAll().get(0).getId();
+
+        reservationService.cancel(resId, testUser.getEmail());
+        dispatchOutbox();
+
+        assertEquals(0, calendarOutboxRepository.count());
+        verifyNoInteractions(googleCalendarService);
     }
 
     // =================================================================================================
@@ -433,9 +705,11 @@ class ReservationServiceTest {
     void getReservationsByRoom_ShouldSucceed_IfAdmin() {
         createTestReservation(testUser, testRoom, nextMonday, nextMonday.plusHours(1));
         
-        List<ReservationDto.Detail> result = reservationService.getReservationsByRoom(testRoom.getId(), adminUser.getEmail());
+        ReservationDto.CursorPage<ReservationDto.Detail> result =
+                reservationService.getReservationsByRoom(testRoom.getId(), adminUser.getEmail(), null, null);
         
-        assertEquals(1, result.size());
+        assertEquals(1, result.items().size());
+        assertNull(result.nextCursor());
     }
 
     @Test
@@ -444,7 +718,79 @@ class ReservationServiceTest {
         Long roomId = testRoom.getId();
         String email = testUser.getEmail();
         assertThrows(SecurityException.class, () -> 
-                reservationService.getReservationsByRoom(roomId, email));
+                reservationService.getReservationsByRoom(roomId, email, null, null));
+    }
+
+    @Test
+    @DisplayName("getReservationsByRoom() y getRoomHistory() deben paginar por cursor sin repetir ni saltar reservas")
+    void roomPages_ShouldWalkAllReservationsWithCursor() {
+        // 5 reservas futuras y 5 pasadas en la misma sala
+        for (int i = 0; i < 5; i++) {
+            createTestReservation(testUser, testRoom, nextMonday.plusDays(i), nextMonday.plusDays(i).plusHours(1));
+            createTestReservation(testUser, testRoom, nextMonday.minusDays(i + 1), nextMonday.minusDays(i + 1).plusHours(1));
+        }
+
+        List<Long> upcoming = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReservationDto.CursorPage<ReservationDto.Detail> page =
+                    reservationService.getReservationsByRoom(testRoom.getId(), adminUser.getEmail(), cursor, 2);
+            assertTrue(page.items().size() <= 2);
+            page.items().forEach(detail -> upcoming.add(detail.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Long> history = new ArrayList<>();
+        List<ZonedDateTime> historyStarts = new ArrayList<>();
+        cursor = null;
+        do {
+            ReservationDto.CursorPage<ReservationDto.Detail> page =
+                    reservationService.getRoomHistory(testRoom.getId(), adminUser.getEmail(), cursor, 2);
+            page.items().forEach(detail -> {
+                history.add(detail.id());
+                historyStarts.add(detail.startAt());
+            });
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(5, upcoming.size());
+        assertEquals(5, upcoming.stream().distinct().count());
+        assertEquals(5, history.size());
+        assertEquals(5, history.stream().distinct().count());
+        // El historial va de la más reciente a la más antigua
+        for (int i = 1; i < historyStarts.size(); i++) {
+            assertTrue(historyStarts.get(i).isBefore(historyStarts.get(i - 1)));
+        }
+    }
+
+    @Test
+    @DisplayName("getMyReservations() debe entregar solo la primera página del historial y un cursor para el resto")
+    void getMyReservations_ShouldPagePastHistory() {
+        int pastCount = ReservationService.DEFAULT_PAGE_SIZE + 5;
+        for (int i = 0; i < pastCount; i++) {
+            ZonedDateTime start = nextMonday.minusDays(i + 1);
+            createTestReservation(testUser, testRoom, start, start.plusHours(1));
+        }
+
+        ReservationDto.MyReservationsResponse response = reservationService.getMyReservations(testUser.getEmail());
+        assertEquals(ReservationService.DEFAULT_PAGE_SIZE, response.past().size());
+        assertNotNull(response.pastNextCursor());
+
+        ReservationDto.CursorPage<ReservationDto.Detail> rest =
+                reservationService.getMyPastReservations(testUser.getEmail(), response.pastNextCursor(), null);
+        assertEquals(5, rest.items().size());
+        assertNull(rest.nextCursor());
+        assertTrue(rest.items().get(0).startAt().isBefore(response.past().get(response.past().size() - 1).startAt()));
+    }
+
+    @Test
+    @DisplayName("Un cursor o tamaño de página inválido debe lanzar IllegalArgumentException")
+    void pages_ShouldRejectInvalidCursorOrSize() {
+        String email = testUser.getEmail();
+        assertThrows(IllegalArgumentException.class, () ->
+                reservationService.getMyPastReservations(email, "no-es-un-cursor", null));
+        assertThrows(IllegalArgumentException.class, () ->
+                reservationService.getMyPastReservations(email, null, ReservationService.MAX_PAGE_SIZE + 1));
     }
     @Test
     @DisplayName("getMyReservations() debe clasificar correctamente: Pasada, Actual y Futura")
@@ -501,10 +847,29 @@ class ReservationServiceTest {
                 .user(user).room(room).startAt(startAt).endAt(endAt).build());
     }
 
+    /**
+     * Procesa el outbox en el hilo del test (dentro de su transacción), como lo haría el dispatcher.
+     */
+    private void dispatchOutbox() {
+        calendarOutboxRepository.findAll().forEach(event -> calendarOutboxDispatcher.process(event.getId()));
+    }
+
     private ReservationDto.CreateRequest createValidRequest(Long roomId, ZonedDateTime start, ZonedDateTime end, boolean addToGoogle) {
         return new ReservationDto.CreateRequest(roomId, start, end, addToGoogle);
     }
 
+    private long stageCount(String stage) {
+        return meterRegistry.get(ReservationMetrics.STAGE_TIMER).tag("stage", stage).timer().count();
+    }
+
+    private long lockWaitCount(String lock) {
+        return meterRegistry.get(ReservationMetrics.LOCK_WAIT_TIMER).tag("lock", lock).timer().count();
+    }
+
+    private double rejectedCount(String reason) {
+        return meterRegistry.get(ReservationMetrics.REJECTED_COUNTER).tag("reason", reason).counter().count();
+    }
+
     private ReservationDto.CreateRequest createMinuteRequest(Long roomId, int minutes) {
         ZonedDateTime start = nextMonday.withHour(11);
         ZonedDateTime end = start.plusMinutes(minutes);
@@ -0,0 +1,66 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.RoomDto;
+import bookfronterab.model.Room;
+import bookfronterab.repo.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomCatalogTest {
+
+    @Mock
+    private RoomRepository roomRepo;
+
+    private RoomCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new RoomCatalog(roomRepo);
+    }
+
+    @Test
+    @DisplayName("Unitario: el catálogo se carga una vez, ordenado por ID, y se sirve desde memoria")
+    void getRooms_ShouldLoadOnceAndSortById() {
+        when(roomRepo.findAll()).thenReturn(List.of(room(2L, "Sala B"), room(1L, "Sala A")));
+
+        List<RoomDto> rooms = catalog.getRooms();
+        List<RoomDto> availabilityRooms = catalog.getAvailabilityRooms();
+        catalog.getRooms();
+
+        assertEquals(List.of(1L, 2L), rooms.stream().map(RoomDto::getId).toList());
+        assertEquals("img-1", rooms.get(0).getImageUrl());
+        assertNull(availabilityRooms.get(0).getImageUrl()); // la grilla no incluye la imagen
+        assertEquals(List.of("TV"), availabilityRooms.get(0).getEquipment());
+        verify(roomRepo, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Unitario: refresh publica una instantánea nueva con otra versión")
+    void refresh_ShouldPublishNewSnapshot() {
+        when(roomRepo.findAll()).thenReturn(List.of(room(1L, "Sala A")));
+        long version = catalog.getVersion();
+        List<RoomDto> before = catalog.getRooms();
+
+        when(roomRepo.findAll()).thenReturn(List.of(room(1L, "Sala A"), room(3L, "Sala C")));
+        catalog.refresh();
+
+        assertNotEquals(version, catalog.getVersion());
+        assertEquals(2, catalog.getRooms().size());
+        assertEquals(1, before.size()); // quien ya leyó la instantánea anterior no ve cambios a medias
+    }
+
+    private static Room room(Long id, String name) {
+        return Room.builder().id(id).name(name).capacity(6).floor(1)
+                .equipment(List.of("TV")).imageUrl("img-" + id).build();
+    }
+}
@@ -0,0 +1,241 @@
+package bookfronterab.service;
+
+import bookfronterab.model.Reservation;
+import bookfronterab.model.Room;
+import bookfronterab.repo.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomOccupancyIndexTest {
+
+    private static final ZoneId TEST_ZONE = ZoneId.of("America/Santiago");
+    private static final LocalDate TEST_DATE = LocalDate.of(2025, 11, 20);
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private TimeService timeService;
+
+    private RoomOccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(timeService.zone()).thenReturn(TEST_ZONE);
+        Clock clock = Clock.fixed(Instant.parse("2025-11-20T12:00:00Z"), ZoneOffset.UTC);
+        index = new RoomOccupancyIndex(reservationRepo, timeService, Duration.ofMinutes(5), 200, clock);
+    }
+
+    @Test
+    @DisplayName("Unitario: isOccupied detecta solapamientos con intervalos semiabiertos")
+    void isOccupied_ShouldRespectHalfOpenIntervals() {
+        long[] bits = new long[23];
+        // Ocupa los minutos [570, 580) = 09:30-09:40
+        for (int m = 570; m < 580; m++) {
+            bits[m >>> 6] |= 1L << (m & 63);
+        }
+
+        assertFalse(RoomOccupancyIndex.isOccupied(bits, 510, 570)); // 08:30-09:30
+        assertFalse(RoomOccupancyIndex.isOccupied(bits, 580, 640)); // 09:40-10:40
+        assertTrue(RoomOccupancyIndex.isOccupied(bits, 575, 576));
+        assertTrue(RoomOccupancyIndex.isOccupied(bits, 0, 1440));
+        assertFalse(RoomOccupancyIndex.isOccupied(null, 0, 1440));
+    }
+
+    @Test
+    @DisplayName("Unitario: carga el día desde la BD solo una vez")
+    void getDay_ShouldLoadFromRepositoryOnlyOnce() {
+        Room room = Room.builder().id(1L).build();
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(List.of(
+                reservation(room, LocalTime.of(8, 30), LocalTime.of(9, 30))
+        ));
+
+        Map<Long, long[]> first = index.getDay(TEST_DATE);
+        Map<Long, long[]> second = index.getDay(TEST_DATE);
+
+        assertSame(first, second);
+        assertTrue(RoomOccupancyIndex.isOccupied(first.get(1L), 510, 570));
+        verify(reservationRepo, times(1)).findAllReservationsBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("Unitario: una carga durante la que se confirma una reserva del día no se guarda y se repite")
+    void getDay_ShouldReloadWhenDayChangesDuringLoad() {
+        Room room = Room.builder().id(1L).build();
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(12, 0), TEST_ZONE);
+        when(reservationRepo.findAllReservationsBetween(any(), any()))
+                .thenAnswer(inv -> {
+                    // Commit concurrente: la consulta ya no lo ve, pero se notifica mientras se carga
+                    index.markOccupied(1L, start, start.plusHours(1));
+                    return List.of();
+                })
+                .thenReturn(List.of(reservation(room, LocalTime.of(12, 0), LocalTime.of(13, 0))));
+
+        Map<Long, long[]> day = index.getDay(TEST_DATE);
+
+        assertTrue(RoomOccupancyIndex.isOccupied(day.get(1L), 720, 780));
+        assertSame(day, index.getDay(TEST_DATE));
+        verify(reservationRepo, times(2)).findAllReservationsBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("Unitario: marcar actualiza un día ya cargado y liberar lo recarga desde la BD")
+    void markOccupiedAndFree_ShouldUpdateLoadedDay() {
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(List.of());
+        index.getDay(TEST_DATE);
+
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(12, 0), TEST_ZONE);
+        index.markOccupied(2L, start, start.plusHours(1));
+        assertTrue(RoomOccupancyIndex.isOccupied(index.getDay(TEST_DATE).get(2L), 720, 780));
+
+        verify(reservationRepo, times(1)).findAllReservationsBetween(any(), any());
+
+        index.markFree(2L, start, start.plusHours(1));
+        assertFalse(RoomOccupancyIndex.isOccupied(index.getDay(TEST_DATE).get(2L), 0, 1440));
+        verify(reservationRepo, times(2)).findAllReservationsBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("Unitario: liberar una reserva no libera la reserva contigua")
+    void markFree_ShouldNotClearAdjacentReservation() {
+        Room room = Room.builder().id(1L).build();
+        Reservation remaining = reservation(room, LocalTime.of(9, 0), LocalTime.of(9, 30));
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(
+                List.of(reservation(room, LocalTime.of(8, 30), LocalTime.of(9, 0)), remaining),
+                List.of(remaining));
+        index.getDay(TEST_DATE);
+
+        index.markFree(1L, ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE),
+                ZonedDateTime.of(TEST_DATE, LocalTime.of(9, 0), TEST_ZONE));
+
+        long[] bits = index.getDay(TEST_DATE).get(1L);
+        assertFalse(RoomOccupancyIndex.isOccupied(bits, 510, 540));
+        assertTrue(RoomOccupancyIndex.isOccupied(bits, 540, 570));
+    }
+
+    @Test
+    @DisplayName("Unitario: liberar no borra el minuto que comparte con una reserva contigua con segundos")
+    void markFree_ShouldKeepSharedMinuteOfAdjacentReservationWithSeconds() {
+        Room room = Room.builder().id(1L).build();
+        LocalTime boundary = LocalTime.of(9, 0, 30);
+        Reservation remaining = reservation(room, boundary, LocalTime.of(9, 30));
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(
+                List.of(reservation(room, LocalTime.of(8, 30), boundary), remaining),
+                List.of(remaining));
+        index.getDay(TEST_DATE);
+
+        // La reserva cancelada termina a las 9:00:30: su último minuto (540) es también el primero de la otra
+        index.markFree(1L, ZonedDateTime.of(TEST_DATE, LocalTime.of(8, 30), TEST_ZONE),
+                ZonedDateTime.of(TEST_DATE, boundary, TEST_ZONE));
+
+        long[] bits = index.getDay(TEST_DATE).get(1L);
+        assertTrue(RoomOccupancyIndex.isOccupied(bits, 540, 541));
+        assertFalse(RoomOccupancyIndex.isOccupied(bits, 510, 540));
+    }
+
+    @Test
+    @DisplayName("Unitario: el resumen de contenido depende solo de los minutos ocupados")
+    void contentHash_ShouldDependOnlyOnOccupiedMinutes() {
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(List.of());
+
+        long initial = RoomOccupancyIndex.contentHash(index.getDay(TEST_DATE));
+
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(12, 0), TEST_ZONE);
+        index.markOccupied(2L, start, start.plusHours(1));
+        long afterCreate = RoomOccupancyIndex.contentHash(index.getDay(TEST_DATE));
+        assertNotEquals(initial, afterCreate);
+
+        // Otra instancia que carga el mismo contenido desde la BD (ej. tras un reinicio) da el mismo resumen
+        Room room = Room.builder().id(2L).build();
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(List.of(
+                reservation(room, LocalTime.of(12, 0), LocalTime.of(13, 0))));
+        RoomOccupancyIndex other = new RoomOccupancyIndex(reservationRepo, timeService, Duration.ofMinutes(5), 200,
+                Clock.fixed(Instant.parse("2025-11-21T12:00:00Z"), ZoneOffset.UTC));
+        assertEquals(afterCreate, RoomOccupancyIndex.contentHash(other.getDay(TEST_DATE)));
+
+        // Cancelar deja la sala sin minutos ocupados: cuenta igual que si no estuviera
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(List.of());
+        index.markFree(2L, start, start.plusHours(1));
+        assertEquals(initial, RoomOccupancyIndex.contentHash(index.getDay(TEST_DATE)));
+    }
+
+    @Test
+    @DisplayName("Unitario: las actualizaciones sobre días no cargados se ignoran")
+    void markOccupied_ShouldIgnoreDaysNotLoaded() {
+        ZonedDateTime start = ZonedDateTime.of(TEST_DATE, LocalTime.of(12, 0), TEST_ZONE);
+        index.markOccupied(2L, start, start.plusHours(1));
+
+        verifyNoInteractions(reservationRepo);
+    }
+
+    @Test
+    @DisplayName("Unitario: getDays carga todos los días faltantes con una sola consulta")
+    void getDays_ShouldLoadMissingDaysWithSingleQuery() {
+        Room room = Room.builder().id(1L).build();
+        LocalDate secondDay = TEST_DATE.plusDays(1);
+        when(reservationRepo.findAllReservationsBetween(any(), any())).thenReturn(List.of(
+                reservation(room, secondDay, LocalTime.of(12, 0), LocalTime.of(13, 0))
+        ));
+
+        Map<LocalDate, Map<Long, long[]>> result = index.getDays(TEST_DATE, TEST_DATE.plusDays(4));
+
+        assertEquals(5, result.size());
+        assertNull(result.get(TEST_DATE).get(1L));
+        assertTrue(RoomOccupancyIndex.isOccupied(result.get(secondDay).get(1L), 720, 780));
+        verify(reservationRepo, times(1)).findAllReservationsBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("Unitario: un commit durante la carga de un rango solo descarta el día que modificó")
+    void getDays_ShouldKeepDaysNotModifiedDuringLoad() {
+        Room room = Room.builder().id(1L).build();
+        LocalDate modifiedDay = TEST_DATE.plusDays(2);
+        ZonedDateTime start = ZonedDateTime.of(modifiedDay, LocalTime.of(12, 0), TEST_ZONE);
+        when(reservationRepo.findAllReservationsBetween(any(), any()))
+                .thenAnswer(inv -> {
+                    index.markOccupied(1L, start, start.plusHours(1));
+                    return List.of();
+                })
+                .thenReturn(List.of(reservation(room, modifiedDay, LocalTime.of(12, 0), LocalTime.of(13, 0))));
+
+        Map<LocalDate, Map<Long, long[]>> result = index.getDays(TEST_DATE, TEST_DATE.plusDays(4));
+
+        assertTrue(RoomOccupancyIndex.isOccupied(result.get(modifiedDay).get(1L), 720, 780));
+        // Una consulta para el rango y otra solo para el día modificado
+        verify(reservationRepo, times(2)).findAllReservationsBetween(any(), any());
+        verify(reservationRepo).findAllReservationsBetween(modifiedDay.atStartOfDay(TEST_ZONE),
+                modifiedDay.plusDays(1).atStartOfDay(TEST_ZONE));
+    }
+
+    private Reservation reservation(Room room, LocalTime start, LocalTime end) {
+        return reservation(room, TEST_DATE, start, end);
+    }
+
+    private Reservation reservation(Room room, LocalDate date, LocalTime start, LocalTime end) {
+        return Reservation.builder()
+                .room(room)
+                .startAt(ZonedDateTime.of(date, start, TEST_ZONE))
+                .endAt(ZonedDateTime.of(date, end, TEST_ZONE))
+                .build();
+    }
+}
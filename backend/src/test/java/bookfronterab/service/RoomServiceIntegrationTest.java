@@ -50,6 +50,7 @@ class RoomServiceIntegrationTest {
 
     @Autowired private RoomService roomService;
     @Autowired private RoomRepository roomRepository;
+    @Autowired private RoomCatalog roomCatalog;
 
     // Se Mockea Cloudinary para no hacer subidas reales durante los tests
     @MockitoBean
@@ -165,9 +166,16 @@ class RoomServiceIntegrationTest {
     void getAllRooms_ShouldReturnList() {
         roomRepository.save(Room.builder().name("S1").capacity(5).floor(1).equipment(List.of("A")).build());
         roomRepository.save(Room.builder().name("S2").capacity(5).floor(1).equipment(List.of("B")).build());
+        // Las salas se guardaron sin pasar por RoomService
+        roomCatalog.refresh();
 
         List<RoomDto> dtos = roomService.getAllRooms();
         assertEquals(2, dtos.size());
+
+        RoomDto created = roomService.createRoom(RoomDto.builder().name("S3").capacity(4).floor(2).build(), null);
+        assertEquals(3, roomService.getAllRooms().size());
+        roomService.delateRoom(created.getId());
+        assertEquals(2, roomService.getAllRooms().size());
     }
 
     @Test
@@ -30,6 +30,9 @@ class RoomServiceUnitTest {
     @Mock
     private CloudinaryService cloudinaryService;
 
+    @Mock
+    private RoomCatalog roomCatalog;
+
     @InjectMocks
     private RoomService roomService;
 
@@ -41,8 +44,8 @@ class RoomServiceUnitTest {
     @DisplayName("Unitario: getAllRooms retorna lista de DTOs")
     void getAllRooms_ShouldReturnListOfDtos() {
         // Arrange
-        Room room = Room.builder().id(1L).name("Sala A").build();
-        when(roomRepo.findAll()).thenReturn(List.of(room));
+        RoomDto room = RoomDto.builder().id(1L).name("Sala A").build();
+        when(roomCatalog.getRooms()).thenReturn(List.of(room));
 
         // Act
         List<RoomDto> result = roomService.getAllRooms();
@@ -51,13 +54,13 @@ class RoomServiceUnitTest {
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
         assertEquals("Sala A", result.get(0).getName());
-        verify(roomRepo).findAll();
+        verify(roomRepo, never()).findAll(); // se sirve desde el catálogo en memoria
     }
     
     @Test
     @DisplayName("Unitario: getAllRooms retorna lista vacía si no hay salas")
     void getAllRooms_ShouldReturnEmptyList() {
-        when(roomRepo.findAll()).thenReturn(Collections.emptyList());
+        when(roomCatalog.getRooms()).thenReturn(Collections.emptyList());
 
         List<RoomDto> result = roomService.getAllRooms();
 
@@ -88,6 +91,7 @@ class RoomServiceUnitTest {
         assertNotNull(result.getId());
         assertEquals("http://url-falsa.com/img.jpg", result.getImageUrl());
         verify(roomRepo).save(any(Room.class));
+        verify(roomCatalog).refresh();
     }
 
     @Test
@@ -0,0 +1,138 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.RoomDto;
+import bookfronterab.model.Room;
+import bookfronterab.model.User;
+import bookfronterab.model.UserRole;
+import bookfronterab.repo.ReservationWeekCounterRepository;
+import bookfronterab.repo.RoomRepository;
+import bookfronterab.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que {@link Room} (con su equipamiento) y {@link User} se sirvan desde la caché de segundo
+ * nivel de Hibernate, y que las escrituras la mantengan al día.
+ */
+@Testcontainers
+@SpringBootTest
+class SecondLevelCacheIntegrationTest {
+
+    @Container
+    public static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("bookfronterab-test")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+        // Evita que el dispatcher del outbox ejecute consultas durante la medición
+        registry.add("bookfrontera.calendar-outbox.poll-ms", () -> "3600000");
+    }
+
+    @Autowired private RoomService roomService;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ReservationWeekCounterRepository counterRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        room = roomRepository.save(Room.builder().name("Sala Caché").capacity(8).floor(2)
+                .equipment(new ArrayList<>(List.of("TV", "Pizarra"))).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomRepository.deleteAll();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Una sala ya leída (con su equipamiento) se obtiene sin consultar la base de datos")
+    void findRoom_ShouldHitCacheOnSecondRead() {
+        roomRepository.findById(room.getId()).orElseThrow();
+        statistics.clear();
+
+        Room cached = roomRepository.findById(room.getId()).orElseThrow();
+
+        assertEquals(List.of("TV", "Pizarra"), cached.getEquipment());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2);
+    }
+
+    @Test
+    @DisplayName("Editar una sala actualiza la caché: la siguiente lectura ve los cambios")
+    void patchRoom_ShouldRefreshCachedRoom() {
+        roomRepository.findById(room.getId()).orElseThrow();
+
+        roomService.patchRoom(room.getId(), RoomDto.builder().name("Sala Renombrada").equipment(List.of("Proyector")).build(), null);
+
+        Room updated = roomRepository.findById(room.getId()).orElseThrow();
+        assertEquals("Sala Renombrada", updated.getName());
+        assertEquals(List.of("Proyector"), updated.getEquipment());
+    }
+
+    @Test
+    @DisplayName("Eliminar una sala la quita de la caché")
+    void deleteRoom_ShouldEvictCachedRoom() {
+        roomRepository.findById(room.getId()).orElseThrow();
+
+        roomService.delateRoom(room.getId());
+
+        assertTrue(roomRepository.findById(room.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Guardar tokens nuevos de Google invalida el usuario en caché")
+    void updateGoogleTokens_ShouldEvictCachedUser() {
+        User user = userRepository.save(User.builder().email("cache@ufromail.cl").nombre("Cache").rol(UserRole.STUDENT)
+                .googleAccessToken("token-viejo").build());
+        userRepository.findById(user.getId()).orElseThrow();
+
+        userRepository.updateGoogleTokens(user.getId(), "token-nuevo", "refresh", OffsetDateTime.now().plusHours(1));
+
+        assertEquals("token-nuevo", userRepository.findById(user.getId()).orElseThrow().getGoogleAccessToken());
+    }
+
+    @Test
+    @DisplayName("Las consultas nativas sobre otras tablas no vacían la caché")
+    void nativeCounterUpdate_ShouldKeepCachedRoom() {
+        roomRepository.findById(room.getId()).orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> counterRepository.increment(1L, 202545, 1));
+        statistics.clear();
+
+        roomRepository.findById(room.getId()).orElseThrow();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
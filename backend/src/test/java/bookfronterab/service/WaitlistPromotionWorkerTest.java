@@ -0,0 +1,177 @@
+package bookfronterab.service;
+
+import bookfronterab.dto.ReservationDto;
+import bookfronterab.model.User;
+import bookfronterab.model.WaitlistEntry;
+import bookfronterab.model.WaitlistPromotion;
+import bookfronterab.repo.UserRepository;
+import bookfronterab.repo.WaitlistPromotionRepository;
+import bookfronterab.repo.WaitlistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WaitlistPromotionWorkerTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 3, 3, 8, 0, 0, 0, ZoneOffset.ofHours(-3));
+    private static final ZonedDateTime TEN = NOW.withHour(10).toZonedDateTime();
+    private static final long ROOM_ID = 5L;
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock private WaitlistPromotionRepository promotionRepo;
+    @Mock private WaitlistRepository waitlistRepo;
+    @Mock private UserRepository userRepo;
+    @Mock private ReservationService reservationService;
+    @Mock private TimeService timeService;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private WaitlistPromotionWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new WaitlistPromotionWorker(promotionRepo, waitlistRepo, userRepo, reservationService, timeService,
+                transactionTemplate, 10, MAX_ATTEMPTS);
+
+        when(timeService.nowOffset()).thenReturn(NOW);
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Un candidato sobre su límite semanal conserva su lugar y se asigna el siguiente")
+    void promotePending_ShouldSkipCandidateOverWeeklyLimit() {
+        WaitlistPromotion promotion = promotion(1L, TEN, TEN.plusHours(1));
+        WaitlistEntry first = entry(11L, user(1L, "first@ufromail.cl"), TEN, TEN.plusHours(1));
+        WaitlistEntry second = entry(12L, user(2L, "second@ufromail.cl"), TEN, TEN.plusHours(1));
+        queue(promotion, first, second);
+        doThrow(new IllegalStateException("Límite alcanzado"))
+                .when(reservationService).create(eq("first@ufromail.cl"), any());
+
+        assertEquals(1, worker.promotePending());
+
+        verify(reservationService).create("second@ufromail.cl",
+                new ReservationDto.CreateRequest(ROOM_ID, TEN, TEN.plusHours(1), false));
+        verify(waitlistRepo).deleteById(12L);
+        verify(waitlistRepo, never()).deleteById(11L);
+        verify(promotionRepo).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("Las entradas que no se solapan entre sí se asignan en el mismo intervalo liberado")
+    void promotePending_ShouldPromoteNonOverlappingEntriesTogether() {
+        WaitlistPromotion promotion = promotion(1L, TEN, TEN.plusHours(2));
+        WaitlistEntry morning = entry(11L, user(1L, "first@ufromail.cl"), TEN, TEN.plusHours(1));
+        WaitlistEntry later = entry(12L, user(2L, "second@ufromail.cl"), TEN.plusHours(1), TEN.plusHours(2));
+        WaitlistEntry overlapping = entry(13L, user(3L, "third@ufromail.cl"), TEN.plusMinutes(30), TEN.plusMinutes(90));
+        queue(promotion, morning, later, overlapping);
+
+        worker.promotePending();
+
+        verify(reservationService).create(eq("first@ufromail.cl"), any());
+        verify(reservationService).create(eq("second@ufromail.cl"), any());
+        verify(reservationService, never()).create(eq("third@ufromail.cl"), any());
+        verify(waitlistRepo).deleteById(11L);
+        verify(waitlistRepo).deleteById(12L);
+        verify(waitlistRepo, never()).deleteById(13L);
+        verify(promotionRepo).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("La entrada de un usuario eliminado se descarta y se asigna el siguiente")
+    void promotePending_ShouldDiscardEntryOfDeletedUser() {
+        WaitlistPromotion promotion = promotion(1L, TEN, TEN.plusHours(1));
+        WaitlistEntry orphan = entry(11L, User.builder().id(1L).build(), TEN, TEN.plusHours(1));
+        WaitlistEntry second = entry(12L, user(2L, "second@ufromail.cl"), TEN, TEN.plusHours(1));
+        queue(promotion, orphan, second);
+        when(userRepo.findById(1L)).thenReturn(Optional.empty());
+
+        worker.promotePending();
+
+        verify(waitlistRepo).deleteById(11L);
+        verify(reservationService, times(1)).create(any(), any());
+        verify(reservationService).create(eq("second@ufromail.cl"), any());
+        verify(promotionRepo).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("Un error inesperado no pierde el intervalo: se prueban los demás candidatos y se reintenta")
+    void promotePending_ShouldKeepPromotionAfterUnexpectedError() {
+        WaitlistPromotion promotion = promotion(1L, TEN, TEN.plusHours(1));
+        WaitlistEntry first = entry(11L, user(1L, "first@ufromail.cl"), TEN, TEN.plusHours(1));
+        WaitlistEntry second = entry(12L, user(2L, "second@ufromail.cl"), TEN, TEN.plusHours(1));
+        queue(promotion, first, second);
+        doThrow(new DataAccessResourceFailureException("conexión perdida"))
+                .when(reservationService).create(eq("first@ufromail.cl"), any());
+
+        worker.promotePending();
+
+        verify(reservationService).create(eq("second@ufromail.cl"), any());
+        verify(waitlistRepo, never()).deleteById(11L);
+        assertEquals(1, promotion.getAttempts());
+        verify(promotionRepo).save(promotion);
+        verify(promotionRepo, never()).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("Un intervalo que falla en cada ciclo se descarta al agotar los intentos")
+    void promotePending_ShouldDropPromotionAfterMaxAttempts() {
+        WaitlistPromotion promotion = promotion(1L, TEN, TEN.plusHours(1));
+        when(promotionRepo.findAllByOrderByIdAsc(any())).thenReturn(List.of(promotion));
+        when(waitlistRepo.findCandidates(any(), any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("conexión perdida"));
+
+        for (int i = 1; i < MAX_ATTEMPTS; i++) {
+            worker.promotePending();
+            assertEquals(i, promotion.getAttempts());
+        }
+        verify(promotionRepo, never()).deleteById(1L);
+
+        worker.promotePending();
+        verify(promotionRepo).deleteById(1L);
+    }
+
+    private void queue(WaitlistPromotion promotion, WaitlistEntry... candidates) {
+        when(promotionRepo.findAllByOrderByIdAsc(any())).thenReturn(List.of(promotion));
+        when(waitlistRepo.findCandidates(ROOM_ID, promotion.getStartAt(), promotion.getEndAt(), NOW.toZonedDateTime()))
+                .thenReturn(List.of(candidates));
+    }
+
+    private User user(Long id, String email) {
+        User user = User.builder().id(id).email(email).build();
+        when(userRepo.findById(id)).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    private static WaitlistPromotion promotion(Long id, ZonedDateTime startAt, ZonedDateTime endAt) {
+        return WaitlistPromotion.builder().id(id).roomId(ROOM_ID).startAt(startAt).endAt(endAt).createdAt(NOW).build();
+    }
+
+    private static WaitlistEntry entry(Long id, User user, ZonedDateTime startAt, ZonedDateTime endAt) {
+        return WaitlistEntry.builder().id(id).roomId(ROOM_ID).userId(user.getId())
+                .startAt(startAt).endAt(endAt).createdAt(NOW).build();
+    }
+}
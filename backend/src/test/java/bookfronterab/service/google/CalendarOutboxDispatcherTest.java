@@ -0,0 +1,249 @@
+package bookfronterab.service.google;
+
+import bookfronterab.model.CalendarOutboxEvent;
+import bookfronterab.model.CalendarOutboxOperation;
+import bookfronterab.model.CalendarOutboxStatus;
+import bookfronterab.model.Reservation;
+import bookfronterab.model.Room;
+import bookfronterab.model.User;
+import bookfronterab.repo.CalendarOutboxRepository;
+import bookfronterab.repo.ReservationRepository;
+import bookfronterab.repo.UserRepository;
+import bookfronterab.service.TimeService;
+import com.google.api.client.auth.oauth2.Credential;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CalendarOutboxDispatcherTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 3, 3, 10, 0, 0, 0, ZoneOffset.ofHours(-3));
+
+    @Mock private CalendarOutboxRepository outboxRepo;
+    @Mock private ReservationRepository reservationRepo;
+    @Mock private UserRepository userRepo;
+    @Mock private GoogleCalendarService googleCalendarService;
+    @Mock private GoogleCredentialsService googleCredentialsService;
+    @Mock private TimeService timeService;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private CalendarOutboxService calendarOutboxService;
+    @Mock private Credential credential;
+
+    private CalendarOutboxDispatcher dispatcher;
+    private User owner;
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dispatcher = new CalendarOutboxDispatcher(outboxRepo, reservationRepo, userRepo, googleCalendarService,
+                googleCredentialsService, timeService, transactionTemplate, calendarOutboxService, 10, 1, 3, 5, 1);
+
+        when(timeService.nowOffset()).thenReturn(NOW);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(credential.getAccessToken()).thenReturn("token");
+        when(googleCredentialsService.getCredential(any(User.class))).thenReturn(credential);
+
+        owner = User.builder().id(7L).email("test@ufromail.cl").build();
+        reservation = reservation(3L, owner);
+    }
+
+    @Test
+    @DisplayName("CREATE exitoso guarda el ID de Google en la reserva y elimina el evento del outbox")
+    void process_Create_ShouldStoreGoogleIdAndRemoveEvent() throws IOException {
+        CalendarOutboxEvent event = pending(1L, CalendarOutboxOperation.CREATE, 3L, null);
+        when(outboxRepo.findById(1L)).thenReturn(Optional.of(event));
+        when(reservationRepo.findAllById(any())).thenReturn(List.of(reservation));
+        when(reservationRepo.findAllByIdForUpdate(any())).thenReturn(List.of(reservation));
+        when(googleCalendarService.createEventsForReservations(List.of(reservation), "token"))
+                .thenReturn(Map.of(3L, success("g-1")));
+
+        dispatcher.process(1L);
+
+        verify(reservationRepo).findAllByIdForUpdate(argThat(ids -> ids.contains(3L)));
+        assertEquals("g-1", reservation.getGoogleEventId());
+        verify(reservationRepo).save(reservation);
+        verify(outboxRepo).deleteById(1L);
+        verifyNoInteractions(calendarOutboxService);
+    }
+
+    @Test
+    @DisplayName("CREATE encola el borrado del evento de Google si la reserva se canceló durante el envío")
+    void process_Create_ShouldEnqueueOrphanDelete_WhenReservationCancelledMeanwhile() throws IOException {
+        CalendarOutboxEvent event = pending(1L, CalendarOutboxOperation.CREATE, 3L, null);
+        when(outboxRepo.findById(1L)).thenReturn(Optional.of(event));
+        when(reservationRepo.findAllById(any())).thenReturn(List.of(reservation));
+        when(reservationRepo.findAllByIdForUpdate(any())).thenReturn(List.of());
+        when(googleCalendarService.createEventsForReservations(List.of(reservation), "token"))
+                .thenReturn(Map.of(3L, success("g-1")));
+
+        dispatcher.process(1L);
+
+        verify(calendarOutboxService).enqueueDelete(3L, 7L, "g-1");
+        verify(reservationRepo, never()).save(any());
+        verify(outboxRepo).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("CREATE se omite si la reserva ya no existe")
+    void process_Create_ShouldSkip_WhenReservationMissing() {
+        CalendarOutboxEvent event = pending(1L, CalendarOutboxOperation.CREATE, 3L, null);
+        when(outboxRepo.findById(1L)).thenReturn(Optional.of(event));
+        when(reservationRepo.findAllById(any())).thenReturn(List.of());
+
+        dispatcher.process(1L);
+
+        verifyNoInteractions(googleCalendarService);
+        verify(outboxRepo).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("Un lote agrupa por usuario y aplica el resultado de cada reserva por separado")
+    void dispatchPending_ShouldBatchPerUserAndApplyPerItemResults() throws IOException {
+        User otherOwner = User.builder().id(8L).email("other@ufromail.cl").build();
+        Reservation second = reservation(4L, owner);
+        Reservation third = reservation(5L, otherOwner);
+        CalendarOutboxEvent e1 = pending(1L, CalendarOutboxOperation.CREATE, 3L, null);
+        CalendarOutboxEvent e2 = pending(2L, CalendarOutboxOperation.CREATE, 4L, null);
+        CalendarOutboxEvent e3 = pending(3L, CalendarOutboxOperation.CREATE, 5L, null);
+        e3.setUserId(8L);
+        when(outboxRepo.findDue(eq(CalendarOutboxStatus.PENDING), eq(NOW), any())).thenReturn(List.of(e1, e2, e3));
+        when(reservationRepo.findAllById(idsContaining(3L)))
+                .thenReturn(List.of(reservation, second));
+        when(reservationRepo.findAllById(idsContaining(5L)))
+                .thenReturn(List.of(third));
+        when(reservationRepo.findAllByIdForUpdate(idsContaining(3L)))
+                .thenReturn(List.of(reservation, second));
+        when(reservationRepo.findAllByIdForUpdate(idsContaining(5L)))
+                .thenReturn(List.of(third));
+        when(googleCalendarService.createEventsForReservations(List.of(reservation, second), "token"))
+                .thenReturn(Map.of(3L, success("g-3"), 4L, new GoogleCalendarService.BatchItemResult(null, "403 Rate Limit Exceeded")));
+        when(googleCalendarService.createEventsForReservations(List.of(third), "token"))
+                .thenReturn(Map.of(5L, success("g-5")));
+
+        assertEquals(3, dispatcher.dispatchPending());
+
+        verify(googleCalendarService, times(2)).createEventsForReservations(anyList(), anyString());
+        assertEquals("g-3", reservation.getGoogleEventId());
+        assertEquals("g-5", third.getGoogleEventId());
+        verify(outboxRepo).deleteById(1L);
+        verify(outboxRepo).deleteById(3L);
+        assertNull(second.getGoogleEventId());
+        assertEquals(1, e2.getAttempts());
+        assertEquals("403 Rate Limit Exceeded", e2.getLastError());
+    }
+
+    @Test
+    @DisplayName("DELETE usa las credenciales del dueño y elimina el evento del outbox")
+    void process_Delete_ShouldCallGoogleAndRemoveEvent() throws IOException {
+        CalendarOutboxEvent event = pending(2L, CalendarOutboxOperation.DELETE, 3L, "g-2");
+        when(outboxRepo.findById(2L)).thenReturn(Optional.of(event));
+        when(userRepo.findById(7L)).thenReturn(Optional.of(owner));
+        when(googleCalendarService.deleteEvents(List.of("g-2"), "token")).thenReturn(Map.of("g-2", success("g-2")));
+
+        dispatcher.process(2L);
+
+        verify(googleCalendarService).deleteEvents(List.of("g-2"), "token");
+        verify(outboxRepo).deleteById(2L);
+    }
+
+    @Test
+    @DisplayName("Un fallo programa un reintento con backoff y, al agotar los intentos, marca FAILED")
+    void process_ShouldRetryWithBackoffAndThenFail() throws IOException {
+        CalendarOutboxEvent event = pending(2L, CalendarOutboxOperation.DELETE, 3L, "g-2");
+        when(outboxRepo.findById(2L)).thenReturn(Optional.of(event));
+        when(userRepo.findById(7L)).thenReturn(Optional.of(owner));
+        when(googleCalendarService.deleteEvents(List.of("g-2"), "token")).thenThrow(new IOException("503"));
+
+        dispatcher.process(2L);
+        assertEquals(1, event.getAttempts());
+        assertEquals(CalendarOutboxStatus.PENDING, event.getStatus());
+        assertEquals(NOW.plusSeconds(5), event.getNextAttemptAt());
+        assertEquals("503", event.getLastError());
+
+        dispatcher.process(2L);
+        assertEquals(NOW.plusSeconds(10), event.getNextAttemptAt());
+
+        dispatcher.process(2L);
+        assertEquals(3, event.getAttempts());
+        assertEquals(CalendarOutboxStatus.FAILED, event.getStatus());
+        verify(outboxRepo, never()).deleteById(any());
+
+        // Un evento FAILED ya no se procesa
+        dispatcher.process(2L);
+        verify(googleCalendarService, times(3)).deleteEvents(List.of("g-2"), "token");
+    }
+
+    @Test
+    @DisplayName("El backoff crece exponencialmente con tope")
+    void backoff_ShouldGrowExponentiallyWithCap() {
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(20), dispatcher.backoff(3));
+        assertEquals(Duration.ofMinutes(1), dispatcher.backoff(10));
+        assertEquals(Duration.ofMinutes(1), dispatcher.backoff(100));
+    }
+
+    private static <T extends Iterable<Long>> T idsContaining(Long id) {
+        return argThat(ids -> ids != null && StreamSupport.stream(ids.spliterator(), false).anyMatch(id::equals));
+    }
+
+    private static GoogleCalendarService.BatchItemResult success(String googleEventId) {
+        return new GoogleCalendarService.BatchItemResult(googleEventId, null);
+    }
+
+    private static Reservation reservation(Long id, User user) {
+        return Reservation.builder()
+                .id(id)
+                .user(user)
+                .room(Room.builder().id(1L).name("Sala A").build())
+                .startAt(ZonedDateTime.now())
+                .endAt(ZonedDateTime.now().plusHours(1))
+                .build();
+    }
+
+    private CalendarOutboxEvent pending(Long id, CalendarOutboxOperation operation, Long reservationId, String googleEventId) {
+        return CalendarOutboxEvent.builder()
+                .id(id)
+                .operation(operation)
+                .status(CalendarOutboxStatus.PENDING)
+                .reservationId(reservationId)
+                .userId(7L)
+                .googleEventId(googleEventId)
+                .nextAttemptAt(NOW)
+                .createdAt(NOW)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package bookfronterab.service.google;
+
+import bookfronterab.model.Reservation;
+import bookfronterab.model.Room;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.calendar.Calendar;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba las operaciones batch de {@link GoogleCalendarService} contra un servidor HTTP local.
+ */
+class GoogleCalendarServiceBatchTest {
+
+    private GoogleCalendarStubServer stub;
+    private GoogleCalendarService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new GoogleCalendarStubServer();
+        Calendar client = new Calendar.Builder(new ApacheHttpTransport(), GsonFactory.getDefaultInstance(), null)
+                .setRootUrl(stub.rootUrl())
+                .setApplicationName("test")
+                .build();
+        service = new GoogleCalendarService(client, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Crear varios eventos usa peticiones batch de hasta batchSize operaciones")
+    void createEvents_ShouldGroupIntoBatches() throws IOException {
+        List<Reservation> reservations = LongStream.rangeClosed(1, 3).mapToObj(this::reservation).toList();
+
+        Map<Long, GoogleCalendarService.BatchItemResult> results =
+                service.createEventsForReservations(reservations, "token-a");
+
+        assertEquals(3, results.size());
+        assertTrue(results.values().stream().allMatch(GoogleCalendarService.BatchItemResult::isSuccess));
+        assertEquals(3, results.values().stream().map(GoogleCalendarService.BatchItemResult::googleEventId).distinct().count());
+
+        // 3 eventos con batchSize=2 -> 2 round trips
+        assertEquals(2, stub.calls().size());
+        assertTrue(stub.calls().stream().allMatch(GoogleCalendarStubServer.HttpCall::batch));
+        assertEquals(2, stub.calls().get(0).operations().size());
+        assertEquals(1, stub.calls().get(1).operations().size());
+        stub.calls().forEach(call -> call.operations().forEach(operation -> {
+            assertEquals("POST", operation.method());
+            assertEquals("Bearer token-a", operation.authorization());
+        }));
+    }
+
+    @Test
+    @DisplayName("Si falla una petición batch completa, solo sus eventos quedan con error")
+    void createEvents_ShouldKeepResultsOfOtherBatches_WhenOneBatchFails() throws IOException {
+        stub.failBatch(2, 503);
+        List<Reservation> reservations = LongStream.rangeClosed(1, 5).mapToObj(this::reservation).toList();
+
+        Map<Long, GoogleCalendarService.BatchItemResult> results =
+                service.createEventsForReservations(reservations, "token-a");
+
+        // 5 eventos con batchSize=2 -> 3 round trips; el segundo falla completo
+        assertEquals(3, stub.calls().size());
+        assertEquals(5, results.size());
+        assertTrue(results.get(1L).isSuccess());
+        assertTrue(results.get(2L).isSuccess());
+        assertFalse(results.get(3L).isSuccess());
+        assertFalse(results.get(4L).isSuccess());
+        assertTrue(results.get(3L).error().contains("503"));
+        // Los lotes siguientes se siguen enviando
+        assertTrue(results.get(5L).isSuccess());
+    }
+
+    @Test
+    @DisplayName("Borrar varios eventos devuelve el resultado de cada uno; 404 cuenta como borrado")
+    void deleteEvents_ShouldReturnPerItemResults() throws IOException {
+        stub.failDelete("gone", 404);
+        stub.failDelete("boom", 500);
+
+        Map<String, GoogleCalendarService.BatchItemResult> results =
+                service.deleteEvents(List.of("ok", "gone", "boom"), "token-b");
+
+        assertTrue(results.get("ok").isSuccess());
+        assertTrue(results.get("gone").isSuccess());
+        assertFalse(results.get("boom").isSuccess());
+        assertTrue(results.get("boom").error().startsWith("500"));
+        assertEquals(2, stub.calls().size());
+        assertEquals("DELETE", stub.calls().get(0).operations().get(0).method());
+    }
+
+    @Test
+    @DisplayName("Una sola operación se envía sin el formato batch")
+    void singleOperation_ShouldNotUseBatchEndpoint() throws IOException {
+        Map<Long, GoogleCalendarService.BatchItemResult> results =
+                service.createEventsForReservations(List.of(reservation(1L)), "token-a");
+
+        assertTrue(results.get(1L).isSuccess());
+        assertEquals(1, stub.calls().size());
+        assertFalse(stub.calls().get(0).batch());
+        assertEquals("Bearer token-a", stub.calls().get(0).operations().get(0).authorization());
+    }
+
+    private Reservation reservation(long id) {
+        ZonedDateTime start = ZonedDateTime.of(2025, 3, 3, 10, 0, 0, 0, ZoneId.of("America/Santiago")).plusHours(id);
+        return Reservation.builder()
+                .id(id)
+                .room(Room.builder().name("Sala " + id).build())
+                .startAt(start)
+                .endAt(start.plusHours(1))
+                .build();
+    }
+}
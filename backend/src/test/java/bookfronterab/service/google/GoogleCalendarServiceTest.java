@@ -0,0 +1,95 @@
+package bookfronterab.service.google;
+
+import bookfronterab.model.Reservation;
+import bookfronterab.model.Room;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.calendar.Calendar;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleCalendarServiceTest {
+
+    private final List<MockLowLevelHttpRequest> requests = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private int nextStatus;
+    private String nextBody;
+
+    private GoogleCalendarService service;
+
+    @BeforeEach
+    void setUp() {
+        nextStatus = 200;
+        nextBody = "{\"id\":\"evt-1\"}";
+        HttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                MockLowLevelHttpRequest request = new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        return new MockLowLevelHttpResponse()
+                                .setStatusCode(nextStatus)
+                                .setContentType("application/json")
+                                .setContent(nextBody);
+                    }
+                };
+                requests.add(request);
+                return request;
+            }
+        };
+        Calendar client = new Calendar.Builder(transport, GsonFactory.getDefaultInstance(), null)
+                .setApplicationName("test")
+                .build();
+        service = new GoogleCalendarService(client, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("El cliente compartido envía el token de cada usuario en su propia petición")
+    void sharedClient_ShouldSendPerRequestAuthorization() throws IOException {
+        Reservation reservation = Reservation.builder()
+                .room(Room.builder().name("Sala A").build())
+                .startAt(ZonedDateTime.of(2025, 3, 3, 10, 0, 0, 0, ZoneId.of("America/Santiago")))
+                .endAt(ZonedDateTime.of(2025, 3, 3, 11, 0, 0, 0, ZoneId.of("America/Santiago")))
+                .build();
+
+        assertEquals("evt-1", service.createEventForReservation(reservation, "token-a"));
+        service.deleteEvent("evt-1", "token-b");
+
+        assertEquals(2, requests.size());
+        assertEquals("Bearer token-a", requests.get(0).getFirstHeaderValue("Authorization"));
+        assertTrue(requests.get(0).getContentAsString().contains("Sala A"));
+        assertEquals("Bearer token-b", requests.get(1).getFirstHeaderValue("Authorization"));
+        assertTrue(requests.get(1).getUrl().endsWith("/calendars/primary/events/evt-1"));
+        assertEquals(1, meterRegistry.get(GoogleCalendarService.REQUEST_TIMER)
+                .tags("operation", "insert", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(GoogleCalendarService.REQUEST_TIMER)
+                .tags("operation", "delete", "outcome", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("deleteEvent ignora eventos que ya no existen (404) y propaga otros errores")
+    void deleteEvent_ShouldIgnoreNotFound() {
+        nextStatus = 404;
+        nextBody = "{\"error\":{\"code\":404,\"message\":\"Not Found\"}}";
+        assertDoesNotThrow(() -> service.deleteEvent("missing", "token"));
+
+        nextStatus = 500;
+        nextBody = "{\"error\":{\"code\":500,\"message\":\"Backend Error\"}}";
+        assertThrows(IOException.class, () -> service.deleteEvent("evt-1", "token"));
+    }
+}
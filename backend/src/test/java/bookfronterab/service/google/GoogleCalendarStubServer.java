@@ -0,0 +1,188 @@
+package bookfronterab.service.google;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor HTTP local que imita los endpoints de eventos de Google Calendar usados por
+ * {@link GoogleCalendarService}, incluido el endpoint batch ({@code multipart/mixed}).
+ * Registra cada petición HTTP recibida para que los tests puedan contar los round trips.
+ */
+class GoogleCalendarStubServer implements AutoCloseable {
+
+    private static final String EVENTS_PATH = "/calendar/v3/calendars/primary/events";
+    private static final String RESPONSE_BOUNDARY = "batch_stub_response";
+
+    /**
+     * Una operación (dentro o fuera de un batch).
+     */
+    record Operation(String method, String path, String authorization) {
+    }
+
+    /**
+     * Una petición HTTP recibida y las operaciones que contenía.
+     */
+    record HttpCall(boolean batch, List<Operation> operations) {
+    }
+
+    private record StubResponse(int status, String body) {
+    }
+
+    private final HttpServer server;
+    private final List<HttpCall> calls = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> deleteFailures = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> batchFailures = new ConcurrentHashMap<>();
+    private final AtomicInteger createdEvents = new AtomicInteger();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+
+    GoogleCalendarStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String rootUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    List<HttpCall> calls() {
+        return calls;
+    }
+
+    /**
+     * Hace que el borrado de un evento responda con el código indicado (ej. 404 o 500).
+     */
+    void failDelete(String eventId, int status) {
+        deleteFailures.put(eventId, status);
+    }
+
+    /**
+     * Hace que la petición batch número {@code callNumber} (desde 1) falle completa con el código indicado.
+     */
+    void failBatch(int callNumber, int status) {
+        batchFailures.put(callNumber, status);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+
+        if (exchange.getRequestURI().getPath().startsWith("/batch/")) {
+            handleBatch(exchange, body, contentType);
+            return;
+        }
+
+        Operation operation = new Operation(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                exchange.getRequestHeaders().getFirst("Authorization"));
+        calls.add(new HttpCall(false, List.of(operation)));
+        StubResponse response = respond(operation);
+        byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange, String body, String contentType) throws IOException {
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length()).replace("\"", "");
+        Integer failure = batchFailures.get(batchCalls.incrementAndGet());
+        List<Operation> operations = new ArrayList<>();
+        StringBuilder response = new StringBuilder();
+
+        for (String part : body.split("--" + boundary)) {
+            String trimmed = part.strip();
+            if (trimmed.isEmpty() || trimmed.equals("--")) {
+                continue;
+            }
+            // Cabeceras de la parte, línea en blanco, petición HTTP embebida
+            String embedded = trimmed.substring(trimmed.indexOf("\r\n\r\n") + 4);
+            String[] headAndBody = embedded.split("\r\n\r\n", 2);
+            String[] lines = headAndBody[0].split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            String authorization = null;
+            for (int i = 1; i < lines.length; i++) {
+                if (lines[i].toLowerCase(Locale.ROOT).startsWith("authorization:")) {
+                    authorization = lines[i].substring("authorization:".length()).strip();
+                }
+            }
+            Operation operation = new Operation(requestLine[0], java.net.URI.create(requestLine[1]).getPath(), authorization);
+            operations.add(operation);
+            if (failure != null) {
+                continue;
+            }
+
+            StubResponse result = respond(operation);
+            byte[] resultBody = result.body().getBytes(StandardCharsets.UTF_8);
+            response.append("--").append(RESPONSE_BOUNDARY).append("\r\n")
+                    .append("Content-Type: application/http\r\n")
+                    .append("Content-ID: <response-").append(operations.size()).append(">\r\n\r\n")
+                    .append("HTTP/1.1 ").append(result.status()).append(' ').append(reason(result.status())).append("\r\n")
+                    .append("Content-Type: application/json; charset=UTF-8\r\n")
+                    .append("Content-Length: ").append(resultBody.length).append("\r\n\r\n")
+                    .append(result.body()).append("\r\n");
+        }
+        response.append("--").append(RESPONSE_BOUNDARY).append("--\r\n");
+        calls.add(new HttpCall(true, operations));
+
+        if (failure != null) {
+            byte[] error = ("{\"error\":{\"code\":" + failure + ",\"message\":\"" + reason(failure) + "\"}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(failure, error.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(error);
+            }
+            return;
+        }
+
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary=" + RESPONSE_BOUNDARY);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private StubResponse respond(Operation operation) {
+        if (operation.method().equals("POST") && operation.path().equals(EVENTS_PATH)) {
+            return new StubResponse(200, "{\"id\":\"evt-" + createdEvents.incrementAndGet() + "\"}");
+        }
+        if (operation.method().equals("DELETE") && operation.path().startsWith(EVENTS_PATH + "/")) {
+            String eventId = operation.path().substring(EVENTS_PATH.length() + 1);
+            Integer failure = deleteFailures.get(eventId);
+            if (failure != null) {
+                return new StubResponse(failure, "{\"error\":{\"code\":" + failure + ",\"message\":\"" + reason(failure) + "\"}}");
+            }
+            return new StubResponse(204, "");
+        }
+        return new StubResponse(404, "{\"error\":{\"code\":404,\"message\":\"Not Found\"}}");
+    }
+
+    private static String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 204 -> "No Content";
+            case 404 -> "Not Found";
+            case 410 -> "Gone";
+            default -> "Error";
+        };
+    }
+}
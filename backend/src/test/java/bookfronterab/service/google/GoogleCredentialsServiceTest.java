@@ -0,0 +1,172 @@
+package bookfronterab.service.google;
+
+import bookfronterab.model.User;
+import bookfronterab.repo.UserRepository;
+import bookfronterab.service.TimeService;
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GoogleCredentialsServiceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 3, 3, 10, 0, 0, 0, ZoneOffset.ofHours(-3));
+
+    @Mock private UserRepository userRepository;
+    @Mock private TimeService timeService;
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final CountDownLatch releaseTokenResponse = new CountDownLatch(1);
+    private volatile String tokenResponse = "{\"access_token\":\"new-access\",\"expires_in\":3600}";
+
+    private GoogleCredentialsService service;
+
+    @BeforeEach
+    void setUp() {
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        tokenRequests.incrementAndGet();
+                        try {
+                            // Simula un endpoint lento para que las peticiones concurrentes se solapen
+                            releaseTokenResponse.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("application/json")
+                                .setContent(tokenResponse);
+                    }
+                };
+            }
+        };
+        service = new GoogleCredentialsService(userRepository, timeService, transport, GsonFactory.getDefaultInstance(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "clientId", "client-id");
+        ReflectionTestUtils.setField(service, "clientSecret", "client-secret");
+        ReflectionTestUtils.setField(service, "refreshSkewSeconds", 120L);
+        lenient().when(timeService.nowOffset()).thenReturn(NOW);
+    }
+
+    @Test
+    @DisplayName("Un token vigente se usa sin llamar a Google")
+    void getCredential_ShouldUseValidToken() throws IOException {
+        User user = user(NOW.plusMinutes(30));
+
+        Credential credential = service.getCredential(user);
+
+        assertEquals("old-access", credential.getAccessToken());
+        assertEquals(0, tokenRequests.get());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Un token dentro del margen de expiración se refresca de forma anticipada")
+    void getCredential_ShouldRefreshProactivelyWithinSkew() throws IOException {
+        releaseTokenResponse.countDown();
+        User user = user(NOW.plusSeconds(60));
+
+        Credential credential = service.getCredential(user);
+
+        assertEquals("new-access", credential.getAccessToken());
+        assertEquals(1, tokenRequests.get());
+        verify(userRepository).updateGoogleTokens(7L, "new-access", "refresh", NOW.plusSeconds(3600));
+        verify(userRepository, never()).save(any());
+        assertEquals("new-access", user.getGoogleAccessToken());
+    }
+
+    @Test
+    @DisplayName("Los refrescos concurrentes del mismo usuario se agrupan en una sola petición")
+    void getCredential_ShouldDeduplicateConcurrentRefreshes() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Credential>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                // Cada hilo trae su propia copia (desactualizada) de la entidad, como en peticiones distintas
+                User staleCopy = user(NOW.minusMinutes(5));
+                results.add(pool.submit(() -> service.getCredential(staleCopy)));
+            }
+            // Espera a que la primera petición llegue a Google antes de liberarla
+            while (tokenRequests.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            releaseTokenResponse.countDown();
+
+            for (Future<Credential> result : results) {
+                assertEquals("new-access", result.get(5, TimeUnit.SECONDS).getAccessToken());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, tokenRequests.get());
+        verify(userRepository, times(1)).updateGoogleTokens(eq(7L), eq("new-access"), eq("refresh"), any());
+    }
+
+    @Test
+    @DisplayName("El token refrescado queda en caché y se conserva el refresh token rotado")
+    void getCredential_ShouldCacheRotatedTokens() throws IOException {
+        tokenResponse = "{\"access_token\":\"new-access\",\"refresh_token\":\"rotated\",\"expires_in\":3600}";
+        releaseTokenResponse.countDown();
+
+        service.getCredential(user(NOW.minusMinutes(1)));
+        // Una copia antigua de la entidad no debe provocar otro refresco
+        Credential credential = service.getCredential(user(NOW.minusMinutes(1)));
+
+        assertEquals("new-access", credential.getAccessToken());
+        assertEquals("rotated", credential.getRefreshToken());
+        assertEquals(1, tokenRequests.get());
+    }
+
+    @Test
+    @DisplayName("Sin tokens guardados se lanza IOException")
+    void getCredential_ShouldFail_WhenNoTokens() {
+        User user = User.builder().id(8L).email("sin-tokens@ufromail.cl").build();
+
+        assertThrows(IOException.class, () -> service.getCredential(user));
+    }
+
+    private static User user(OffsetDateTime expiry) {
+        return User.builder()
+                .id(7L)
+                .email("test@ufromail.cl")
+                .googleAccessToken("old-access")
+                .googleRefreshToken("refresh")
+                .googleTokenExpiryDate(expiry)
+                .build();
+    }
+}
@@ -12,7 +12,9 @@ interface Props {
 
 export default function ReservationManagerModal({ isOpen, onClose, roomId, roomName }: Props) {
     const [reservations, setReservations] = useState<ReservationDetail[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
     const [isLoading, setIsLoading] = useState(false);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
 
     // Cargar reservas cuando se abre el modal
     useEffect(() => {
@@ -26,7 +28,8 @@ export default function ReservationManagerModal({ isOpen, onClose, roomId, roomN
         setIsLoading(true);
         try {
             const data = await AvailabilityApi.getReservationsByRoom(roomId);
-            setReservations(data);
+            setReservations(data.items);
+            setNextCursor(data.nextCursor);
         } catch (error) {
             console.error("Error cargando reservas:", error);
         } finally {
@@ -34,6 +37,21 @@ export default function ReservationManagerModal({ isOpen, onClose, roomId, roomN
         }
     };
 
+    // Siguiente página (paginación por cursor)
+    const loadMore = async () => {
+        if (!roomId || !nextCursor) return;
+        setIsLoadingMore(true);
+        try {
+            const data = await AvailabilityApi.getReservationsByRoom(roomId, nextCursor);
+            setReservations(prev => [...prev, ...data.items]);
+            setNextCursor(data.nextCursor);
+        } catch (error) {
+            console.error("Error cargando más reservas:", error);
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
+
     const handleDelete = async (id: number) => {
         if (!window.confirm("¿Seguro que deseas eliminar esta reserva? Esta acción liberará el horario.")) return;
 
@@ -117,6 +135,15 @@ export default function ReservationManagerModal({ isOpen, onClose, roomId, roomN
                                     </button>
                                 </div>
                             ))}
+                            {nextCursor && (
+                                <button
+                                    onClick={loadMore}
+                                    disabled={isLoadingMore}
+                                    className="w-full py-2.5 text-sm font-semibold text-[#0a3fa6] bg-white border border-gray-200 rounded-xl hover:bg-gray-50 transition-colors disabled:opacity-50"
+                                >
+                                    {isLoadingMore ? "Cargando..." : "Cargar más"}
+                                </button>
+                            )}
                         </div>
                     )}
                 </div>
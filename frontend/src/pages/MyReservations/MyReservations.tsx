@@ -8,6 +8,8 @@ export default function MyReservations() {
     const [current, setCurrent] = useState<ReservationDetail | null>(null);
     const [future, setFuture] = useState<ReservationDetail[]>([]);
     const [past, setPast] = useState<ReservationDetail[]>([]);
+    const [pastNextCursor, setPastNextCursor] = useState<string | null>(null);
+    const [isLoadingMorePast, setIsLoadingMorePast] = useState(false);
 
     // Estados de UI
     const [isLoading, setIsLoading] = useState(true);
@@ -23,6 +25,7 @@ export default function MyReservations() {
             setCurrent(data.current);
             setFuture(data.future);
             setPast(data.past);
+            setPastNextCursor(data.pastNextCursor);
         } catch (err: any) {
             setError(err.message || "No se pudiero cargar tus reservas.");
         } finally {
@@ -30,6 +33,21 @@ export default function MyReservations() {
         }
     };
 
+    // Carga la siguiente página del historial
+    const fetchMorePast = async () => {
+        if (!pastNextCursor) return;
+        setIsLoadingMorePast(true);
+        try {
+            const page = await AvailabilityApi.getMyPastReservations(pastNextCursor);
+            setPast(prev => [...prev, ...page.items]);
+            setPastNextCursor(page.nextCursor);
+        } catch (err: any) {
+            setError(err.message || "No se pudo cargar tu historial.");
+        } finally {
+            setIsLoadingMorePast(false);
+        }
+    };
+
     // Cargar datos al montar el componente
     useEffect(() => {
         fetchReservations();
@@ -121,6 +139,17 @@ export default function MyReservations() {
                     ) : (
                         <p className="text-gray-600">No tienes reservas pasadas.</p>
                     )}
+                    {pastNextCursor && (
+                        <div className="flex justify-center mt-6">
+                            <button
+                                onClick={fetchMorePast}
+                                disabled={isLoadingMorePast}
+                                className="px-5 py-2.5 text-sm font-semibold text-[#0a3fa6] bg-white border border-gray-200 rounded-xl hover:bg-gray-50 transition-colors disabled:opacity-50"
+                            >
+                                {isLoadingMorePast ? "Cargando..." : "Ver más"}
+                            </button>
+                        </div>
+                    )}
                 </section>
             </div>
         </main>
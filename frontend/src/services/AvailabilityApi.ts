@@ -5,7 +5,8 @@ import type {
     ReservationResponse,
     MyReservationsResponse,
     ReservationOnBehalfRequest,
-    ReservationDetail
+    ReservationDetail,
+    CursorPage
 } from "../types/schedule";
 import { AxiosError } from "axios";
 
@@ -60,6 +61,17 @@ export class AvailabilityApi {
         }
     }
 
+    static async getMyPastReservations(cursor: string): Promise<CursorPage<ReservationDetail>> {
+        try {
+            const { data } = await http.get<CursorPage<ReservationDetail>>("/reservations/my-reservations/past", {
+                params: { cursor },
+            });
+            return data;
+        } catch (e) {
+            throw new Error(errorMessage(e));
+        }
+    }
+
     static async cancelReservation(id: number): Promise<void> {
         try {
             await http.delete(`/reservations/${id}`);
@@ -80,9 +92,11 @@ export class AvailabilityApi {
 
 
     // (ADMIN) Permite ver quién tiene reservada una sala específica
-    static async getReservationsByRoom(roomId: number): Promise<ReservationDetail[]> {
+    static async getReservationsByRoom(roomId: number, cursor?: string): Promise<CursorPage<ReservationDetail>> {
         try {
-            const { data } = await http.get<ReservationDetail[]>(`/room/${roomId}`);
+            const { data } = await http.get<CursorPage<ReservationDetail>>(`/room/${roomId}`, {
+                params: cursor ? { cursor } : undefined,
+            });
             return data;
         } catch (e) {
             throw new Error(errorMessage(e));
@@ -55,6 +55,11 @@ export type MyReservationsResponse = {
     current: ReservationDetail | null;
     future: ReservationDetail[];
     past: ReservationDetail[];
+    pastNextCursor: string | null;
+};
+export type CursorPage<T> = {
+    items: T[];
+    nextCursor: string | null;
 };
 export type ReservationOnBehalfRequest = {
     roomId: string;